@@ -0,0 +1,198 @@
+package se.imagick.ft.fft;
+
+/**
+ * Bit reversal, the order the values have after the FFT-DIF butterflies, and how to put them
+ * back in frequency order.<br>
+ * The order is found by cutting the sequence in two and placing the right part at the bottom
+ * of the heap, over and over again:<br>
+ * <pre>
+ * ABCD -&gt; AB -&gt; A
+ *         CD    C
+ *               B
+ *               D
+ * </pre>
+ * which is the same as reading each index with its bits in reverse order (for 8 values
+ * index 1 = 001 ends up at 100 = 4, 3 = 011 at 110 = 6 and so on).<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class BitReversal {
+
+    /**
+     * The number of bits in the low and high part of an index that make up one block (tile)
+     * in the blocked reorder. A block of 2^3 * 2^3 values gives one cache line per row.
+     */
+    static final int BLOCK_BITS = 3;
+
+    private BitReversal() {
+    }
+
+    /**
+     * Calculates the bit reversed index for every index in O(n). The reversal of an index is the
+     * reversal of the index shifted right one step (shifted back), with the lowest bit moved to the top.
+     *
+     * @param size A power of two.
+     * @return An array where element i holds the bit reversal of i.
+     */
+    static int[] table(int size) {
+        int[] table = new int[size];
+        int topBit = size >> 1;
+
+        for (int i = 1; i < size; i++) {
+            table[i] = (table[i >> 1] >> 1) | ((i & 1) * topBit);
+        }
+
+        return table;
+    }
+
+    /**
+     * Reorders in place using a complete table, see table(int). The reversal pairs up indexes
+     * two and two (or leaves them where they are), so swapping each pair once is enough.
+     */
+    static void reorder(double[] realValues, double[] imagValues, int offset, int[] table) {
+
+        for (int i = 0; i < table.length; i++) {
+            int reverseIndex = table[i];
+
+            if (i < reverseIndex) {
+                swap(realValues, imagValues, offset + i, offset + reverseIndex);
+            }
+        }
+    }
+
+    /**
+     * Reorders in place one block at a time, for sizes where the values do not fit in the cache.
+     * An index is split into a high part, a middle part and a low part, where the high and low parts
+     * have BLOCK_BITS bits each. The reversal of (high, middle, low) is (reverse low, reverse middle, reverse high),
+     * so all indexes with the same middle part are swapped with the indexes of the reversed middle part.
+     * Those are two small blocks (2^BLOCK_BITS rows of 2^BLOCK_BITS values each) which stay in the cache
+     * while they are swapped, instead of jumping all over the arrays as the complete table does.
+     *
+     * @param size A power of two, at least 2^(2 * BLOCK_BITS).
+     * @param blockTable table(2^BLOCK_BITS).
+     * @param middleTable table(size / 2^(2 * BLOCK_BITS)).
+     */
+    static void reorderBlocked(double[] realValues, double[] imagValues, int offset, int size,
+                               int[] blockTable, int[] middleTable) {
+
+        int blockSize = blockTable.length;
+        int highShift = Integer.numberOfTrailingZeros(size) - BLOCK_BITS;
+
+        for (int middle = 0; middle < middleTable.length; middle++) {
+            int reverseMiddle = middleTable[middle];
+
+            if (middle > reverseMiddle) {
+                continue; // Already swapped with the reversed middle part.
+            }
+
+            // Within a block that is its own reversal, each pair must only be swapped once.
+            boolean isOwnReversal = middle == reverseMiddle;
+            int middleBits = middle << BLOCK_BITS;
+            int reverseMiddleBits = reverseMiddle << BLOCK_BITS;
+
+            for (int high = 0; high < blockSize; high++) {
+                int rowStart = (high << highShift) | middleBits;
+                int reverseLow = blockTable[high];
+
+                for (int low = 0; low < blockSize; low++) {
+                    int index = rowStart | low;
+                    int reverseIndex = (blockTable[low] << highShift) | reverseMiddleBits | reverseLow;
+
+                    if (!isOwnReversal || index < reverseIndex) {
+                        swap(realValues, imagValues, offset + index, offset + reverseIndex);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void swap(double[] realValues, double[] imagValues, int index, int otherIndex) {
+        double temp = realValues[index];
+        realValues[index] = realValues[otherIndex];
+        realValues[otherIndex] = temp;
+        temp = imagValues[index];
+        imagValues[index] = imagValues[otherIndex];
+        imagValues[otherIndex] = temp;
+    }
+
+    /**
+     * Same as reorder(double[], double[], int, int[]), for float values.
+     */
+    static void reorder(float[] realValues, float[] imagValues, int offset, int[] table) {
+
+        for (int i = 0; i < table.length; i++) {
+            int reverseIndex = table[i];
+
+            if (i < reverseIndex) {
+                swap(realValues, imagValues, offset + i, offset + reverseIndex);
+            }
+        }
+    }
+
+    /**
+     * Same as reorderBlocked(double[], double[], int, int, int[], int[]), for float values.
+     */
+    static void reorderBlocked(float[] realValues, float[] imagValues, int offset, int size,
+                               int[] blockTable, int[] middleTable) {
+
+        int blockSize = blockTable.length;
+        int highShift = Integer.numberOfTrailingZeros(size) - BLOCK_BITS;
+
+        for (int middle = 0; middle < middleTable.length; middle++) {
+            int reverseMiddle = middleTable[middle];
+
+            if (middle > reverseMiddle) {
+                continue; // Already swapped with the reversed middle part.
+            }
+
+            // Within a block that is its own reversal, each pair must only be swapped once.
+            boolean isOwnReversal = middle == reverseMiddle;
+            int middleBits = middle << BLOCK_BITS;
+            int reverseMiddleBits = reverseMiddle << BLOCK_BITS;
+
+            for (int high = 0; high < blockSize; high++) {
+                int rowStart = (high << highShift) | middleBits;
+                int reverseLow = blockTable[high];
+
+                for (int low = 0; low < blockSize; low++) {
+                    int index = rowStart | low;
+                    int reverseIndex = (blockTable[low] << highShift) | reverseMiddleBits | reverseLow;
+
+                    if (!isOwnReversal || index < reverseIndex) {
+                        swap(realValues, imagValues, offset + index, offset + reverseIndex);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void swap(float[] realValues, float[] imagValues, int index, int otherIndex) {
+        float temp = realValues[index];
+        realValues[index] = realValues[otherIndex];
+        realValues[otherIndex] = temp;
+        temp = imagValues[index];
+        imagValues[index] = imagValues[otherIndex];
+        imagValues[otherIndex] = temp;
+    }
+}
@@ -0,0 +1,306 @@
+package se.imagick.ft.fft;
+
+/**
+ * Base for transforms built on a complex transform in place (frequency order, no scaling).
+ * Implements the real transforms of Fft on top of it, and complex transforms of the full spectrum (Eg I/Q data
+ * from a software radio): forwardComplex (scaled by 1 / size, so that the magnitude of a frequency is the
+ * amplitude of it) and inverseComplex (not scaled, so it gives back the input of forwardComplex).
+ * Use FftPlans.getComplexFft(size) to get a suitable (shared) implementation for any size.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public abstract class ComplexFft implements Fft {
+
+    /**
+     * @return The number of values needed in each of the scratch arrays given to the transforms
+     * (zero if they need none, then null may be given).
+     */
+    public abstract int getScratchSize();
+
+    /**
+     * Complex transform in place, in frequency order and without scaling. NB! The transform turns with a
+     * positive angle, the usual (negative angle) forward transform is calculated by swapping the real and
+     * imaginary arrays.
+     *
+     * @param realValues The real values, getSize() values from offset.
+     * @param imagValues The imaginary values, getSize() values from offset.
+     * @param offset The index of the first value.
+     * @param scratchReal Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     * @param scratchImag Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     */
+    abstract void transform(double[] realValues, double[] imagValues, int offset, double[] scratchReal,
+                            double[] scratchImag);
+
+    /**
+     * Complex transform in place, allocating the scratch arrays if needed.
+     */
+    void transform(double[] realValues, double[] imagValues, int offset) {
+        transform(realValues, imagValues, offset, newScratch(), newScratch());
+    }
+
+    /**
+     * @return A scratch array for the transforms, or null if they need none.
+     */
+    private double[] newScratch() {
+        int scratchSize = getScratchSize();
+        return (scratchSize > 0) ? new double[scratchSize] : null;
+    }
+
+    /**
+     * Complex forward transform of the full spectrum, allocating the output.
+     *
+     * @param realValuesIn The real values, getSize() values.
+     * @param imagValuesIn The imaginary values, getSize() values.
+     * @return The real values (index 0) and imaginary values (index 1) of all getSize() frequencies, in frequency
+     * order starting with zero (the negative frequencies in the second half), scaled by 1 / getSize().
+     */
+    public double[][] forwardComplex(double[] realValuesIn, double[] imagValuesIn) {
+
+        checkLength(realValuesIn, imagValuesIn);
+        double[] realValues = realValuesIn.clone();
+        double[] imagValues = imagValuesIn.clone();
+        forwardComplex(realValues, imagValues, 0);
+
+        return new double[][]{realValues, imagValues};
+    }
+
+    /**
+     * Complex forward transform of the full spectrum into the caller's arrays. The input is not changed,
+     * unless it is the same as the output.
+     *
+     * @param realValuesIn The real values, getSize() values from inOffset.
+     * @param imagValuesIn The imaginary values, getSize() values from inOffset.
+     * @param inOffset The index of the first value in realValuesIn and imagValuesIn.
+     * @param realValuesOut Receives the real values of the frequencies, see forwardComplex(double[], double[]).
+     * @param imagValuesOut Receives the imaginary values of the frequencies.
+     * @param outOffset The index of frequency zero in realValuesOut and imagValuesOut.
+     */
+    public void forwardComplex(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut,
+                               double[] imagValuesOut, int outOffset) {
+
+        forwardComplex(realValuesIn, imagValuesIn, inOffset, realValuesOut, imagValuesOut, outOffset, newScratch(),
+                newScratch());
+    }
+
+    /**
+     * Same as forwardComplex(double[], double[], int, double[], double[], int), with the caller's scratch arrays
+     * (so nothing is allocated).
+     *
+     * @param scratchReal Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     * @param scratchImag Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     */
+    public void forwardComplex(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut,
+                               double[] imagValuesOut, int outOffset, double[] scratchReal, double[] scratchImag) {
+
+        copy(realValuesIn, imagValuesIn, inOffset, realValuesOut, imagValuesOut, outOffset);
+        forwardComplex(realValuesOut, imagValuesOut, outOffset, scratchReal, scratchImag);
+    }
+
+    /**
+     * Complex forward transform of the full spectrum in place, see forwardComplex(double[], double[]).
+     *
+     * @param realValues The real values, getSize() values from offset. Receives the real values of the frequencies.
+     * @param imagValues The imaginary values. Receives the imaginary values of the frequencies.
+     * @param offset The index of the first value.
+     */
+    public void forwardComplex(double[] realValues, double[] imagValues, int offset) {
+        forwardComplex(realValues, imagValues, offset, newScratch(), newScratch());
+    }
+
+    /**
+     * Same as forwardComplex(double[], double[], int), with the caller's scratch arrays (so nothing is allocated).
+     *
+     * @param realValues The real values, getSize() values from offset. Receives the real values of the frequencies.
+     * @param imagValues The imaginary values. Receives the imaginary values of the frequencies.
+     * @param offset The index of the first value.
+     * @param scratchReal Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     * @param scratchImag Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     */
+    public void forwardComplex(double[] realValues, double[] imagValues, int offset, double[] scratchReal,
+                               double[] scratchImag) {
+
+        int size = getSize();
+        FftDif.checkRange(realValues, offset, size);
+        FftDif.checkRange(imagValues, offset, size);
+
+        // The transform turns with a positive angle, swapping real and imaginary gives the negative one.
+        transform(imagValues, realValues, offset, scratchImag, scratchReal);
+
+        double scale = 1d / size;
+
+        for (int i = offset; i < offset + size; i++) {
+            realValues[i] *= scale;
+            imagValues[i] *= scale;
+        }
+    }
+
+    /**
+     * Complex inverse transform of the full spectrum, allocating the output.
+     *
+     * @param realValuesIn The real values of all getSize() frequencies, in frequency order (as from forwardComplex).
+     * @param imagValuesIn The imaginary values of the frequencies.
+     * @return The real values (index 0) and imaginary values (index 1), not scaled.
+     */
+    public double[][] inverseComplex(double[] realValuesIn, double[] imagValuesIn) {
+
+        checkLength(realValuesIn, imagValuesIn);
+        double[] realValues = realValuesIn.clone();
+        double[] imagValues = imagValuesIn.clone();
+        inverseComplex(realValues, imagValues, 0);
+
+        return new double[][]{realValues, imagValues};
+    }
+
+    /**
+     * Complex inverse transform of the full spectrum into the caller's arrays. The input is not changed,
+     * unless it is the same as the output.
+     *
+     * @param realValuesIn The real values of the frequencies, getSize() values from inOffset.
+     * @param imagValuesIn The imaginary values of the frequencies, getSize() values from inOffset.
+     * @param inOffset The index of frequency zero in realValuesIn and imagValuesIn.
+     * @param realValuesOut Receives the real values.
+     * @param imagValuesOut Receives the imaginary values.
+     * @param outOffset The index of the first value in realValuesOut and imagValuesOut.
+     */
+    public void inverseComplex(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut,
+                               double[] imagValuesOut, int outOffset) {
+
+        inverseComplex(realValuesIn, imagValuesIn, inOffset, realValuesOut, imagValuesOut, outOffset, newScratch(),
+                newScratch());
+    }
+
+    /**
+     * Same as inverseComplex(double[], double[], int, double[], double[], int), with the caller's scratch arrays
+     * (so nothing is allocated).
+     *
+     * @param scratchReal Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     * @param scratchImag Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     */
+    public void inverseComplex(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut,
+                               double[] imagValuesOut, int outOffset, double[] scratchReal, double[] scratchImag) {
+
+        copy(realValuesIn, imagValuesIn, inOffset, realValuesOut, imagValuesOut, outOffset);
+        inverseComplex(realValuesOut, imagValuesOut, outOffset, scratchReal, scratchImag);
+    }
+
+    /**
+     * Complex inverse transform of the full spectrum in place, see inverseComplex(double[], double[]).
+     *
+     * @param realValues The real values of the frequencies, getSize() values from offset. Receives the real values.
+     * @param imagValues The imaginary values of the frequencies. Receives the imaginary values.
+     * @param offset The index of frequency zero.
+     */
+    public void inverseComplex(double[] realValues, double[] imagValues, int offset) {
+        inverseComplex(realValues, imagValues, offset, newScratch(), newScratch());
+    }
+
+    /**
+     * Same as inverseComplex(double[], double[], int), with the caller's scratch arrays (so nothing is allocated).
+     *
+     * @param realValues The real values of the frequencies, getSize() values from offset. Receives the real values.
+     * @param imagValues The imaginary values of the frequencies. Receives the imaginary values.
+     * @param offset The index of frequency zero.
+     * @param scratchReal Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     * @param scratchImag Working area, at least getScratchSize() values. May be null if getScratchSize() is zero.
+     */
+    public void inverseComplex(double[] realValues, double[] imagValues, int offset, double[] scratchReal,
+                               double[] scratchImag) {
+
+        FftDif.checkRange(realValues, offset, getSize());
+        FftDif.checkRange(imagValues, offset, getSize());
+        transform(realValues, imagValues, offset, scratchReal, scratchImag);
+    }
+
+    private void checkLength(double[] realValues, double[] imagValues) {
+        if (realValues.length != getSize() || imagValues.length != getSize()) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+    }
+
+    private void copy(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut,
+                      double[] imagValuesOut, int outOffset) {
+
+        int size = getSize();
+        FftDif.checkRange(realValuesIn, inOffset, size);
+        FftDif.checkRange(imagValuesIn, inOffset, size);
+        FftDif.checkRange(realValuesOut, outOffset, size);
+        FftDif.checkRange(imagValuesOut, outOffset, size);
+        System.arraycopy(realValuesIn, inOffset, realValuesOut, outOffset, size);
+        System.arraycopy(imagValuesIn, inOffset, imagValuesOut, outOffset, size);
+    }
+
+    @Override
+    public double[][] forward(double[] realValuesIn) {
+
+        int size = getSize();
+
+        if (realValuesIn.length != size) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+
+        double[] realValues = realValuesIn.clone();
+        double[] imagValues = new double[size];
+        transform(realValues, imagValues, 0);
+
+        int dftSize = size / 2 + 1;
+        double[] re = new double[dftSize];
+        double[] im = new double[dftSize];
+        re[0] = realValues[0] / size;
+        im[0] = -imagValues[0] / size;
+
+        // Add the negative frequencies to the positive ones.
+        for (int i = 1; i < dftSize; i++) {
+            re[i] = (realValues[i] + realValues[size - i]) / size;
+            im[i] = (imagValues[size - i] - imagValues[i]) / size;
+        }
+
+        // For even sizes the last frequency is its own negative frequency.
+        if (size % 2 == 0) {
+            re[dftSize - 1] = realValues[dftSize - 1] / size;
+            im[dftSize - 1] = -imagValues[dftSize - 1] / size;
+        }
+
+        return new double[][]{re, im};
+    }
+
+    @Override
+    public double[] inverse(double[] realValuesIn, double[] imagValuesIn) {
+
+        int size = getSize();
+        int dftSize = size / 2 + 1;
+
+        if (realValuesIn.length != dftSize || imagValuesIn.length != dftSize) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+
+        // Only the positive frequencies are used.
+        double[] realValues = new double[size];
+        double[] imagValues = new double[size];
+        System.arraycopy(realValuesIn, 0, realValues, 0, dftSize);
+        System.arraycopy(imagValuesIn, 0, imagValues, 0, dftSize);
+        transform(realValues, imagValues, 0);
+
+        return realValues;
+    }
+}
@@ -0,0 +1,195 @@
+package se.imagick.ft.fft;
+
+/**
+ * The butterflies of the FFT-DIT (decimation in time), the FFT-DIF butterflies run backwards. The values are
+ * read in decomp (bit reversed) order, which is the order the FFT-DIF butterflies leave them in, and end up in
+ * frequency order. So a FFT-DIF forward followed by a FFT-DIT inverse never has to reorder the values.<br>
+ * The passes are radix 4 (see Radix4Kernel), starting with butterfly size 4, with a radix 2 pass of the whole
+ * size last if the number of radix 2 passes is odd. For butterfly size L and j &lt; L / 4, the four sub
+ * transforms (A0, A2, A1, A3 in that order, L / 4 apart) are combined as:<br>
+ * <pre>
+ * b1 = A1 * w^j, b2 = A2 * w^2j, b3 = A3 * w^3j
+ * y0 = (A0 + b2) + (b1 + b3)
+ * y1 = (A0 - b2) + i(b1 - b3)
+ * y2 = (A0 + b2) - (b1 + b3)
+ * y3 = (A0 - b2) - i(b1 - b3)
+ * </pre>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class DitButterflies {
+
+    private DitButterflies() {
+    }
+
+    /**
+     * Calculates the butterflies in place. The values are read in decomp order, the result is in frequency order
+     * and is not scaled. NB! The butterflies turn with a positive angle, like the FftKernel butterflies.
+     *
+     * @param plan The plan for the size of the transform.
+     * @param realValues The real values, plan.getSize() values from offset.
+     * @param imagValues The imaginary values, plan.getSize() values from offset.
+     * @param offset The index of the first value.
+     */
+    static void transform(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        int maxRadix4Size = (Integer.numberOfTrailingZeros(size) % 2 == 1) ? size / 2 : size;
+
+        if (maxRadix4Size >= 4) {
+            firstRadix4Pass(realValues, imagValues, offset, size);
+        }
+
+        for (int butterflySize = 16; butterflySize <= maxRadix4Size; butterflySize *= 4) {
+            radix4Pass(plan, realValues, imagValues, offset, butterflySize);
+        }
+
+        if (maxRadix4Size < size) {
+            radix2Pass(plan, realValues, imagValues, offset);
+        }
+    }
+
+    /**
+     * The first pass (butterfly size 4), where all the sines are zero and all the cosines are one.
+     */
+    private static void firstRadix4Pass(double[] realValues, double[] imagValues, int offset, int size) {
+
+        for (int index0 = offset; index0 < offset + size; index0 += 4) {
+            double real0 = realValues[index0];
+            double imag0 = imagValues[index0];
+            double real2 = realValues[index0 + 1];
+            double imag2 = imagValues[index0 + 1];
+            double real1 = realValues[index0 + 2];
+            double imag1 = imagValues[index0 + 2];
+            double real3 = realValues[index0 + 3];
+            double imag3 = imagValues[index0 + 3];
+
+            double sumReal02 = real0 + real2;
+            double sumImag02 = imag0 + imag2;
+            double diffReal02 = real0 - real2;
+            double diffImag02 = imag0 - imag2;
+            double sumReal13 = real1 + real3;
+            double sumImag13 = imag1 + imag3;
+            double diffReal13 = real1 - real3;
+            double diffImag13 = imag1 - imag3;
+
+            realValues[index0] = sumReal02 + sumReal13;
+            imagValues[index0] = sumImag02 + sumImag13;
+            realValues[index0 + 1] = diffReal02 - diffImag13;
+            imagValues[index0 + 1] = diffImag02 + diffReal13;
+            realValues[index0 + 2] = sumReal02 - sumReal13;
+            imagValues[index0 + 2] = sumImag02 - sumImag13;
+            realValues[index0 + 3] = diffReal02 + diffImag13;
+            imagValues[index0 + 3] = diffImag02 - diffReal13;
+        }
+    }
+
+    private static void radix4Pass(FftPlan plan, double[] realValues, double[] imagValues, int offset,
+                                   int butterflySize) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int size = plan.getSize();
+        int quarter = butterflySize / 4;
+        int sinStep = size / butterflySize;
+
+        for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex++) {
+                int index0 = butterflyIndexStart + butterflyIndex;
+                int index1 = index0 + quarter;
+                int index2 = index1 + quarter;
+                int index3 = index2 + quarter;
+
+                int sinIndex1 = butterflyIndex * sinStep;
+                int sinIndex2 = 2 * sinIndex1;
+                int sinIndex3 = 3 * sinIndex1;
+                double cos1 = twiddles.cosOfFirstQuarter(sinIndex1);
+                double sin1 = twiddles.sinOfFirstQuarter(sinIndex1);
+                double cos2 = twiddles.cos(sinIndex2);
+                double sin2 = twiddles.sin(sinIndex2);
+                double cos3 = twiddles.cos(sinIndex3);
+                double sin3 = twiddles.sin(sinIndex3);
+
+                // The sub transforms are in decomp order, so A2 comes before A1.
+                double real0 = realValues[index0];
+                double imag0 = imagValues[index0];
+                double realTemp = realValues[index1];
+                double imagTemp = imagValues[index1];
+                double real2 = realTemp * cos2 - imagTemp * sin2;
+                double imag2 = realTemp * sin2 + imagTemp * cos2;
+                realTemp = realValues[index2];
+                imagTemp = imagValues[index2];
+                double real1 = realTemp * cos1 - imagTemp * sin1;
+                double imag1 = realTemp * sin1 + imagTemp * cos1;
+                realTemp = realValues[index3];
+                imagTemp = imagValues[index3];
+                double real3 = realTemp * cos3 - imagTemp * sin3;
+                double imag3 = realTemp * sin3 + imagTemp * cos3;
+
+                double sumReal02 = real0 + real2;
+                double sumImag02 = imag0 + imag2;
+                double diffReal02 = real0 - real2;
+                double diffImag02 = imag0 - imag2;
+                double sumReal13 = real1 + real3;
+                double sumImag13 = imag1 + imag3;
+                double diffReal13 = real1 - real3;
+                double diffImag13 = imag1 - imag3;
+
+                // Multiplying by i turns (re, im) into (-im, re).
+                realValues[index0] = sumReal02 + sumReal13;
+                imagValues[index0] = sumImag02 + sumImag13;
+                realValues[index1] = diffReal02 - diffImag13;
+                imagValues[index1] = diffImag02 + diffReal13;
+                realValues[index2] = sumReal02 - sumReal13;
+                imagValues[index2] = sumImag02 - sumImag13;
+                realValues[index3] = diffReal02 + diffImag13;
+                imagValues[index3] = diffImag02 - diffReal13;
+            }
+        }
+    }
+
+    /**
+     * The last radix 2 pass (butterfly size = size).
+     */
+    private static void radix2Pass(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int butterflyHalfsize = plan.getSize() / 2;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+            int currIndex = offset + butterflyIndex;
+            int currDoubleIndex = currIndex + butterflyHalfsize;
+
+            double currCos = twiddles.cos(butterflyIndex);
+            double currSin = twiddles.sin(butterflyIndex);
+            double realTemp = realValues[currDoubleIndex] * currCos - imagValues[currDoubleIndex] * currSin;
+            double imagTemp = realValues[currDoubleIndex] * currSin + imagValues[currDoubleIndex] * currCos;
+
+            realValues[currDoubleIndex] = realValues[currIndex] - realTemp;
+            imagValues[currDoubleIndex] = imagValues[currIndex] - imagTemp;
+            realValues[currIndex] += realTemp;
+            imagValues[currIndex] += imagTemp;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package se.imagick.ft.fft;
+
+/**
+ * A Fourier transform of real values (Eg audio data) of a fixed size. All implementations
+ * use the same input and output as FftDif: forward gives size / 2 + 1 frequencies (dc included,
+ * integer division for odd sizes) in frequency order, scaled so that the magnitude is the amplitude
+ * of each frequency. Inverse takes the same frequencies and gives back the real values.<br>
+ * Use FftPlans.getFft(size) to get a suitable (shared) implementation for any size.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public interface Fft {
+
+    /**
+     * @return The number of real values the transform works on.
+     */
+    int getSize();
+
+    /**
+     * Calculates the complex values.
+     *
+     * @param realValuesIn An array with purely real values (Eg audio data).
+     * @return A list with two arrays. The first is the real values, the second the imaginary values.
+     * The number of indexes can be computed as follows: size / 2 + 1 (dc).
+     * The frequencies are in frequency order starting with zero.
+     */
+    double[][] forward(double[] realValuesIn);
+
+    /**
+     * Calculates the real values from the frequencies given by forward.
+     *
+     * @param realValuesIn The real values of the frequencies, size / 2 + 1 (dc) values.
+     * @param imagValuesIn The imaginary values of the frequencies, size / 2 + 1 (dc) values.
+     * @return The real values.
+     */
+    double[] inverse(double[] realValuesIn, double[] imagValuesIn);
+}
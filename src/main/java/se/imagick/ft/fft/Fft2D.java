@@ -0,0 +1,235 @@
+package se.imagick.ft.fft;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Two dimensional FFT of images (Eg for filtering), of any width and height (see FftPlans.getFft).
+ * The values are stored row by row, value[y * width + x], as in a Raster.<br>
+ * The rows are transformed first, then the matrix is transposed so that the columns can be transformed
+ * as rows, and transposed back. The transposes are blocked to stay in the cache, and the rows are
+ * transformed in parallel (in the common ForkJoinPool unless another pool is given).<br>
+ * Unlike the one dimensional transforms, the whole (complex) spectrum is calculated:
+ * forward gives frequency [ky][kx] at index ky * width + kx, scaled with 1 / (width * height), and
+ * inverse takes the same spectrum back to the values, without scaling.
+ * The implementation is thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class Fft2D {
+
+    private final int width;
+    private final int height;
+    private final ComplexFft rowFft;
+    private final ComplexFft columnFft;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param width The number of values in each row.
+     * @param height The number of rows.
+     */
+    public Fft2D(int width, int height) {
+        this(width, height, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param width The number of values in each row.
+     * @param height The number of rows.
+     * @param pool The pool that transforms the rows.
+     */
+    public Fft2D(int width, int height, ForkJoinPool pool) {
+        this.width = width;
+        this.height = height;
+        this.rowFft = FftPlans.getComplexFft(width);
+        this.columnFft = FftPlans.getComplexFft(height);
+        this.pool = pool;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Calculates the spectrum of real values.
+     *
+     * @param values width * height values, row by row.
+     * @return The real values and the imaginary values of the spectrum, frequency [ky][kx] at ky * width + kx.
+     */
+    public double[][] forward(double[] values) {
+
+        FftDif.checkRange(values, 0, width * height);
+
+        double[] realValues = new double[width * height];
+        double[] imagValues = new double[width * height];
+        System.arraycopy(values, 0, realValues, 0, width * height);
+        forward(realValues, imagValues, new double[width * height], new double[width * height]);
+
+        return new double[][]{realValues, imagValues};
+    }
+
+    /**
+     * Calculates the spectrum of one band (Eg red) of an image.
+     */
+    public double[][] forward(BufferedImage image, int band) {
+        checkImage(image);
+        return forward(getBand(image, band));
+    }
+
+    /**
+     * Calculates the spectrum in place. For power of two sizes nothing is allocated. For other sizes each task
+     * allocates the working area of its row or column transform (see ComplexFft.getScratchSize), once per call.
+     *
+     * @param realValues The real values, replaced with the real values of the spectrum.
+     * @param imagValues The imaginary values, replaced with the imaginary values of the spectrum.
+     * @param scratchReal Working area of width * height values.
+     * @param scratchImag Working area of width * height values.
+     */
+    public void forward(double[] realValues, double[] imagValues, double[] scratchReal, double[] scratchImag) {
+        // The transforms turn with a positive angle, swapping real and imaginary turns the other way.
+        transform(imagValues, realValues, scratchImag, scratchReal, 1d / ((double) width * height));
+    }
+
+    /**
+     * Calculates the real values of a spectrum (given by forward). The arrays are not changed.
+     *
+     * @return width * height values, row by row.
+     */
+    public double[] inverse(double[] realValuesIn, double[] imagValuesIn) {
+
+        FftDif.checkRange(realValuesIn, 0, width * height);
+        FftDif.checkRange(imagValuesIn, 0, width * height);
+
+        double[] realValues = realValuesIn.clone();
+        double[] imagValues = imagValuesIn.clone();
+        inverse(realValues, imagValues, new double[width * height], new double[width * height]);
+
+        return realValues;
+    }
+
+    /**
+     * Calculates the real values of a spectrum, and writes them to one band of an image.
+     * See setBand for how the values are rounded.
+     */
+    public void inverse(double[] realValuesIn, double[] imagValuesIn, BufferedImage image, int band) {
+        checkImage(image);
+        setBand(image, band, inverse(realValuesIn, imagValuesIn));
+    }
+
+    /**
+     * Calculates the complex values of a spectrum in place. For power of two sizes nothing is allocated.
+     * For other sizes each task allocates the working area of its row or column transform, as in forward.
+     *
+     * @param realValues The real values of the spectrum, replaced with the real values.
+     * @param imagValues The imaginary values of the spectrum, replaced with the imaginary values.
+     * @param scratchReal Working area of width * height values.
+     * @param scratchImag Working area of width * height values.
+     */
+    public void inverse(double[] realValues, double[] imagValues, double[] scratchReal, double[] scratchImag) {
+        transform(realValues, imagValues, scratchReal, scratchImag, 1d);
+    }
+
+    /**
+     * @return The values of one band of the image, row by row.
+     */
+    public static double[] getBand(BufferedImage image, int band) {
+        return image.getRaster().getSamples(0, 0, image.getWidth(), image.getHeight(), band, (double[]) null);
+    }
+
+    /**
+     * Writes the values to one band of the image. For images with integer samples the values
+     * are rounded and clamped to the range of the band (Eg 0 - 255).
+     */
+    public static void setBand(BufferedImage image, int band, double[] values) {
+
+        WritableRaster raster = image.getRaster();
+        int dataType = raster.getDataBuffer().getDataType();
+        double[] samples = values;
+
+        if (dataType != DataBuffer.TYPE_FLOAT && dataType != DataBuffer.TYPE_DOUBLE) {
+            int sampleSize = raster.getSampleModel().getSampleSize(band);
+            double maxValue = (sampleSize >= 32) ? Integer.MAX_VALUE : (1L << sampleSize) - 1;
+            samples = new double[values.length];
+
+            for (int i = 0; i < values.length; i++) {
+                samples[i] = Math.max(0d, Math.min(maxValue, Math.rint(values[i])));
+            }
+        }
+
+        raster.setSamples(0, 0, image.getWidth(), image.getHeight(), band, samples);
+    }
+
+    private void transform(double[] realValues, double[] imagValues, double[] scratchReal, double[] scratchImag,
+                           double scale) {
+
+        FftDif.checkRange(realValues, 0, width * height);
+        FftDif.checkRange(imagValues, 0, width * height);
+        FftDif.checkRange(scratchReal, 0, width * height);
+        FftDif.checkRange(scratchImag, 0, width * height);
+
+        transformRows(rowFft, realValues, imagValues, height, width, 1d);
+
+        ParallelRows.forEach(pool, width, height, (from, to) -> Transpose.transpose(realValues, imagValues, 0,
+                height, width, scratchReal, scratchImag, 0, from, to));
+
+        transformRows(columnFft, scratchReal, scratchImag, width, height, scale);
+
+        ParallelRows.forEach(pool, height, width, (from, to) -> Transpose.transpose(scratchReal, scratchImag, 0,
+                width, height, realValues, imagValues, 0, from, to));
+    }
+
+    private void transformRows(ComplexFft fft, double[] realValues, double[] imagValues, int noOfRows,
+                               int rowLength, double scale) {
+
+        ParallelRows.forEach(pool, noOfRows, rowLength, (from, to) -> {
+            // Each task has its own working area (if the transform needs one).
+            int scratchSize = fft.getScratchSize();
+            double[] scratchReal = (scratchSize > 0) ? new double[scratchSize] : null;
+            double[] scratchImag = (scratchSize > 0) ? new double[scratchSize] : null;
+
+            for (int row = from; row < to; row++) {
+                int offset = row * rowLength;
+                fft.transform(realValues, imagValues, offset, scratchReal, scratchImag);
+
+                if (scale != 1d) {
+                    for (int i = offset; i < offset + rowLength; i++) {
+                        realValues[i] *= scale;
+                        imagValues[i] *= scale;
+                    }
+                }
+            }
+        });
+    }
+
+    private void checkImage(BufferedImage image) {
+        if (image.getWidth() != width || image.getHeight() != height) {
+            throw new IllegalArgumentException("Wrong image size!");
+        }
+    }
+}
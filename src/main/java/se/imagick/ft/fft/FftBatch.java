@@ -0,0 +1,390 @@
+package se.imagick.ft.fft;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FFT of many real signals of the same size at once (Eg one frame per sensor), with the same input and
+ * output per signal as FftDif.<br>
+ * The signals are stored one after the other in one block (signal m at index m * size), and so are the
+ * spectra (signal m at index m * (size / 2 + 1)). The signals are transformed in groups that fit in the
+ * cache. Each group is interleaved (value n of all signals of the group next to each other), so that every
+ * butterfly runs over all the signals of the group in an inner loop over adjacent values, using the same
+ * twiddle factors. Two real signals share each complex transform (one as the real part, one as the
+ * imaginary part), which halves the number of butterflies.<br>
+ * The groups are independent, and are transformed in parallel if a ForkJoinPool is given.
+ * The implementation is thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftBatch {
+
+    /**
+     * The number of complex values of a group, small enough for the group to stay in the cache.
+     */
+    private static final int GROUP_VALUES = 1 << 14;
+    private static final int MAX_LANES = 64;
+
+    private final int size;
+    private final int dftSize;
+    private final int lanes;
+    private final TwiddleTable twiddles;
+    private final int[] decompArray;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a batch transform that runs on the calling thread.
+     *
+     * @param size The size of each signal (a power of two, at least 2).
+     */
+    public FftBatch(int size) {
+        this(size, null);
+    }
+
+    /**
+     * @param size The size of each signal (a power of two, at least 2).
+     * @param pool The pool that transforms the groups in parallel, or null to run on the calling thread.
+     */
+    public FftBatch(int size, ForkJoinPool pool) {
+
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Not a power of two value (at least 2): " + size);
+        }
+
+        FftPlan plan = FftPlans.get(size);
+        this.size = size;
+        this.dftSize = size / 2 + 1;
+        this.lanes = Math.max(1, Math.min(MAX_LANES, GROUP_VALUES / size));
+        this.twiddles = plan.twiddles;
+        this.decompArray = plan.decompArray;
+        this.pool = pool;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Calculates the spectra of a block of signals.
+     *
+     * @param signals noOfSignals * size real values, one signal after the other.
+     * @param noOfSignals The number of signals in the block.
+     * @return The real values and the imaginary values of the spectra, noOfSignals * (size / 2 + 1) values each.
+     */
+    public double[][] forward(double[] signals, int noOfSignals) {
+        double[] realSpectra = new double[noOfSignals * dftSize];
+        double[] imagSpectra = new double[noOfSignals * dftSize];
+        forward(signals, noOfSignals, realSpectra, imagSpectra);
+
+        return new double[][]{realSpectra, imagSpectra};
+    }
+
+    /**
+     * Calculates the spectra of a block of signals into caller owned arrays.
+     *
+     * @param signals noOfSignals * size real values, one signal after the other.
+     * @param noOfSignals The number of signals in the block.
+     * @param realSpectra Receives the real values, noOfSignals * (size / 2 + 1) values.
+     * @param imagSpectra Receives the imaginary values, noOfSignals * (size / 2 + 1) values.
+     */
+    public void forward(double[] signals, int noOfSignals, double[] realSpectra, double[] imagSpectra) {
+
+        FftDif.checkRange(signals, 0, noOfSignals * size);
+        FftDif.checkRange(realSpectra, 0, noOfSignals * dftSize);
+        FftDif.checkRange(imagSpectra, 0, noOfSignals * dftSize);
+
+        forEachGroup(noOfSignals, (firstSignal, re, im) -> {
+            int noOfLanes = getNoOfLanes(firstSignal, noOfSignals);
+            interleave(signals, firstSignal, noOfSignals, noOfLanes, re, im);
+            transform(re, im);
+            separate(re, im, firstSignal, noOfSignals, noOfLanes, realSpectra, imagSpectra);
+        });
+    }
+
+    /**
+     * Calculates the signals of a block of spectra (as given by forward).
+     *
+     * @return noOfSignals * size real values, one signal after the other.
+     */
+    public double[] inverse(double[] realSpectra, double[] imagSpectra, int noOfSignals) {
+        double[] signals = new double[noOfSignals * size];
+        inverse(realSpectra, imagSpectra, noOfSignals, signals);
+
+        return signals;
+    }
+
+    /**
+     * Calculates the signals of a block of spectra (as given by forward) into a caller owned array.
+     * As for FftDif the imaginary values of dc and the last frequency are ignored.
+     *
+     * @param realSpectra The real values, noOfSignals * (size / 2 + 1) values.
+     * @param imagSpectra The imaginary values, noOfSignals * (size / 2 + 1) values.
+     * @param noOfSignals The number of signals in the block.
+     * @param signals Receives noOfSignals * size real values, one signal after the other.
+     */
+    public void inverse(double[] realSpectra, double[] imagSpectra, int noOfSignals, double[] signals) {
+
+        FftDif.checkRange(realSpectra, 0, noOfSignals * dftSize);
+        FftDif.checkRange(imagSpectra, 0, noOfSignals * dftSize);
+        FftDif.checkRange(signals, 0, noOfSignals * size);
+
+        forEachGroup(noOfSignals, (firstSignal, re, im) -> {
+            int noOfLanes = getNoOfLanes(firstSignal, noOfSignals);
+            combine(realSpectra, imagSpectra, firstSignal, noOfSignals, noOfLanes, re, im);
+            transform(re, im);
+            deinterleave(re, im, firstSignal, noOfSignals, noOfLanes, signals);
+        });
+    }
+
+    private interface GroupAction {
+        void run(int firstSignal, double[] re, double[] im);
+    }
+
+    /**
+     * Runs the action for all groups, each task with its own working area.
+     */
+    private void forEachGroup(int noOfSignals, GroupAction action) {
+        int signalsPerGroup = 2 * lanes;
+        int noOfGroups = (noOfSignals + signalsPerGroup - 1) / signalsPerGroup;
+        ParallelRows.RowAction groups = (fromGroup, toGroup) -> {
+            double[] re = new double[lanes * size];
+            double[] im = new double[lanes * size];
+
+            for (int group = fromGroup; group < toGroup; group++) {
+                action.run(group * signalsPerGroup, re, im);
+            }
+        };
+
+        if (pool == null) {
+            groups.run(0, noOfGroups);
+        } else {
+            ParallelRows.forEach(pool, noOfGroups, signalsPerGroup * size, groups);
+        }
+    }
+
+    private int getNoOfLanes(int firstSignal, int noOfSignals) {
+        return Math.min(lanes, (noOfSignals - firstSignal + 1) / 2);
+    }
+
+    /**
+     * Copies the signals of a group into the lanes, signal 2 * lane as the real part and signal 2 * lane + 1 as
+     * the imaginary part. The copy is done in blocks of values, so that the lines of the group that are
+     * written stay in the cache while the signals are read.
+     */
+    private void interleave(double[] signals, int firstSignal, int noOfSignals, int noOfLanes, double[] re,
+                            double[] im) {
+
+        for (int blockStart = 0; blockStart < size; blockStart += Transpose.BLOCK_SIZE) {
+            int blockEnd = Math.min(blockStart + Transpose.BLOCK_SIZE, size);
+
+            for (int lane = 0; lane < noOfLanes; lane++) {
+                int signal = firstSignal + 2 * lane;
+                boolean hasPair = signal + 1 < noOfSignals;
+
+                for (int n = blockStart; n < blockEnd; n++) {
+                    re[n * lanes + lane] = signals[signal * size + n];
+                    im[n * lanes + lane] = hasPair ? signals[(signal + 1) * size + n] : 0d;
+                }
+            }
+        }
+    }
+
+    /**
+     * Separates the two spectra of each lane, z(k) = conj(a(k)) + i * conj(b(k)) for the real signals a and b.
+     */
+    private void separate(double[] re, double[] im, int firstSignal, int noOfSignals, int noOfLanes,
+                          double[] realSpectra, double[] imagSpectra) {
+
+        int halfSize = size / 2;
+
+        for (int k = 0; k <= halfSize; k++) {
+            int index = decompArray[k] * lanes;
+            int mirrorIndex = decompArray[(size - k) & (size - 1)] * lanes;
+            double scale = (k == 0 || k == halfSize) ? 0.5d / size : 1d / size;
+
+            for (int lane = 0; lane < noOfLanes; lane++) {
+                int signal = firstSignal + 2 * lane;
+                double zRe = re[index + lane];
+                double zIm = im[index + lane];
+                double mirrorRe = re[mirrorIndex + lane];
+                double mirrorIm = im[mirrorIndex + lane];
+
+                realSpectra[signal * dftSize + k] = (zRe + mirrorRe) * scale;
+                imagSpectra[signal * dftSize + k] = (mirrorIm - zIm) * scale;
+
+                if (signal + 1 < noOfSignals) {
+                    realSpectra[(signal + 1) * dftSize + k] = (zIm + mirrorIm) * scale;
+                    imagSpectra[(signal + 1) * dftSize + k] = (zRe - mirrorRe) * scale;
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends the spectra of the real signals a and b of each lane to all frequencies, as the spectrum of a + i * b.
+     */
+    private void combine(double[] realSpectra, double[] imagSpectra, int firstSignal, int noOfSignals, int noOfLanes,
+                         double[] re, double[] im) {
+
+        int halfSize = size / 2;
+
+        for (int k = 0; k <= halfSize; k++) {
+            int index = k * lanes;
+            int mirrorIndex = ((size - k) & (size - 1)) * lanes;
+            boolean isOwnMirror = k == 0 || k == halfSize;
+
+            for (int lane = 0; lane < noOfLanes; lane++) {
+                int signal = firstSignal + 2 * lane;
+                boolean hasPair = signal + 1 < noOfSignals;
+                double aRe = realSpectra[signal * dftSize + k];
+                double aIm = imagSpectra[signal * dftSize + k];
+                double bRe = hasPair ? realSpectra[(signal + 1) * dftSize + k] : 0d;
+                double bIm = hasPair ? imagSpectra[(signal + 1) * dftSize + k] : 0d;
+
+                if (isOwnMirror) {
+                    re[index + lane] = aRe;
+                    im[index + lane] = bRe;
+                } else {
+                    re[index + lane] = (aRe - bIm) * 0.5d;
+                    im[index + lane] = (aIm + bRe) * 0.5d;
+                    re[mirrorIndex + lane] = (aRe + bIm) * 0.5d;
+                    im[mirrorIndex + lane] = (bRe - aIm) * 0.5d;
+                }
+            }
+        }
+    }
+
+    private void deinterleave(double[] re, double[] im, int firstSignal, int noOfSignals, int noOfLanes,
+                              double[] signals) {
+
+        for (int n = 0; n < size; n++) {
+            int index = decompArray[n] * lanes;
+
+            for (int lane = 0; lane < noOfLanes; lane++) {
+                int signal = firstSignal + 2 * lane;
+                signals[signal * size + n] = re[index + lane];
+
+                if (signal + 1 < noOfSignals) {
+                    signals[(signal + 1) * size + n] = im[index + lane];
+                }
+            }
+        }
+    }
+
+    /**
+     * FFT-DIF of all lanes of a group at once (the radix 4 passes of Radix4Kernel, with the same
+     * butterfly for all lanes in the inner loop). The result is left in decomp order.
+     */
+    private void transform(double[] re, double[] im) {
+        int butterflySize = size;
+
+        if (Integer.numberOfTrailingZeros(size) % 2 == 1) {
+            radix2Pass(re, im);
+            butterflySize /= 2;
+        }
+
+        for (; butterflySize >= 4; butterflySize /= 4) {
+            radix4Pass(re, im, butterflySize);
+        }
+    }
+
+    private void radix2Pass(double[] re, double[] im) {
+        int butterflyHalfsize = size / 2;
+        int laneHalfsize = butterflyHalfsize * lanes;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+            double currCos = twiddles.cos(butterflyIndex);
+            double currSin = twiddles.sin(butterflyIndex);
+            int currIndex = butterflyIndex * lanes;
+
+            for (int index = currIndex; index < currIndex + lanes; index++) {
+                int doubleIndex = index + laneHalfsize;
+                double realTemp = re[index];
+                double imagTemp = im[index];
+                double realDiff = realTemp - re[doubleIndex];
+                double imagDiff = imagTemp - im[doubleIndex];
+
+                re[index] = realTemp + re[doubleIndex];
+                im[index] = imagTemp + im[doubleIndex];
+                re[doubleIndex] = realDiff * currCos - imagDiff * currSin;
+                im[doubleIndex] = realDiff * currSin + imagDiff * currCos;
+            }
+        }
+    }
+
+    private void radix4Pass(double[] re, double[] im, int butterflySize) {
+        int quarter = butterflySize / 4;
+        int laneQuarter = quarter * lanes;
+        int sinStep = size / butterflySize;
+
+        for (int butterflyIndexStart = 0; butterflyIndexStart < size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex++) {
+                int sinIndex1 = butterflyIndex * sinStep;
+                int sinIndex2 = 2 * sinIndex1;
+                int sinIndex3 = 3 * sinIndex1;
+                double cos1 = twiddles.cosOfFirstQuarter(sinIndex1);
+                double sin1 = twiddles.sinOfFirstQuarter(sinIndex1);
+                double cos2 = twiddles.cos(sinIndex2);
+                double sin2 = twiddles.sin(sinIndex2);
+                double cos3 = twiddles.cos(sinIndex3);
+                double sin3 = twiddles.sin(sinIndex3);
+                int currIndex = (butterflyIndexStart + butterflyIndex) * lanes;
+
+                // The same butterfly for all lanes.
+                for (int index0 = currIndex; index0 < currIndex + lanes; index0++) {
+                    int index1 = index0 + laneQuarter;
+                    int index2 = index1 + laneQuarter;
+                    int index3 = index2 + laneQuarter;
+
+                    double sumReal02 = re[index0] + re[index2];
+                    double sumImag02 = im[index0] + im[index2];
+                    double sumReal13 = re[index1] + re[index3];
+                    double sumImag13 = im[index1] + im[index3];
+                    double diffReal02 = re[index0] - re[index2];
+                    double diffImag02 = im[index0] - im[index2];
+                    double diffReal13 = re[index1] - re[index3];
+                    double diffImag13 = im[index1] - im[index3];
+
+                    re[index0] = sumReal02 + sumReal13;
+                    im[index0] = sumImag02 + sumImag13;
+
+                    double realTemp = sumReal02 - sumReal13;
+                    double imagTemp = sumImag02 - sumImag13;
+                    re[index1] = realTemp * cos2 - imagTemp * sin2;
+                    im[index1] = realTemp * sin2 + imagTemp * cos2;
+
+                    realTemp = diffReal02 - diffImag13;
+                    imagTemp = diffImag02 + diffReal13;
+                    re[index2] = realTemp * cos1 - imagTemp * sin1;
+                    im[index2] = realTemp * sin1 + imagTemp * cos1;
+
+                    realTemp = diffReal02 + diffImag13;
+                    imagTemp = diffImag02 - diffReal13;
+                    re[index3] = realTemp * cos3 - imagTemp * sin3;
+                    im[index3] = realTemp * sin3 + imagTemp * cos3;
+                }
+            }
+        }
+    }
+}
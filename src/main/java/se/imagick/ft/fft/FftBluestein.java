@@ -0,0 +1,142 @@
+package se.imagick.ft.fft;
+
+/**
+ * FFT of any size (Bluestein, chirp-z). The DFT is rewritten as a convolution with a chirp
+ * (w^(n * k) = c(n) * c(k) * conj(c(k - n)), where c(n) = w^(n * n / 2)), and the convolution is calculated
+ * with power of two FftDif transforms of at least 2 * size - 1 values. That makes the cost O(N log N) for
+ * any size, Eg large primes, but about three times the cost of a FftDif of the padded size.
+ * Sizes with small factors only are faster with FftMixedRadix.<br>
+ * The chirp and its spectrum are calculated when the instance is created, use FftPlans.getFft(size)
+ * to share them. The implementation is thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftBluestein extends ComplexFft {
+
+    private final int size;
+    private final int paddedSize;
+    private final FftDif paddedFft;
+    private final double[] chirpReal;
+    private final double[] chirpImag;
+    private final double[] chirpSpectrumReal;
+    private final double[] chirpSpectrumImag;
+
+    /**
+     * @param size The size of the transform, at least 1.
+     */
+    public FftBluestein(int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1: " + size);
+        }
+
+        int paddedSize = Integer.highestOneBit(Math.max(2 * size - 1, 2));
+        paddedSize = (paddedSize < 2 * size - 1) ? paddedSize * 2 : paddedSize;
+
+        this.size = size;
+        this.paddedSize = paddedSize;
+        this.paddedFft = new FftDif(paddedSize, FftKernels.getFastest());
+        this.chirpReal = new double[size];
+        this.chirpImag = new double[size];
+        this.chirpSpectrumReal = new double[paddedSize];
+        this.chirpSpectrumImag = new double[paddedSize];
+
+        for (int n = 0; n < size; n++) {
+            // n * n / 2 turns, reduced modulo 2 * size (a whole lap) to keep the angle small.
+            double angle = Math.PI * (((long) n * n) % (2L * size)) / size;
+            chirpReal[n] = Math.cos(angle);
+            chirpImag[n] = Math.sin(angle);
+        }
+
+        // The conjugated chirp, for both positive and negative n (wrapped around), scaled for the convolution.
+        double scale = 1d / paddedSize;
+        chirpSpectrumReal[0] = chirpReal[0] * scale;
+        chirpSpectrumImag[0] = -chirpImag[0] * scale;
+
+        for (int n = 1; n < size; n++) {
+            chirpSpectrumReal[n] = chirpSpectrumReal[paddedSize - n] = chirpReal[n] * scale;
+            chirpSpectrumImag[n] = chirpSpectrumImag[paddedSize - n] = -chirpImag[n] * scale;
+        }
+
+        paddedFft.transform(chirpSpectrumReal, chirpSpectrumImag, 0);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of bytes held by the chirp and its spectrum (the FftPlan of the padded size not included).
+     */
+    public long getMemoryUsage() {
+        return 2L * Double.BYTES * (size + paddedSize);
+    }
+
+    @Override
+    public int getScratchSize() {
+        return paddedSize;
+    }
+
+    @Override
+    void transform(double[] realValues, double[] imagValues, int offset, double[] scratchReal, double[] scratchImag) {
+
+        FftDif.checkRange(realValues, offset, size);
+        FftDif.checkRange(imagValues, offset, size);
+        FftDif.checkRange(scratchReal, 0, paddedSize);
+        FftDif.checkRange(scratchImag, 0, paddedSize);
+
+        for (int n = 0; n < size; n++) {
+            double re = realValues[offset + n];
+            double im = imagValues[offset + n];
+            scratchReal[n] = re * chirpReal[n] - im * chirpImag[n];
+            scratchImag[n] = re * chirpImag[n] + im * chirpReal[n];
+        }
+
+        for (int n = size; n < paddedSize; n++) {
+            scratchReal[n] = 0d;
+            scratchImag[n] = 0d;
+        }
+
+        paddedFft.transform(scratchReal, scratchImag, 0);
+
+        // Multiply with the chirp spectrum and conjugate, so the positive angle transform works as an inverse.
+        for (int k = 0; k < paddedSize; k++) {
+            double re = scratchReal[k];
+            double im = scratchImag[k];
+            scratchReal[k] = re * chirpSpectrumReal[k] - im * chirpSpectrumImag[k];
+            scratchImag[k] = -(re * chirpSpectrumImag[k] + im * chirpSpectrumReal[k]);
+        }
+
+        paddedFft.transform(scratchReal, scratchImag, 0);
+
+        // Conjugate back and multiply with the chirp.
+        for (int k = 0; k < size; k++) {
+            double re = scratchReal[k];
+            double im = -scratchImag[k];
+            realValues[offset + k] = re * chirpReal[k] - im * chirpImag[k];
+            imagValues[offset + k] = re * chirpImag[k] + im * chirpReal[k];
+        }
+    }
+}
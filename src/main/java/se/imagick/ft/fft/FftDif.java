@@ -1,11 +1,15 @@
 package se.imagick.ft.fft;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 
 /**
  * FFT-DIF (decimation in frequency).
- * Can and should be reused since there is a overhead for setting up decomp and sine/cosine values.
+ * The decomp and sine/cosine values are taken from the shared FftPlan for the size (see FftPlans),
+ * so they are only calculated once per size no matter how many instances are created.
+ * The butterflies are calculated by a FftKernel, which can be selected when the instance is created.
+ * Besides the transforms of real values, the full complex spectrum is available through forwardComplex and
+ * inverseComplex (see ComplexFft).
  * The implementation is thread safe.<br>
  * <br>
  * ---------------------<br>
@@ -31,33 +35,36 @@ import java.util.List;
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-public class FftDif {
+public class FftDif extends ComplexFft {
 
-    private double size;
-    private double[] cos;
-    private double[] sin;
-    private int[] decompArray;
+    private static final FftKernel DEFAULT_KERNEL = new Radix2Kernel();
 
-    public FftDif(int size) {
-
-        if (!((size & -size) == size)) {
-            throw new IllegalArgumentException("Not a power of two value");
-        }
+    private final FftPlan plan;
+    private final FftKernel kernel;
+    private final int size;
+    private final int[] decompArray;
 
-        this.size = size;
-        int halfSize = size / 2;
+    public FftDif(int size) {
+        this(FftPlans.get(size), DEFAULT_KERNEL);
+    }
 
-        // Pre-calculate all possible sine and cosine values.
-        cos = new double[halfSize];
-        sin = new double[halfSize];
+    /**
+     * @param size The size of the transform (a power of two).
+     * @param kernel The butterflies to use, EG Radix2Kernel (default) or Radix4Kernel.
+     */
+    public FftDif(int size, FftKernel kernel) {
+        this(FftPlans.get(size), kernel);
+    }
 
-        for (int i = 0; i < halfSize; i++) {
-            cos[i] = Math.cos(2 * Math.PI * i / size);
-            sin[i] = Math.sin(2 * Math.PI * i / size);
-        }
+    public FftDif(FftPlan plan) {
+        this(plan, DEFAULT_KERNEL);
+    }
 
-        // Pre calculate for the reverse decomp of values.
-        decompArray = preDecomp((int) this.size);
+    public FftDif(FftPlan plan, FftKernel kernel) {
+        this.plan = plan;
+        this.kernel = kernel;
+        this.size = plan.getSize();
+        this.decompArray = plan.decompArray;
     }
 
     /**
@@ -68,164 +75,307 @@ public class FftDif {
      * The number of indexes can be computed as follows: noOfFrequencies / 2 + 1 (dc).
      * The frequencies are in frequency order starting with zero.
      */
+    @Override
     public double[][] forward(double[] realValuesIn) {
 
         if (realValuesIn.length != this.size) {
             throw new IllegalArgumentException("Wrong array length!");
         }
 
-        double[] realValues = realValuesIn.clone();
-        double[] imagValues = new double[realValues.length];
+        double[] realValues = new double[size];
+        double[] imagValues = new double[size];
 
+        forward(realValuesIn, 0, realValues, imagValues, 0);
 
-        double[][] complexArrays = fftInternal(realValues, imagValues);
+        int dftSize = size / 2 + 1;
+        double[][] complexArrays = new double[2][];
+        complexArrays[0] = Arrays.copyOf(realValues, dftSize);
+        complexArrays[1] = Arrays.copyOf(imagValues, dftSize);
 
-        realValues = complexArrays[0];
-        imagValues = complexArrays[1];
+        return complexArrays;
+    }
 
-        int dftSize = (int) (size / 2 + 1);
-        double[] re = new double[dftSize];
-        double[] im = new double[dftSize];
+    /**
+     * Calculates the complex values without allocating any memory, see forward(double[], int, double[], double[], int).
+     */
+    public void forward(double[] realValuesIn, double[] realValuesOut, double[] imagValuesOut) {
+        forward(realValuesIn, 0, realValuesOut, imagValuesOut, 0);
+    }
 
-        for (int i = 0; i < dftSize; i++) {
-            re[i] = realValues[decompArray[i]] / this.size;
-            im[i] = -imagValues[decompArray[i]] / this.size;
-        }
+    /**
+     * Calculates the complex values without allocating any memory. The output arrays are used as working
+     * area for the whole transform, so both of them must have room for size values from outOffset.
+     * realValuesIn may be the same array (and offset) as realValuesOut.
+     *
+     * @param realValuesIn An array with purely real values (Eg audio data), size values are read from inOffset.
+     * @param inOffset The index of the first value in realValuesIn.
+     * @param realValuesOut Receives the real values, size / 2 + 1 (dc) frequencies in frequency order
+     *                      starting with zero. The rest of the size values are left as garbage.
+     * @param imagValuesOut Receives the imaginary values, in the same way as realValuesOut.
+     * @param outOffset The index of the first value in realValuesOut and imagValuesOut.
+     */
+    public void forward(double[] realValuesIn, int inOffset, double[] realValuesOut, double[] imagValuesOut, int outOffset) {
 
-        // Now process the negative frequencies.
-        for (int i = 1; i < dftSize - 1; i++) {
-            re[i] += realValues[decompArray[(int) (size - i)]] / this.size;
-            im[i] += imagValues[decompArray[(int) (size - i)]] / this.size;
-        }
+        checkRange(realValuesIn, inOffset, size);
+        checkRange(realValuesOut, outOffset, size);
+        checkRange(imagValuesOut, outOffset, size);
 
-        complexArrays[0] = re;
-        complexArrays[1] = im;
+        System.arraycopy(realValuesIn, inOffset, realValuesOut, outOffset, size);
+        forwardInPlace(realValuesOut, imagValuesOut, outOffset);
+    }
 
-        return complexArrays;
+    /**
+     * Calculates the complex values of size values read directly from a buffer (Eg a view of a direct
+     * ByteBuffer from NIO, see ByteBuffer.asDoubleBuffer), without copying them to an array first.
+     * Otherwise the same as forward(double[], int, double[], double[], int).
+     *
+     * @param realValuesIn Holds purely real values from its position, which is moved past the size values read.
+     * @param realValuesOut Receives the real values, size / 2 + 1 (dc) frequencies in frequency order
+     *                      starting with zero. The rest of the size values are left as garbage.
+     * @param imagValuesOut Receives the imaginary values, in the same way as realValuesOut.
+     * @param outOffset The index of the first value in realValuesOut and imagValuesOut.
+     */
+    public void forward(DoubleBuffer realValuesIn, double[] realValuesOut, double[] imagValuesOut, int outOffset) {
+
+        checkRange(realValuesIn, size);
+        checkRange(realValuesOut, outOffset, size);
+        checkRange(imagValuesOut, outOffset, size);
+
+        realValuesIn.get(realValuesOut, outOffset, size);
+        forwardInPlace(realValuesOut, imagValuesOut, outOffset);
+    }
+
+    private void forwardInPlace(double[] re, double[] im, int outOffset) {
+
+        Arrays.fill(im, outOffset, outOffset + size, 0d);
+
+        fftInternal(re, im, outOffset);
+        reorder(re, im, outOffset);
+
+        int halfSize = size / 2;
+
+        re[outOffset] = re[outOffset] / size;
+        im[outOffset] = -im[outOffset] / size;
+        re[outOffset + halfSize] = re[outOffset + halfSize] / size;
+        im[outOffset + halfSize] = -im[outOffset + halfSize] / size;
+
+        // Add the negative frequencies to the positive ones (only the positive half is overwritten).
+        for (int i = 1; i < halfSize; i++) {
+            int index = outOffset + i;
+            int negativeIndex = outOffset + size - i;
+            re[index] = (re[index] + re[negativeIndex]) / size;
+            im[index] = (im[negativeIndex] - im[index]) / size;
+        }
     }
 
+    @Override
     public double[] inverse(double[] realValuesIn, double[] imagValuesIn) {
 
         if (2 * (realValuesIn.length - 1) != this.size) {
             throw new IllegalArgumentException("Wrong array length!");
         }
 
-        double[] realValues = new double[(int) size];
-        double[] imagValues = new double[(int) size];
+        double[] realValues = new double[size];
+        double[] imagValues = new double[size];
 
         System.arraycopy(realValuesIn, 0, realValues, 0, realValuesIn.length);
         System.arraycopy(imagValuesIn, 0, imagValues, 0, imagValuesIn.length);
 
-        double[] realInverse = fftInternal(realValues, imagValues)[0];
-
-        double[] re = new double[(int) size];
-
-        for (int i = 0; i < size; i++) {
-            re[i] = realInverse[decompArray[i]];
-        }
+        double[] re = new double[size];
+        inverse(realValues, imagValues, 0, re, 0);
 
         return re;
     }
 
-    private double[][] fftInternal(double[] realValues, double[] imagValues) {
+    /**
+     * Calculates the real values in place without allocating any memory, see
+     * inverse(double[], double[], int, double[], int). The result ends up in realValues.
+     */
+    public void inverse(double[] realValues, double[] imagValues, int offset) {
 
-        int sinStep = 1;
+        prepareInverse(realValues, imagValues, offset);
+        fftInternal(realValues, imagValues, offset);
+        reorder(realValues, imagValues, offset);
+    }
 
-        for (int butterflySize = (int) size; butterflySize > 1; butterflySize /= 2) {
-            int butterflyHalfsize = butterflySize / 2;
+    /**
+     * Calculates the real values without allocating any memory. The input arrays hold size / 2 + 1 (dc)
+     * frequencies from inOffset (as returned by forward), but are used as working area for the whole
+     * transform. So both of them must have room for size values and will be overwritten.
+     *
+     * @param realValuesIn The real values of the frequencies, starting with zero.
+     * @param imagValuesIn The imaginary values of the frequencies, starting with zero.
+     * @param inOffset The index of frequency zero in realValuesIn and imagValuesIn.
+     * @param realValuesOut Receives size real values from outOffset. Must not be one of the input arrays.
+     * @param outOffset The index of the first value in realValuesOut.
+     */
+    public void inverse(double[] realValuesIn, double[] imagValuesIn, int inOffset, double[] realValuesOut, int outOffset) {
+
+        checkRange(realValuesOut, outOffset, size);
+        prepareInverse(realValuesIn, imagValuesIn, inOffset);
+        fftInternal(realValuesIn, imagValuesIn, inOffset);
+
+        if (plan.isBlockedReorder()) {
+            // Reordering in place and copying is cheaper than reading the values all over the array.
+            reorder(realValuesIn, imagValuesIn, inOffset);
+            System.arraycopy(realValuesIn, inOffset, realValuesOut, outOffset, size);
+        } else {
+            for (int i = 0; i < size; i++) {
+                realValuesOut[outOffset + i] = realValuesIn[inOffset + decompArray[i]];
+            }
+        }
+    }
 
-            for (int butterflyIndexStart = 0; butterflyIndexStart < size; butterflyIndexStart += butterflySize) {
+    /**
+     * Calculates the real values and writes them directly to a buffer (Eg a view of a direct ByteBuffer,
+     * see ByteBuffer.asDoubleBuffer), without allocating any memory. Otherwise the same as
+     * inverse(double[], double[], int, double[], int), the input arrays are overwritten.
+     *
+     * @param realValuesIn The real values of the frequencies, starting with zero.
+     * @param imagValuesIn The imaginary values of the frequencies, starting with zero.
+     * @param inOffset The index of frequency zero in realValuesIn and imagValuesIn.
+     * @param realValuesOut Receives size real values from its position, which is moved past them.
+     */
+    public void inverse(double[] realValuesIn, double[] imagValuesIn, int inOffset, DoubleBuffer realValuesOut) {
 
-                for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+        checkRange(realValuesOut, size);
+        inverse(realValuesIn, imagValuesIn, inOffset);
+        realValuesOut.put(realValuesIn, inOffset, size);
+    }
 
-                    // Setup for this butterfly
-                    int currIndex = butterflyIndexStart + butterflyIndex;
-                    int currDoubleIndex = currIndex + butterflyHalfsize;
+    /**
+     * Complex forward transform in place without the reorder, for convolution and other uses where only
+     * the products of spectra matter (pairs with inverseRaw). Unlike forward, the result is the full
+     * spectrum of the complex values, in decomp (bit reversed) order and not scaled: the frequency k ends
+     * up at offset + getDecompIndex(k).
+     *
+     * @param realValues The real values, size values from offset. Receives the real part of the spectrum.
+     * @param imagValues The imaginary values, size values from offset. Receives the imaginary part of the spectrum.
+     * @param offset The index of the first value.
+     */
+    public void forwardRaw(double[] realValues, double[] imagValues, int offset) {
 
-                    double realTemp = realValues[currIndex];
-                    double imagTemp = imagValues[currIndex];
+        checkRange(realValues, offset, size);
+        checkRange(imagValues, offset, size);
 
-                    // Additions and subtractions, dividing odd and even frequencies and down sampling.
-                    realValues[currIndex] += realValues[currDoubleIndex];
-                    realValues[currDoubleIndex] = realTemp - realValues[currDoubleIndex];
-                    imagValues[currIndex] += imagValues[currDoubleIndex];
-                    imagValues[currDoubleIndex] = imagTemp - imagValues[currDoubleIndex];
+        // The butterflies turn with a positive angle, swapping real and imaginary gives the negative one.
+        fftInternal(imagValues, realValues, offset);
+    }
 
-                    // Multiply with a sine in form of several complex values.
-                    realTemp = realValues[currDoubleIndex];
-                    imagTemp = imagValues[currDoubleIndex];
-                    double currCos = cos[butterflyIndex * sinStep];
-                    double currSin = sin[butterflyIndex * sinStep];
+    /**
+     * Complex inverse transform in place of a spectrum in decomp order (as left by forwardRaw), with
+     * FFT-DIT butterflies, so the values come out in time order without a reorder. The result is not
+     * scaled, so inverseRaw(forwardRaw(x)) gives size * x.
+     *
+     * @param realValues The real part of the spectrum in decomp order, size values from offset.
+     * @param imagValues The imaginary part of the spectrum in decomp order, size values from offset.
+     * @param offset The index of the first value.
+     */
+    public void inverseRaw(double[] realValues, double[] imagValues, int offset) {
 
-                    // Butterfly complex multiplication with half a sine curve.
-                    realValues[currDoubleIndex] = realTemp * currCos - imagTemp * currSin;
-                    imagValues[currDoubleIndex] = realTemp * currSin + imagTemp * currCos;
-                }
-            }
+        checkRange(realValues, offset, size);
+        checkRange(imagValues, offset, size);
+        DitButterflies.transform(plan, realValues, imagValues, offset);
+    }
 
-            sinStep *= 2;
+    /**
+     * Circular convolution of two real sequences of this size, through forwardRaw and inverseRaw.
+     *
+     * @param realValuesA The first sequence.
+     * @param realValuesB The second sequence.
+     * @return The convolution, result[n] = sum of a[m] * b[(n - m) mod size] for all m.
+     */
+    public double[] convolve(double[] realValuesA, double[] realValuesB) {
+
+        if (realValuesA.length != size || realValuesB.length != size) {
+            throw new IllegalArgumentException("Wrong array length!");
         }
 
-        double[][] complexValues = new double[2][];
-        complexValues[0] = realValues;
-        complexValues[1] = imagValues;
+        double[] realA = realValuesA.clone();
+        double[] imagA = new double[size];
+        double[] realB = realValuesB.clone();
+        double[] imagB = new double[size];
+
+        forwardRaw(realA, imagA, 0);
+        forwardRaw(realB, imagB, 0);
+
+        // The order of the frequencies doesn't matter for the products. The scaling is done here as well.
+        for (int i = 0; i < size; i++) {
+            double real = realA[i] * realB[i] - imagA[i] * imagB[i];
+            double imag = realA[i] * imagB[i] + imagA[i] * realB[i];
+            realA[i] = real / size;
+            imagA[i] = imag / size;
+        }
 
-        return complexValues;
+        inverseRaw(realA, imagA, 0);
+        return realA;
     }
 
     /**
-     * Calculates the order which the complex values will have after the fft calculation
-     * to be able to re-order them to frequency order.
-     *
-     * It works as follows:
-     * ABCD, Cut the sequence (ABCD) in two and place the right part in the bottom of the heap (CD).
-     *
-     * AB, Do it once more and put the right part in the bottom (BD)
-     * CD
-     *
-     * A You now end up with a new sequence
-     * C
-     * B
-     * D
-     *
-     * This is also basically what happens when calculating the FFT-DIF.
+     * @param frequency A frequency index, 0 to size - 1.
+     * @return The index of the frequency in the output of forwardRaw (relative to the offset).
      */
-    private int[] preDecomp(int noOfSamples) {
-        List<Integer> input = new ArrayList<>();
-        List<List<Integer>> wrapper = new ArrayList<>();
-        wrapper.add(input);
+    public int getDecompIndex(int frequency) {
+        return decompArray[frequency];
+    }
 
-        for (int i = 0; i < noOfSamples; i++) {
-            input.add(i);
-        }
+    @Override
+    public int getSize() {
+        return size;
+    }
 
-        while (wrapper.get(0).size() > 1) {
-            devideForDecomp(wrapper);
-        }
+    @Override
+    public int getScratchSize() {
+        return 0;
+    }
 
-        int[] decompArray = new int[(int) this.size];
+    @Override
+    void transform(double[] realValues, double[] imagValues, int offset, double[] scratchReal, double[] scratchImag) {
+        transform(realValues, imagValues, offset);
+    }
 
-        for (int i = 0; i < this.size; i++) {
-            decompArray[i] = wrapper.get(i).get(0);
-        }
+    /**
+     * Complex transform in place, in frequency order and without scaling. NB! The butterflies turn with a
+     * positive angle, the usual (negative angle) forward transform is calculated by swapping the real and
+     * imaginary arrays.
+     */
+    @Override
+    void transform(double[] realValues, double[] imagValues, int offset) {
 
-        return decompArray;
+        checkRange(realValues, offset, size);
+        checkRange(imagValues, offset, size);
+        fftInternal(realValues, imagValues, offset);
+        reorder(realValues, imagValues, offset);
     }
 
-    private static void devideForDecomp(List<List<Integer>> inputLists) {
-        int endIndex = inputLists.get(0).size();
-        int middleIndex = endIndex / 2;
+    private void prepareInverse(double[] realValues, double[] imagValues, int offset) {
+
+        checkRange(realValues, offset, size);
+        checkRange(imagValues, offset, size);
 
-        List<List<Integer>> listsTop = new ArrayList<>();
-        List<List<Integer>> listsBottom = new ArrayList<>();
+        // Only the positive frequencies are used.
+        int dftSize = size / 2 + 1;
+        Arrays.fill(realValues, offset + dftSize, offset + size, 0d);
+        Arrays.fill(imagValues, offset + dftSize, offset + size, 0d);
+    }
+
+    private void fftInternal(double[] realValues, double[] imagValues, int offset) {
+        kernel.transform(plan, realValues, imagValues, offset);
+    }
 
-        for (List<Integer> values : inputLists) {
-            listsTop.add(values.subList(0, middleIndex));
-            listsBottom.add(values.subList(middleIndex, endIndex));
+    private void reorder(double[] realValues, double[] imagValues, int offset) {
+        plan.reorder(realValues, imagValues, offset);
+    }
+
+    static void checkRange(double[] values, int offset, int length) {
+        if (offset < 0 || values.length - offset < length) {
+            throw new IllegalArgumentException("Wrong array length!");
         }
+    }
 
-        inputLists.clear();
-        inputLists.addAll(listsTop);
-        inputLists.addAll(listsBottom);
+    static void checkRange(DoubleBuffer values, int length) {
+        if (values.remaining() < length) {
+            throw new IllegalArgumentException("Too few values remaining in the buffer!");
+        }
     }
 }
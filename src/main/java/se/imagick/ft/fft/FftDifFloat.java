@@ -0,0 +1,212 @@
+package se.imagick.ft.fft;
+
+import java.util.Arrays;
+
+/**
+ * FFT-DIF (see FftDif) in single precision, for data where float is precise enough (Eg 16 bit audio or
+ * sensor data). The values are read and written as float arrays, which is half the memory (and memory
+ * bandwidth) of the double version, and all the butterflies are calculated in float. The sine/cosine
+ * values and the decomp order are taken from the same shared FftPlan as FftDif uses. The input and output
+ * are the same as for FftDif (the same scaling and order).<br>
+ * The butterflies are calculated by a FloatFftKernel. With the Vector API (see FftKernels), a vector
+ * holds twice as many floats as doubles, so the vector kernel does twice as many butterflies at a time.<br>
+ * <br>
+ * Error bounds: each butterfly pass adds a rounding error of about a float ulp (2^-24 = 6E-8 relative)
+ * to the values it passes on. Compared with FftDif, the error of a frequency (the length of the
+ * difference) is below 4E-8 * log2(size) times the largest input value, and a forward transform
+ * followed by an inverse gives back the input with an error below 1E-7 * log2(size) times the largest
+ * input value (measured with noise and sine waves, sizes 2^4 - 2^20, the typical error of a frequency
+ * is far lower). The corresponding errors of FftDif are about 1E-16 * log2(size).
+ * The implementation is thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftDifFloat {
+
+    private final FftPlan plan;
+    private final FloatFftKernel kernel;
+    private final int size;
+
+    /**
+     * Creates a transform with the fastest kernel available, see FftKernels.getFastestFloat().
+     *
+     * @param size The size of the transform (a power of two).
+     */
+    public FftDifFloat(int size) {
+        this(FftPlans.get(size), FftKernels.getFastestFloat());
+    }
+
+    /**
+     * @param size The size of the transform (a power of two).
+     * @param kernel The butterflies to use, EG FloatRadix4Kernel.
+     */
+    public FftDifFloat(int size, FloatFftKernel kernel) {
+        this(FftPlans.get(size), kernel);
+    }
+
+    public FftDifFloat(FftPlan plan, FloatFftKernel kernel) {
+        this.plan = plan;
+        this.kernel = kernel;
+        this.size = plan.getSize();
+    }
+
+    /**
+     * Calculates the complex values, see FftDif.forward(double[]).
+     *
+     * @param realValuesIn An array with purely real values (Eg audio data).
+     * @return A list with two arrays. The first is the real values, the second the imaginary values.
+     * The number of indexes can be computed as follows: noOfFrequencies / 2 + 1 (dc).
+     * The frequencies are in frequency order starting with zero.
+     */
+    public float[][] forward(float[] realValuesIn) {
+
+        if (realValuesIn.length != this.size) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+
+        float[] realValues = new float[size];
+        float[] imagValues = new float[size];
+
+        forward(realValuesIn, 0, realValues, imagValues, 0);
+
+        int dftSize = size / 2 + 1;
+        float[][] complexArrays = new float[2][];
+        complexArrays[0] = Arrays.copyOf(realValues, dftSize);
+        complexArrays[1] = Arrays.copyOf(imagValues, dftSize);
+
+        return complexArrays;
+    }
+
+    /**
+     * Calculates the complex values without allocating any memory, see forward(float[], int, float[], float[], int).
+     */
+    public void forward(float[] realValuesIn, float[] realValuesOut, float[] imagValuesOut) {
+        forward(realValuesIn, 0, realValuesOut, imagValuesOut, 0);
+    }
+
+    /**
+     * Calculates the complex values without allocating any memory, see
+     * FftDif.forward(double[], int, double[], double[], int). Both output arrays must have room for size
+     * values from outOffset, realValuesIn may be the same array (and offset) as realValuesOut.
+     *
+     * @param realValuesIn An array with purely real values (Eg audio data), size values are read from inOffset.
+     * @param inOffset The index of the first value in realValuesIn.
+     * @param realValuesOut Receives the real values, size / 2 + 1 (dc) frequencies in frequency order
+     *                      starting with zero. The rest of the size values are left as garbage.
+     * @param imagValuesOut Receives the imaginary values, in the same way as realValuesOut.
+     * @param outOffset The index of the first value in realValuesOut and imagValuesOut.
+     */
+    public void forward(float[] realValuesIn, int inOffset, float[] realValuesOut, float[] imagValuesOut, int outOffset) {
+
+        checkRange(realValuesIn, inOffset, size);
+        checkRange(realValuesOut, outOffset, size);
+        checkRange(imagValuesOut, outOffset, size);
+
+        System.arraycopy(realValuesIn, inOffset, realValuesOut, outOffset, size);
+        Arrays.fill(imagValuesOut, outOffset, outOffset + size, 0f);
+
+        float[] re = realValuesOut;
+        float[] im = imagValuesOut;
+        transform(re, im, outOffset);
+
+        int halfSize = size / 2;
+        float scale = 1f / size;
+
+        re[outOffset] = re[outOffset] * scale;
+        im[outOffset] = -im[outOffset] * scale;
+        re[outOffset + halfSize] = re[outOffset + halfSize] * scale;
+        im[outOffset + halfSize] = -im[outOffset + halfSize] * scale;
+
+        // Add the negative frequencies to the positive ones (only the positive half is overwritten).
+        for (int i = 1; i < halfSize; i++) {
+            int index = outOffset + i;
+            int negativeIndex = outOffset + size - i;
+            re[index] = (re[index] + re[negativeIndex]) * scale;
+            im[index] = (im[negativeIndex] - im[index]) * scale;
+        }
+    }
+
+    /**
+     * Calculates the real values from the frequencies given by forward.
+     *
+     * @param realValuesIn The real values of the frequencies, size / 2 + 1 (dc) values.
+     * @param imagValuesIn The imaginary values of the frequencies, size / 2 + 1 (dc) values.
+     * @return The real values.
+     */
+    public float[] inverse(float[] realValuesIn, float[] imagValuesIn) {
+
+        if (2 * (realValuesIn.length - 1) != this.size) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+
+        float[] realValues = new float[size];
+        float[] imagValues = new float[size];
+
+        System.arraycopy(realValuesIn, 0, realValues, 0, realValuesIn.length);
+        System.arraycopy(imagValuesIn, 0, imagValues, 0, imagValuesIn.length);
+
+        inverse(realValues, imagValues, 0);
+        return realValues;
+    }
+
+    /**
+     * Calculates the real values in place without allocating any memory. The arrays hold size / 2 + 1 (dc)
+     * frequencies from offset (as returned by forward), but are used as working area for the whole
+     * transform, so both of them must have room for size values. The result ends up in realValues.
+     *
+     * @param realValues The real values of the frequencies, starting with zero.
+     * @param imagValues The imaginary values of the frequencies, starting with zero.
+     * @param offset The index of frequency zero in realValues and imagValues.
+     */
+    public void inverse(float[] realValues, float[] imagValues, int offset) {
+
+        checkRange(realValues, offset, size);
+        checkRange(imagValues, offset, size);
+
+        // Only the positive frequencies are used.
+        int dftSize = size / 2 + 1;
+        Arrays.fill(realValues, offset + dftSize, offset + size, 0f);
+        Arrays.fill(imagValues, offset + dftSize, offset + size, 0f);
+
+        transform(realValues, imagValues, offset);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Complex transform in place, in frequency order and without scaling (positive angle, see FftDif.transform).
+     */
+    private void transform(float[] realValues, float[] imagValues, int offset) {
+        kernel.transform(plan, realValues, imagValues, offset);
+        plan.reorder(realValues, imagValues, offset);
+    }
+
+    private static void checkRange(float[] values, int offset, int length) {
+        if (offset < 0 || values.length - offset < length) {
+            throw new IllegalArgumentException("Wrong array length!");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package se.imagick.ft.fft;
+
+import java.util.Arrays;
+
+/**
+ * FIR filter for long filters (thousands of taps), calculated as block convolution with FFT (overlap save).
+ * The samples are collected in blocks. When a block is full, the last fftSize samples are transformed, multiplied
+ * with the spectrum of the taps (calculated once, when the filter is created) and transformed back. The first
+ * taps - 1 values of the result wrap around and are thrown away, the rest is the filtered block. So the cost per
+ * sample is O(log fftSize) instead of O(taps) for a direct convolution or O(frequencies) for a DFTSliderFilter.<br>
+ * The transforms use FftDif.forwardRaw and inverseRaw, so the values are never reordered, and since the taps are
+ * real two channels are filtered with one complex transform (one as real values, the other as imaginary).<br>
+ * The samples are added the same way as with DFTSliderFilter, one array element per channel, and are filtered
+ * in place. The filtered samples come out one block later (see getLatencyInSamples). Overlap add gives the
+ * same result, but needs an extra pass to add the overlapping parts.<br>
+ * An instance is not thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftFirFilter {
+
+    private final int noOfChannels;
+    private final int noOfTaps;
+    private final int fftSize;
+    private final int blockSize;
+    private final FftDif fft;
+    private final double[] tapsReal;
+    private final double[] tapsImag;
+    private final double[][] history;
+    private final double[][] output;
+    private final double[] realValues;
+    private final double[] imagValues;
+    private int blockIndex;
+
+    /**
+     * Creates a filter with an FFT size of twice the number of taps (rounded up to a power of two), which
+     * gives blocks (and a latency) of a little more than the number of taps.
+     *
+     * @param taps The impulse response of the filter, at least one tap.
+     * @param noOfChannels The number of channels (2 for a stereo signal).
+     */
+    public FftFirFilter(double[] taps, int noOfChannels) {
+        this(taps, noOfChannels, 2 * Integer.highestOneBit(Math.max(1, 2 * taps.length - 1)));
+    }
+
+    /**
+     * @param taps The impulse response of the filter, at least one tap.
+     * @param noOfChannels The number of channels (2 for a stereo signal).
+     * @param fftSize The size of the transforms, a power of two larger than the number of taps. The block size
+     *                is fftSize - taps + 1, so a larger size costs less per sample but gives a longer latency.
+     */
+    public FftFirFilter(double[] taps, int noOfChannels, int fftSize) {
+
+        if (taps.length < 1 || noOfChannels < 1) {
+            throw new IllegalArgumentException("At least one tap and one channel is needed");
+        }
+
+        if (fftSize <= taps.length || Integer.bitCount(fftSize) != 1) {
+            throw new IllegalArgumentException("The FFT size must be a power of two larger than the number of taps: "
+                    + fftSize);
+        }
+
+        this.noOfChannels = noOfChannels;
+        this.noOfTaps = taps.length;
+        this.fftSize = fftSize;
+        this.blockSize = fftSize - taps.length + 1;
+        this.fft = new FftDif(fftSize, FftKernels.getFastest());
+        this.history = new double[noOfChannels][fftSize];
+        this.output = new double[noOfChannels][blockSize];
+        this.realValues = new double[fftSize];
+        this.imagValues = new double[fftSize];
+
+        // The spectrum of the taps, in the same (decomp) order as the blocks and with the scaling of inverseRaw.
+        this.tapsReal = new double[fftSize];
+        this.tapsImag = new double[fftSize];
+
+        for (int i = 0; i < taps.length; i++) {
+            tapsReal[i] = taps[i] / fftSize;
+        }
+
+        fft.forwardRaw(tapsReal, tapsImag, 0);
+        reset();
+    }
+
+    /**
+     * Slides in one sample and replaces it with the filtered sample from getLatencyInSamples() samples ago.
+     *
+     * @param sample One sample. One array element per channel, EG. sample[0] = left, sample[1] = right).
+     */
+    public void slide(double[] sample) {
+
+        if (sample != null) {
+            int inputIndex = fftSize - blockSize + blockIndex;
+
+            for (int channel = 0; channel < noOfChannels; channel++) {
+                history[channel][inputIndex] = sample[channel];
+                sample[channel] = output[channel][blockIndex];
+            }
+
+            if (++blockIndex == blockSize) {
+                filterBlock();
+            }
+        }
+    }
+
+    /**
+     * Filters a number of samples per channel in place, in the same way as length calls to slide.
+     *
+     * @param channels The samples, one array per channel (EG. channels[0] = left, channels[1] = right).
+     * @param offset The index of the first sample in each channel.
+     * @param length The number of samples, any number.
+     */
+    public void process(double[][] channels, int offset, int length) {
+
+        for (int channel = 0; channel < noOfChannels; channel++) {
+            FftDif.checkRange(channels[channel], offset, length);
+        }
+
+        while (length > 0) {
+            int part = Math.min(length, blockSize - blockIndex);
+            int inputIndex = fftSize - blockSize + blockIndex;
+
+            for (int channel = 0; channel < noOfChannels; channel++) {
+                System.arraycopy(channels[channel], offset, history[channel], inputIndex, part);
+                System.arraycopy(output[channel], blockIndex, channels[channel], offset, part);
+            }
+
+            blockIndex += part;
+            offset += part;
+            length -= part;
+
+            if (blockIndex == blockSize) {
+                filterBlock();
+            }
+        }
+    }
+
+    /**
+     * Clears all samples, as if the filter was just created.
+     */
+    public void reset() {
+
+        for (int channel = 0; channel < noOfChannels; channel++) {
+            Arrays.fill(history[channel], 0d);
+            Arrays.fill(output[channel], 0d);
+        }
+
+        blockIndex = 0;
+    }
+
+    /**
+     * @return The number of samples a sample is delayed (the block size), on top of the delay of the filter itself.
+     */
+    public int getLatencyInSamples() {
+        return blockSize;
+    }
+
+    public int getNoOfTaps() {
+        return noOfTaps;
+    }
+
+    public int getFftSize() {
+        return fftSize;
+    }
+
+    private void filterBlock() {
+
+        for (int channel = 0; channel < noOfChannels; channel += 2) {
+            boolean pair = channel + 1 < noOfChannels;
+            System.arraycopy(history[channel], 0, realValues, 0, fftSize);
+
+            if (pair) {
+                System.arraycopy(history[channel + 1], 0, imagValues, 0, fftSize);
+            } else {
+                Arrays.fill(imagValues, 0d);
+            }
+
+            fft.forwardRaw(realValues, imagValues, 0);
+
+            for (int i = 0; i < fftSize; i++) {
+                double re = realValues[i] * tapsReal[i] - imagValues[i] * tapsImag[i];
+                double im = realValues[i] * tapsImag[i] + imagValues[i] * tapsReal[i];
+                realValues[i] = re;
+                imagValues[i] = im;
+            }
+
+            fft.inverseRaw(realValues, imagValues, 0);
+
+            // The first taps - 1 values have wrapped around.
+            System.arraycopy(realValues, noOfTaps - 1, output[channel], 0, blockSize);
+
+            if (pair) {
+                System.arraycopy(imagValues, noOfTaps - 1, output[channel + 1], 0, blockSize);
+            }
+        }
+
+        // The last taps - 1 samples are needed for the next block.
+        for (int channel = 0; channel < noOfChannels; channel++) {
+            System.arraycopy(history[channel], blockSize, history[channel], 0, fftSize - blockSize);
+        }
+
+        blockIndex = 0;
+    }
+}
@@ -0,0 +1,45 @@
+package se.imagick.ft.fft;
+
+/**
+ * The butterflies of the FFT-DIF. Different kernels calculate the same transform in different ways,
+ * and can be selected when a transform is created (EG new FftDif(size, new Radix4Kernel())), see also
+ * FftKernels.getFastest().<br>
+ * A kernel must be stateless (apart from thread safe caches), so that one instance can be used by any
+ * number of transforms and threads.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public interface FftKernel {
+
+    /**
+     * Calculates the butterflies in place. The result is left in decomp (bit reversed) order and is not scaled.
+     * NB! The butterflies turn with a positive angle.
+     *
+     * @param plan The plan for the size of the transform.
+     * @param realValues The real values, plan.getSize() values from offset.
+     * @param imagValues The imaginary values, plan.getSize() values from offset.
+     * @param offset The index of the first value.
+     */
+    void transform(FftPlan plan, double[] realValues, double[] imagValues, int offset);
+}
@@ -0,0 +1,159 @@
+package se.imagick.ft.fft;
+
+import java.util.Random;
+
+/**
+ * Selects the fastest FftKernel available in the running JVM.<br>
+ * From Java 17 the jar also holds a kernel that uses the Vector API (jdk.incubator.vector, in the
+ * META-INF/versions/17 part of the multi-release jar). The Vector API is an incubator module, so it
+ * is only available when the JVM is started with --add-modules jdk.incubator.vector. In all other
+ * cases (Eg Java 8 to 16) the scalar Radix4Kernel is used. The vector kernel is checked against the
+ * scalar kernel before it is used, and can be turned off with -Dse.imagick.ft.fft.vectorKernel=false.<br>
+ * The same goes for the single precision kernels (see FloatFftKernel): VectorFloatRadix4Kernel or FloatRadix4Kernel.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public final class FftKernels {
+
+    /**
+     * Set to false to never use the vector kernel.
+     */
+    public static final String VECTOR_KERNEL_PROPERTY = "se.imagick.ft.fft.vectorKernel";
+
+    private static final String VECTOR_KERNEL_CLASS = "se.imagick.ft.fft.VectorRadix4Kernel";
+    private static final String VECTOR_FLOAT_KERNEL_CLASS = "se.imagick.ft.fft.VectorFloatRadix4Kernel";
+    private static final int CHECK_SIZE = 512;
+    private static final FftKernel FASTEST = findFastest();
+    private static final FloatFftKernel FASTEST_FLOAT = findFastestFloat();
+
+    private FftKernels() {
+    }
+
+    /**
+     * @return The vector kernel if it is available, otherwise Radix4Kernel.
+     */
+    public static FftKernel getFastest() {
+        return FASTEST;
+    }
+
+    /**
+     * @return The single precision vector kernel if it is available, otherwise FloatRadix4Kernel.
+     */
+    public static FloatFftKernel getFastestFloat() {
+        return FASTEST_FLOAT;
+    }
+
+    /**
+     * @return True if getFastest gives the vector kernel.
+     */
+    public static boolean isVectorKernelAvailable() {
+        return !(FASTEST instanceof Radix4Kernel);
+    }
+
+    private static FftKernel findFastest() {
+
+        FftKernel scalarKernel = new Radix4Kernel();
+
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_KERNEL_PROPERTY, "true"))) {
+            return scalarKernel;
+        }
+
+        try {
+            FftKernel vectorKernel = (FftKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            return isSameAsScalar(vectorKernel, scalarKernel) ? vectorKernel : scalarKernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // Not Java 17 or later, or the jdk.incubator.vector module is not added.
+            return scalarKernel;
+        }
+    }
+
+    private static FloatFftKernel findFastestFloat() {
+
+        FloatFftKernel scalarKernel = new FloatRadix4Kernel();
+
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_KERNEL_PROPERTY, "true"))) {
+            return scalarKernel;
+        }
+
+        try {
+            FloatFftKernel vectorKernel = (FloatFftKernel) Class.forName(VECTOR_FLOAT_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            return isSameAsScalarFloat(vectorKernel, scalarKernel) ? vectorKernel : scalarKernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // Not Java 17 or later, or the jdk.incubator.vector module is not added.
+            return scalarKernel;
+        }
+    }
+
+    private static boolean isSameAsScalar(FftKernel vectorKernel, FftKernel scalarKernel) {
+
+        FftPlan plan = new FftPlan(CHECK_SIZE);
+        Random random = new Random(CHECK_SIZE);
+        double[] vectorReal = new double[CHECK_SIZE];
+        double[] vectorImag = new double[CHECK_SIZE];
+
+        for (int i = 0; i < CHECK_SIZE; i++) {
+            vectorReal[i] = random.nextDouble() * 2d - 1d;
+            vectorImag[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        double[] scalarReal = vectorReal.clone();
+        double[] scalarImag = vectorImag.clone();
+        vectorKernel.transform(plan, vectorReal, vectorImag, 0);
+        scalarKernel.transform(plan, scalarReal, scalarImag, 0);
+
+        for (int i = 0; i < CHECK_SIZE; i++) {
+            if (Math.abs(vectorReal[i] - scalarReal[i]) > 1e-9 || Math.abs(vectorImag[i] - scalarImag[i]) > 1e-9) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSameAsScalarFloat(FloatFftKernel vectorKernel, FloatFftKernel scalarKernel) {
+
+        FftPlan plan = new FftPlan(CHECK_SIZE);
+        Random random = new Random(CHECK_SIZE);
+        float[] vectorReal = new float[CHECK_SIZE];
+        float[] vectorImag = new float[CHECK_SIZE];
+
+        for (int i = 0; i < CHECK_SIZE; i++) {
+            vectorReal[i] = (float) (random.nextDouble() * 2d - 1d);
+            vectorImag[i] = (float) (random.nextDouble() * 2d - 1d);
+        }
+
+        float[] scalarReal = vectorReal.clone();
+        float[] scalarImag = vectorImag.clone();
+        vectorKernel.transform(plan, vectorReal, vectorImag, 0);
+        scalarKernel.transform(plan, scalarReal, scalarImag, 0);
+
+        for (int i = 0; i < CHECK_SIZE; i++) {
+            if (Math.abs(vectorReal[i] - scalarReal[i]) > 1e-4 || Math.abs(vectorImag[i] - scalarImag[i]) > 1e-4) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
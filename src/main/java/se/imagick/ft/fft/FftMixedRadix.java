@@ -0,0 +1,512 @@
+package se.imagick.ft.fft;
+
+/**
+ * Mixed radix FFT for sizes that are not a power of two (Eg 1000, 1920 or 44100), and through the subclass
+ * FftStockham for powers of two. The size is split into its factors and the transform is calculated with one pass
+ * per factor (Stockham, so the result comes out in frequency order without a reorder pass). Factors 2, 3, 4 and 5 have their own butterflies, other factors
+ * use a plain DFT, so the cost is O(N log N) as long as the size only has small factors (see isSupported).
+ * Other sizes are better off with FftBluestein.<br>
+ * The twiddle factors (and the roots of unity of the plain DFT passes) are calculated when the instance is created,
+ * use FftPlans.getFft(size) to share them.
+ * The implementation is thread safe.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftMixedRadix extends ComplexFft {
+
+    /**
+     * The largest prime factor a size may have to be supported.
+     */
+    public static final int MAX_PRIME_FACTOR = 7;
+
+    /**
+     * From this number of values per butterfly (ido) the inner loop of the radix 4 passes goes through the values
+     * of one butterfly, below it the inner loop goes through the butterflies instead (to keep the inner loops long).
+     */
+    private static final int MIN_BUTTERFLY_LOOP_LENGTH = 4;
+
+    private static final double SIN_60 = Math.sqrt(3d) / 2d;
+    private static final double COS_72 = Math.cos(2d * Math.PI / 5d);
+    private static final double SIN_72 = Math.sin(2d * Math.PI / 5d);
+    private static final double COS_144 = Math.cos(4d * Math.PI / 5d);
+    private static final double SIN_144 = Math.sin(4d * Math.PI / 5d);
+
+    private final int size;
+    private final int[] factors;
+    private final double[][] twiddleReal;
+    private final double[][] twiddleImag;
+    private final double[][] rootReal;
+    private final double[][] rootImag;
+
+    /**
+     * @param size The size of the transform, at least 1. All prime factors should be at most MAX_PRIME_FACTOR,
+     *             larger factors work but cost O(N * factor).
+     */
+    public FftMixedRadix(int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1: " + size);
+        }
+
+        this.size = size;
+        this.factors = factorize(size);
+        this.twiddleReal = new double[factors.length][];
+        this.twiddleImag = new double[factors.length][];
+        this.rootReal = new double[factors.length][];
+        this.rootImag = new double[factors.length][];
+
+        int l1 = 1;
+
+        for (int pass = 0; pass < factors.length; pass++) {
+            int radix = factors[pass];
+            int ido = size / (l1 * radix);
+            double[] twReal = new double[(radix - 1) * ido];
+            double[] twImag = new double[(radix - 1) * ido];
+
+            for (int m = 1; m < radix; m++) {
+                for (int i = 0; i < ido; i++) {
+                    // Reduced modulo size to keep the angle (and the rounding error) small.
+                    double angle = 2d * Math.PI * (((long) m * l1 * i) % size) / size;
+                    twReal[(m - 1) * ido + i] = Math.cos(angle);
+                    twImag[(m - 1) * ido + i] = Math.sin(angle);
+                }
+            }
+
+            twiddleReal[pass] = twReal;
+            twiddleImag[pass] = twImag;
+
+            if (radix > 5) {
+                // The roots of unity of the plain DFT (the other radixes have their own butterflies).
+                rootReal[pass] = new double[radix];
+                rootImag[pass] = new double[radix];
+
+                for (int j = 0; j < radix; j++) {
+                    rootReal[pass][j] = Math.cos(2d * Math.PI * j / radix);
+                    rootImag[pass][j] = Math.sin(2d * Math.PI * j / radix);
+                }
+            }
+
+            l1 *= radix;
+        }
+    }
+
+    /**
+     * @param size The size of a transform.
+     * @return True if the size has no prime factors larger than MAX_PRIME_FACTOR.
+     */
+    public static boolean isSupported(int size) {
+
+        if (size < 1) {
+            return false;
+        }
+
+        for (int prime = 2; prime <= MAX_PRIME_FACTOR; prime++) {
+            while (size % prime == 0) {
+                size /= prime;
+            }
+        }
+
+        return size == 1;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of bytes held by the twiddle factors and the roots of unity.
+     */
+    public long getMemoryUsage() {
+        long noOfTwiddles = 0;
+
+        for (int pass = 0; pass < factors.length; pass++) {
+            noOfTwiddles += twiddleReal[pass].length + ((rootReal[pass] != null) ? rootReal[pass].length : 0);
+        }
+
+        return 2 * Double.BYTES * noOfTwiddles;
+    }
+
+    @Override
+    public int getScratchSize() {
+        return size;
+    }
+
+    @Override
+    void transform(double[] realValues, double[] imagValues, int offset, double[] scratchReal, double[] scratchImag) {
+
+        FftDif.checkRange(realValues, offset, size);
+        FftDif.checkRange(imagValues, offset, size);
+        FftDif.checkRange(scratchReal, 0, size);
+        FftDif.checkRange(scratchImag, 0, size);
+
+        // Each pass reads from one pair of arrays and writes to the other.
+        double[] inReal = realValues;
+        double[] inImag = imagValues;
+        int inOffset = offset;
+        double[] outReal = scratchReal;
+        double[] outImag = scratchImag;
+        int outOffset = 0;
+        int l1 = 1;
+
+        for (int pass = 0; pass < factors.length; pass++) {
+            int radix = factors[pass];
+            int ido = size / (l1 * radix);
+            double[] twReal = twiddleReal[pass];
+            double[] twImag = twiddleImag[pass];
+
+            switch (radix) {
+                case 2:
+                    pass2(l1, ido, inReal, inImag, inOffset, outReal, outImag, outOffset, twReal, twImag);
+                    break;
+                case 3:
+                    pass3(l1, ido, inReal, inImag, inOffset, outReal, outImag, outOffset, twReal, twImag);
+                    break;
+                case 4:
+                    pass4(l1, ido, inReal, inImag, inOffset, outReal, outImag, outOffset, twReal, twImag);
+                    break;
+                case 5:
+                    pass5(l1, ido, inReal, inImag, inOffset, outReal, outImag, outOffset, twReal, twImag);
+                    break;
+                default:
+                    passGeneric(radix, l1, ido, inReal, inImag, inOffset, outReal, outImag, outOffset, twReal, twImag,
+                            rootReal[pass], rootImag[pass]);
+            }
+
+            double[] tempReal = inReal;
+            double[] tempImag = inImag;
+            int tempOffset = inOffset;
+            inReal = outReal;
+            inImag = outImag;
+            inOffset = outOffset;
+            outReal = tempReal;
+            outImag = tempImag;
+            outOffset = tempOffset;
+            l1 *= radix;
+        }
+
+        if (inReal != realValues) {
+            System.arraycopy(inReal, inOffset, realValues, offset, size);
+            System.arraycopy(inImag, inOffset, imagValues, offset, size);
+        }
+    }
+
+    /**
+     * Splits the size into factors, fours first (cheapest per value), then the primes in increasing order.
+     */
+    private static int[] factorize(int size) {
+        int[] factors = new int[32];
+        int noOfFactors = 0;
+        int rest = size;
+
+        while (rest % 4 == 0) {
+            factors[noOfFactors++] = 4;
+            rest /= 4;
+        }
+
+        for (int factor = 2; rest > 1; factor++) {
+            if ((long) factor * factor > rest) {
+                factor = rest; // The rest is a prime.
+            }
+
+            while (rest % factor == 0) {
+                factors[noOfFactors++] = factor;
+                rest /= factor;
+            }
+        }
+
+        int[] result = new int[noOfFactors];
+        System.arraycopy(factors, 0, result, 0, noOfFactors);
+        return result;
+    }
+
+    /*
+     * The passes read the values as in[k][j][i] and write them as out[j][k][i], where k < l1 are the
+     * transforms done so far, j < radix the values of the butterfly and i < ido the values left for the
+     * passes to come. The output m of each butterfly is multiplied with the twiddle factor w^(m * l1 * i).
+     * In the last pass (ido == 1) all the twiddle factors are one.
+     */
+
+    private static void pass2(int l1, int ido, double[] inRe, double[] inIm, int inOff, double[] outRe,
+                              double[] outIm, int outOff, double[] twRe, double[] twIm) {
+
+        if (ido == 1) {
+            for (int k = 0; k < l1; k++) {
+                int in0 = inOff + 2 * k;
+                int out0 = outOff + k;
+                double re0 = inRe[in0];
+                double im0 = inIm[in0];
+                double re1 = inRe[in0 + 1];
+                double im1 = inIm[in0 + 1];
+
+                outRe[out0] = re0 + re1;
+                outIm[out0] = im0 + im1;
+                outRe[out0 + l1] = re0 - re1;
+                outIm[out0 + l1] = im0 - im1;
+            }
+
+            return;
+        }
+
+        for (int k = 0; k < l1; k++) {
+            int in0 = inOff + 2 * k * ido;
+            int in1 = in0 + ido;
+            int out0 = outOff + k * ido;
+            int out1 = out0 + l1 * ido;
+
+            for (int i = 0; i < ido; i++) {
+                double re0 = inRe[in0 + i];
+                double im0 = inIm[in0 + i];
+                double re1 = inRe[in1 + i];
+                double im1 = inIm[in1 + i];
+
+                outRe[out0 + i] = re0 + re1;
+                outIm[out0 + i] = im0 + im1;
+                twiddle(outRe, outIm, out1 + i, re0 - re1, im0 - im1, twRe[i], twIm[i]);
+            }
+        }
+    }
+
+    private static void pass3(int l1, int ido, double[] inRe, double[] inIm, int inOff, double[] outRe,
+                              double[] outIm, int outOff, double[] twRe, double[] twIm) {
+
+        int outStride = l1 * ido;
+
+        for (int k = 0; k < l1; k++) {
+            int in0 = inOff + 3 * k * ido;
+            int out0 = outOff + k * ido;
+
+            for (int i = 0; i < ido; i++) {
+                double re0 = inRe[in0 + i];
+                double im0 = inIm[in0 + i];
+                double re1 = inRe[in0 + ido + i];
+                double im1 = inIm[in0 + ido + i];
+                double re2 = inRe[in0 + 2 * ido + i];
+                double im2 = inIm[in0 + 2 * ido + i];
+
+                double sumRe = re1 + re2;
+                double sumIm = im1 + im2;
+                double midRe = re0 - 0.5d * sumRe;
+                double midIm = im0 - 0.5d * sumIm;
+                double rotRe = -SIN_60 * (im1 - im2); // i * sin(60) * (x1 - x2)
+                double rotIm = SIN_60 * (re1 - re2);
+
+                outRe[out0 + i] = re0 + sumRe;
+                outIm[out0 + i] = im0 + sumIm;
+                twiddle(outRe, outIm, out0 + outStride + i, midRe + rotRe, midIm + rotIm, twRe[i], twIm[i]);
+                twiddle(outRe, outIm, out0 + 2 * outStride + i, midRe - rotRe, midIm - rotIm, twRe[ido + i], twIm[ido + i]);
+            }
+        }
+    }
+
+    private static void pass4(int l1, int ido, double[] inRe, double[] inIm, int inOff, double[] outRe,
+                              double[] outIm, int outOff, double[] twRe, double[] twIm) {
+
+        if (ido == 1) {
+            lastPass4(l1, inRe, inIm, inOff, outRe, outIm, outOff);
+            return;
+        }
+
+        int outStride = l1 * ido;
+        boolean butterfliesInner = ido < MIN_BUTTERFLY_LOOP_LENGTH;
+        int outerLength = butterfliesInner ? ido : l1;
+        int innerLength = butterfliesInner ? l1 : ido;
+
+        for (int outer = 0; outer < outerLength; outer++) {
+            for (int inner = 0; inner < innerLength; inner++) {
+                int k = butterfliesInner ? inner : outer;
+                int i = butterfliesInner ? outer : inner;
+                int in0 = inOff + 4 * k * ido + i;
+                int out0 = outOff + k * ido + i;
+
+                double re0 = inRe[in0];
+                double im0 = inIm[in0];
+                double re1 = inRe[in0 + ido];
+                double im1 = inIm[in0 + ido];
+                double re2 = inRe[in0 + 2 * ido];
+                double im2 = inIm[in0 + 2 * ido];
+                double re3 = inRe[in0 + 3 * ido];
+                double im3 = inIm[in0 + 3 * ido];
+
+                double sum02Re = re0 + re2;
+                double sum02Im = im0 + im2;
+                double diff02Re = re0 - re2;
+                double diff02Im = im0 - im2;
+                double sum13Re = re1 + re3;
+                double sum13Im = im1 + im3;
+                double diff13Re = re1 - re3;
+                double diff13Im = im1 - im3;
+
+                outRe[out0] = sum02Re + sum13Re;
+                outIm[out0] = sum02Im + sum13Im;
+                // x0 + i * x1 - x2 - i * x3
+                twiddle(outRe, outIm, out0 + outStride, diff02Re - diff13Im, diff02Im + diff13Re,
+                        twRe[i], twIm[i]);
+                twiddle(outRe, outIm, out0 + 2 * outStride, sum02Re - sum13Re, sum02Im - sum13Im,
+                        twRe[ido + i], twIm[ido + i]);
+                twiddle(outRe, outIm, out0 + 3 * outStride, diff02Re + diff13Im, diff02Im - diff13Re,
+                        twRe[2 * ido + i], twIm[2 * ido + i]);
+            }
+        }
+    }
+
+    private static void lastPass4(int l1, double[] inRe, double[] inIm, int inOff, double[] outRe, double[] outIm,
+                                  int outOff) {
+
+        for (int k = 0; k < l1; k++) {
+            int in0 = inOff + 4 * k;
+            int out0 = outOff + k;
+
+            double re0 = inRe[in0];
+            double im0 = inIm[in0];
+            double re1 = inRe[in0 + 1];
+            double im1 = inIm[in0 + 1];
+            double re2 = inRe[in0 + 2];
+            double im2 = inIm[in0 + 2];
+            double re3 = inRe[in0 + 3];
+            double im3 = inIm[in0 + 3];
+
+            double sum02Re = re0 + re2;
+            double sum02Im = im0 + im2;
+            double diff02Re = re0 - re2;
+            double diff02Im = im0 - im2;
+            double sum13Re = re1 + re3;
+            double sum13Im = im1 + im3;
+            double diff13Re = re1 - re3;
+            double diff13Im = im1 - im3;
+
+            outRe[out0] = sum02Re + sum13Re;
+            outIm[out0] = sum02Im + sum13Im;
+            outRe[out0 + l1] = diff02Re - diff13Im;
+            outIm[out0 + l1] = diff02Im + diff13Re;
+            outRe[out0 + 2 * l1] = sum02Re - sum13Re;
+            outIm[out0 + 2 * l1] = sum02Im - sum13Im;
+            outRe[out0 + 3 * l1] = diff02Re + diff13Im;
+            outIm[out0 + 3 * l1] = diff02Im - diff13Re;
+        }
+    }
+
+    private static void pass5(int l1, int ido, double[] inRe, double[] inIm, int inOff, double[] outRe,
+                              double[] outIm, int outOff, double[] twRe, double[] twIm) {
+
+        int outStride = l1 * ido;
+
+        for (int k = 0; k < l1; k++) {
+            int in0 = inOff + 5 * k * ido;
+            int out0 = outOff + k * ido;
+
+            for (int i = 0; i < ido; i++) {
+                double re0 = inRe[in0 + i];
+                double im0 = inIm[in0 + i];
+                double re1 = inRe[in0 + ido + i];
+                double im1 = inIm[in0 + ido + i];
+                double re2 = inRe[in0 + 2 * ido + i];
+                double im2 = inIm[in0 + 2 * ido + i];
+                double re3 = inRe[in0 + 3 * ido + i];
+                double im3 = inIm[in0 + 3 * ido + i];
+                double re4 = inRe[in0 + 4 * ido + i];
+                double im4 = inIm[in0 + 4 * ido + i];
+
+                double sum14Re = re1 + re4;
+                double sum14Im = im1 + im4;
+                double diff14Re = re1 - re4;
+                double diff14Im = im1 - im4;
+                double sum23Re = re2 + re3;
+                double sum23Im = im2 + im3;
+                double diff23Re = re2 - re3;
+                double diff23Im = im2 - im3;
+
+                double mid1Re = re0 + COS_72 * sum14Re + COS_144 * sum23Re;
+                double mid1Im = im0 + COS_72 * sum14Im + COS_144 * sum23Im;
+                double mid2Re = re0 + COS_144 * sum14Re + COS_72 * sum23Re;
+                double mid2Im = im0 + COS_144 * sum14Im + COS_72 * sum23Im;
+                // i * (sin(72) * (x1 - x4) + sin(144) * (x2 - x3)) and i * (sin(144) * (x1 - x4) - sin(72) * (x2 - x3))
+                double rot1Re = -(SIN_72 * diff14Im + SIN_144 * diff23Im);
+                double rot1Im = SIN_72 * diff14Re + SIN_144 * diff23Re;
+                double rot2Re = -(SIN_144 * diff14Im - SIN_72 * diff23Im);
+                double rot2Im = SIN_144 * diff14Re - SIN_72 * diff23Re;
+
+                outRe[out0 + i] = re0 + sum14Re + sum23Re;
+                outIm[out0 + i] = im0 + sum14Im + sum23Im;
+                twiddle(outRe, outIm, out0 + outStride + i, mid1Re + rot1Re, mid1Im + rot1Im,
+                        twRe[i], twIm[i]);
+                twiddle(outRe, outIm, out0 + 2 * outStride + i, mid2Re + rot2Re, mid2Im + rot2Im,
+                        twRe[ido + i], twIm[ido + i]);
+                twiddle(outRe, outIm, out0 + 3 * outStride + i, mid2Re - rot2Re, mid2Im - rot2Im,
+                        twRe[2 * ido + i], twIm[2 * ido + i]);
+                twiddle(outRe, outIm, out0 + 4 * outStride + i, mid1Re - rot1Re, mid1Im - rot1Im,
+                        twRe[3 * ido + i], twIm[3 * ido + i]);
+            }
+        }
+    }
+
+    /**
+     * A plain DFT of radix values per butterfly.
+     */
+    private static void passGeneric(int radix, int l1, int ido, double[] inRe, double[] inIm, int inOff,
+                                    double[] outRe, double[] outIm, int outOff, double[] twRe, double[] twIm,
+                                    double[] rootReal, double[] rootImag) {
+
+        int outStride = l1 * ido;
+
+        for (int k = 0; k < l1; k++) {
+            int in0 = inOff + radix * k * ido;
+            int out0 = outOff + k * ido;
+
+            for (int i = 0; i < ido; i++) {
+                for (int m = 0; m < radix; m++) {
+                    double sumRe = 0d;
+                    double sumIm = 0d;
+                    int rootIndex = 0;
+
+                    for (int j = 0; j < radix; j++) {
+                        double re = inRe[in0 + j * ido + i];
+                        double im = inIm[in0 + j * ido + i];
+                        sumRe += re * rootReal[rootIndex] - im * rootImag[rootIndex];
+                        sumIm += re * rootImag[rootIndex] + im * rootReal[rootIndex];
+                        rootIndex += m;
+
+                        if (rootIndex >= radix) {
+                            rootIndex -= radix;
+                        }
+                    }
+
+                    if (m == 0) {
+                        outRe[out0 + i] = sumRe;
+                        outIm[out0 + i] = sumIm;
+                    } else {
+                        int twIndex = (m - 1) * ido + i;
+                        twiddle(outRe, outIm, out0 + m * outStride + i, sumRe, sumIm, twRe[twIndex], twIm[twIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void twiddle(double[] outRe, double[] outIm, int index, double re, double im, double twRe,
+                                double twIm) {
+        outRe[index] = re * twRe - im * twIm;
+        outIm[index] = re * twIm + im * twRe;
+    }
+}
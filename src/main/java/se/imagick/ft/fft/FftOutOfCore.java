@@ -0,0 +1,372 @@
+package se.imagick.ft.fft;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Out of core FFT for real signals that don't fit in the heap (Eg multi GB recordings). The signal is read from
+ * a file and the frequencies are written to another file, both memory mapped (see MappedDoubles), and only
+ * blocks of blockSize complex values are held in the heap at a time, no matter the size of the signal.<br>
+ * The output is the same as FftDif.forward: size / 2 + 1 frequencies, scaled so that the magnitude is the
+ * amplitude of each frequency. In the file they are stored as pairs of doubles, real and imaginary.<br>
+ * <br>
+ * The real values are seen as size / 2 complex values (even values real, odd values imaginary), which are
+ * transformed with the four step decomposition (see FftParallel) in three passes over the files:<br>
+ * 1. Bands of columns are read from the input, transformed, multiplied with the twiddle factors and written to
+ * a scratch file (the same size as the input).<br>
+ * 2. Bands of rows are read from the scratch file, transformed and written to the output in frequency order.<br>
+ * 3. The frequencies of the real signal are separated from the complex ones, in place in the output, going
+ * through the frequencies from both ends at the same time (frequency k and size / 2 - k belong together).<br>
+ * Each pass reads and writes every value once, in runs of at least blockSize / sqrt(size / 2) values.<br>
+ * The heap used is about 32 * blockSize bytes (32 MB by default) plus tables of about sqrt(size) values.
+ * The implementation is thread safe, each call uses its own buffers.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftOutOfCore {
+
+    /**
+     * The default number of complex values held in the heap at a time.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private final long size;
+    private final long complexSize;
+    private final int noOfRows;
+    private final int noOfColumns;
+    private final int blockSize;
+    private final ByteOrder byteOrder;
+    private final ComplexFft columnFft;
+    private final ComplexFft rowFft;
+    private final Twiddles complexTwiddles;
+    private final Twiddles realTwiddles;
+
+    /**
+     * Creates a transform for files with doubles in the native byte order and DEFAULT_BLOCK_SIZE.
+     *
+     * @param size The number of real values (a power of two, at least 4).
+     */
+    public FftOutOfCore(long size) {
+        this(size, DEFAULT_BLOCK_SIZE, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param size The number of real values (a power of two, at least 4).
+     * @param blockSize The number of complex values held in the heap at a time, at least sqrt(size).
+     * @param byteOrder The byte order of the doubles in the files.
+     */
+    public FftOutOfCore(long size, int blockSize, ByteOrder byteOrder) {
+
+        if (size < 4 || Long.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Not a power of two value (at least 4): " + size);
+        }
+
+        this.size = size;
+        this.complexSize = size / 2;
+        int bits = Long.numberOfTrailingZeros(complexSize);
+        this.noOfRows = 1 << (bits / 2);
+        this.noOfColumns = (int) (complexSize / noOfRows);
+
+        if (blockSize < noOfColumns) {
+            throw new IllegalArgumentException("Block size too small, at least " + noOfColumns + " is needed");
+        }
+
+        this.blockSize = blockSize;
+        this.byteOrder = byteOrder;
+        this.columnFft = FftPlans.getComplexFft(noOfRows);
+        this.rowFft = FftPlans.getComplexFft(noOfColumns);
+        this.complexTwiddles = new Twiddles(complexSize);
+        this.realTwiddles = new Twiddles(size);
+    }
+
+    /**
+     * @return The number of real values the transform works on.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Transforms the signal in the input file to the output file (created or overwritten). The scratch file
+     * is created in the directory of the output and deleted afterwards.
+     *
+     * @param input A file with size doubles.
+     * @param output Receives size / 2 + 1 frequencies, each as a real and an imaginary double.
+     * @throws IOException If a file can't be read or written.
+     */
+    public void forward(Path input, Path output) throws IOException {
+
+        Path directory = output.toAbsolutePath().getParent();
+        Path scratch = Files.createTempFile(directory, "fft", ".tmp");
+
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel scratchChannel = FileChannel.open(scratch, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            forward(inputChannel, outputChannel, scratchChannel);
+        } finally {
+            try {
+                Files.deleteIfExists(scratch);
+            } catch (IOException e) {
+                // Some platforms can't delete a file that is still mapped.
+                scratch.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Transforms the signal in the input file to the output file, see forward(Path, Path).
+     *
+     * @param input Holds size doubles from the start of the file.
+     * @param output Opened for reading and writing. Receives size / 2 + 1 frequencies from the start of the file,
+     *               each as a real and an imaginary double.
+     * @param scratch Opened for reading and writing. Used for size doubles from the start of the file.
+     * @throws IOException If a file can't be read or written.
+     */
+    public void forward(FileChannel input, FileChannel output, FileChannel scratch) throws IOException {
+
+        if (input.size() < size * Double.BYTES) {
+            throw new IllegalArgumentException("The input holds less than " + size + " values");
+        }
+
+        MappedDoubles inputValues = new MappedDoubles(input, FileChannel.MapMode.READ_ONLY, size, byteOrder);
+        MappedDoubles scratchValues = new MappedDoubles(scratch, FileChannel.MapMode.READ_WRITE, size, byteOrder);
+        MappedDoubles outputValues = new MappedDoubles(output, FileChannel.MapMode.READ_WRITE, size + 2, byteOrder);
+
+        transformColumns(inputValues, scratchValues);
+        transformRows(scratchValues, outputValues);
+        separate(outputValues);
+        outputValues.force();
+    }
+
+    /*
+     * The complex values z[n] = x[2n] + i x[2n + 1] are seen as a matrix of noOfRows * noOfColumns,
+     * z[row][column] = z[row * noOfColumns + column], and the complex frequency k1 + noOfRows * k2 as
+     * the sum over the columns of w^(column * k2) * w^(column * k1) * (transform of the column)[k1],
+     * with w = e^(2 pi i / (size / 2)). As in FftParallel the transforms turn with a positive angle, the
+     * real and imaginary values are swapped when they are read from the input and written to the output.
+     */
+
+    /**
+     * Pass 1: input -> scratch. The transformed column c is stored as z[k1][c] (same layout as the input).
+     */
+    private void transformColumns(MappedDoubles input, MappedDoubles scratch) {
+
+        // Powers of two, so that the bands add up to the whole matrix.
+        int bandWidth = Math.min(noOfColumns, Integer.highestOneBit(blockSize / noOfRows));
+        double[] bandReal = new double[bandWidth * noOfRows];
+        double[] bandImag = new double[bandWidth * noOfRows];
+        double[] pairs = new double[2 * bandWidth];
+
+        for (int firstColumn = 0; firstColumn < noOfColumns; firstColumn += bandWidth) {
+
+            // The band is stored one column at a time, so that each column is a row for the transform.
+            for (int row = 0; row < noOfRows; row++) {
+                input.get(2 * ((long) row * noOfColumns + firstColumn), pairs, 0, 2 * bandWidth);
+
+                for (int column = 0; column < bandWidth; column++) {
+                    bandImag[column * noOfRows + row] = pairs[2 * column];
+                    bandReal[column * noOfRows + row] = pairs[2 * column + 1];
+                }
+            }
+
+            for (int column = 0; column < bandWidth; column++) {
+                transformColumn(bandReal, bandImag, column * noOfRows, firstColumn + column);
+            }
+
+            for (int row = 0; row < noOfRows; row++) {
+                for (int column = 0; column < bandWidth; column++) {
+                    pairs[2 * column] = bandReal[column * noOfRows + row];
+                    pairs[2 * column + 1] = bandImag[column * noOfRows + row];
+                }
+
+                scratch.put(2 * ((long) row * noOfColumns + firstColumn), pairs, 0, 2 * bandWidth);
+            }
+        }
+    }
+
+    private void transformColumn(double[] realValues, double[] imagValues, int offset, long column) {
+
+        columnFft.transform(realValues, imagValues, offset);
+
+        for (int k = 0; k < noOfRows; k++) {
+            long exponent = column * k;
+            double twReal = complexTwiddles.real(exponent);
+            double twImag = complexTwiddles.imag(exponent);
+            double re = realValues[offset + k];
+            double im = imagValues[offset + k];
+            realValues[offset + k] = re * twReal - im * twImag;
+            imagValues[offset + k] = re * twImag + im * twReal;
+        }
+    }
+
+    /**
+     * Pass 2: scratch -> output. Row k1 of the scratch gives the frequencies k1 + noOfRows * k2.
+     */
+    private void transformRows(MappedDoubles scratch, MappedDoubles output) {
+
+        int bandHeight = Math.min(noOfRows, Integer.highestOneBit(blockSize / noOfColumns));
+        double[] bandReal = new double[bandHeight * noOfColumns];
+        double[] bandImag = new double[bandHeight * noOfColumns];
+        double[] pairs = new double[2 * Math.max(noOfColumns, bandHeight)];
+
+        for (int firstRow = 0; firstRow < noOfRows; firstRow += bandHeight) {
+
+            for (int row = 0; row < bandHeight; row++) {
+                int offset = row * noOfColumns;
+                scratch.get(2 * ((long) (firstRow + row) * noOfColumns), pairs, 0, 2 * noOfColumns);
+
+                for (int column = 0; column < noOfColumns; column++) {
+                    bandReal[offset + column] = pairs[2 * column];
+                    bandImag[offset + column] = pairs[2 * column + 1];
+                }
+
+                rowFft.transform(bandReal, bandImag, offset);
+            }
+
+            // The band holds bandHeight frequencies in a row for each k2.
+            for (int k2 = 0; k2 < noOfColumns; k2++) {
+                for (int row = 0; row < bandHeight; row++) {
+                    pairs[2 * row] = bandImag[row * noOfColumns + k2];
+                    pairs[2 * row + 1] = bandReal[row * noOfColumns + k2];
+                }
+
+                output.put(2 * ((long) k2 * noOfRows + firstRow), pairs, 0, 2 * bandHeight);
+            }
+        }
+    }
+
+    /**
+     * Pass 3: the complex frequencies Z -> the frequencies X of the real signal, in place. With h = size / 2:<br>
+     * E = (Z[k] + conj(Z[h - k])) / 2, O = (Z[k] - conj(Z[h - k])) / 2i * e^(-2 pi i k / size),<br>
+     * X[k] = E + O and X[h - k] = conj(E - O).
+     */
+    private void separate(MappedDoubles output) {
+
+        int blockLength = Math.max(2, blockSize / 2);
+        double[] front = new double[2 * blockLength];
+        double[] back = new double[2 * blockLength];
+        long half = complexSize / 2;
+
+        // Frequency 0 and size / 2 (stored after the complex frequencies).
+        output.get(0, front, 0, 2);
+        double dc = front[0] + front[1];
+        double nyquist = front[0] - front[1];
+        front[0] = dc / size;
+        front[1] = 0d;
+        front[2] = nyquist / size;
+        front[3] = 0d;
+        output.put(0, front, 0, 2);
+        output.put(2 * complexSize, front, 2, 2);
+
+        for (long first = 1; first <= half; first += blockLength) {
+            int length = (int) Math.min(blockLength, half + 1 - first);
+            long backFirst = complexSize - first - length + 1;
+            output.get(2 * first, front, 0, 2 * length);
+            output.get(2 * backFirst, back, 0, 2 * length);
+
+            for (int i = 0; i < length; i++) {
+                long k = first + i;
+                int backIndex = 2 * (length - 1 - i);
+                double zReal = front[2 * i];
+                double zImag = front[2 * i + 1];
+                double mirrorReal = back[backIndex];
+                double mirrorImag = back[backIndex + 1];
+
+                double evenReal = (zReal + mirrorReal) / 2d;
+                double evenImag = (zImag - mirrorImag) / 2d;
+                // (Z[k] - conj(Z[h - k])) / 2i
+                double oddReal = (zImag + mirrorImag) / 2d;
+                double oddImag = -(zReal - mirrorReal) / 2d;
+                double twReal = realTwiddles.real(k);
+                double twImag = -realTwiddles.imag(k);
+                double rotatedReal = oddReal * twReal - oddImag * twImag;
+                double rotatedImag = oddReal * twImag + oddImag * twReal;
+
+                // Scaled like FftDif.forward.
+                front[2 * i] = 2d * (evenReal + rotatedReal) / size;
+                front[2 * i + 1] = 2d * (evenImag + rotatedImag) / size;
+                back[backIndex] = 2d * (evenReal - rotatedReal) / size;
+                back[backIndex + 1] = -2d * (evenImag - rotatedImag) / size;
+            }
+
+            // The front is written last, for k = h / 2 both halves are the same frequency.
+            output.put(2 * backFirst, back, 0, 2 * length);
+            output.put(2 * first, front, 0, 2 * length);
+        }
+    }
+
+    /**
+     * w^e = e^(2 pi i e / size) as the product of two table values (see FftParallel), the tables are about
+     * the square root of the size.
+     */
+    private static final class Twiddles {
+
+        private final long mask;
+        private final int fineBits;
+        private final double[] coarseReal;
+        private final double[] coarseImag;
+        private final double[] fineReal;
+        private final double[] fineImag;
+
+        Twiddles(long size) {
+            int bits = Long.numberOfTrailingZeros(size);
+            this.mask = size - 1;
+            this.fineBits = bits / 2;
+            int noOfFine = 1 << fineBits;
+            int noOfCoarse = (int) (size >> fineBits);
+            this.fineReal = new double[noOfFine];
+            this.fineImag = new double[noOfFine];
+            this.coarseReal = new double[noOfCoarse];
+            this.coarseImag = new double[noOfCoarse];
+
+            for (int i = 0; i < noOfFine; i++) {
+                fineReal[i] = Math.cos(2 * Math.PI * i / size);
+                fineImag[i] = Math.sin(2 * Math.PI * i / size);
+            }
+
+            for (int i = 0; i < noOfCoarse; i++) {
+                coarseReal[i] = Math.cos(2 * Math.PI * i / noOfCoarse);
+                coarseImag[i] = Math.sin(2 * Math.PI * i / noOfCoarse);
+            }
+        }
+
+        double real(long exponent) {
+            int coarse = (int) ((exponent & mask) >>> fineBits);
+            int fine = (int) (exponent & ((1 << fineBits) - 1));
+            return coarseReal[coarse] * fineReal[fine] - coarseImag[coarse] * fineImag[fine];
+        }
+
+        double imag(long exponent) {
+            int coarse = (int) ((exponent & mask) >>> fineBits);
+            int fine = (int) (exponent & ((1 << fineBits) - 1));
+            return coarseReal[coarse] * fineImag[fine] + coarseImag[coarse] * fineReal[fine];
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package se.imagick.ft.fft;
+
+/**
+ * The pre-calculated values needed for a transform of one size (a power of two):
+ * the sine and cosine values for the butterflies (a TwiddleTable, one quarter of a lap)
+ * and the decomp order used to put the values back in frequency order.<br>
+ * A plan never changes after it is created (apart from the pass twiddles of the vector kernels,
+ * which are added at their first use), so it can be shared between any number of transforms and threads.
+ * Get plans from FftPlans rather than creating them, so that they are only calculated once per size.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public final class FftPlan {
+
+    /**
+     * From this size the values no longer fit in the cache, and reordering them one block at a
+     * time is faster than going through the decomp order.
+     */
+    static final int MIN_BLOCKED_REORDER_SIZE = 1 << 16;
+
+    private final int size;
+    private final int[] blockTable;
+    private final int[] middleTable;
+    final TwiddleTable twiddles;
+    final int[] decompArray;
+    private volatile double[][] passTwiddles;
+    private volatile float[][] floatPassTwiddles;
+
+    FftPlan(int size) {
+
+        if (size < 1 || !((size & -size) == size)) {
+            throw new IllegalArgumentException("Not a power of two value");
+        }
+
+        this.size = size;
+
+        // Pre-calculate all possible sine and cosine values.
+        twiddles = new TwiddleTable(size);
+
+        // Pre calculate for the reverse decomp of values.
+        decompArray = BitReversal.table(size);
+
+        if (size >= MIN_BLOCKED_REORDER_SIZE) {
+            blockTable = BitReversal.table(1 << BitReversal.BLOCK_BITS);
+            middleTable = BitReversal.table(size >> (2 * BitReversal.BLOCK_BITS));
+        } else {
+            blockTable = null;
+            middleTable = null;
+        }
+    }
+
+    /**
+     * Puts the values of a finished FFT-DIF in frequency order, in place.
+     */
+    void reorder(double[] realValues, double[] imagValues, int offset) {
+
+        if (blockTable != null) {
+            BitReversal.reorderBlocked(realValues, imagValues, offset, size, blockTable, middleTable);
+        } else {
+            BitReversal.reorder(realValues, imagValues, offset, decompArray);
+        }
+    }
+
+    /**
+     * Same as reorder(double[], double[], int), for float values.
+     */
+    void reorder(float[] realValues, float[] imagValues, int offset) {
+
+        if (blockTable != null) {
+            BitReversal.reorderBlocked(realValues, imagValues, offset, size, blockTable, middleTable);
+        } else {
+            BitReversal.reorder(realValues, imagValues, offset, decompArray);
+        }
+    }
+
+    /**
+     * The twiddle factors of each pass copied into tables of their own (one value per butterfly), for the
+     * vector kernels (see VectorRadix4Kernel). Calculated at the first call and then kept with the plan,
+     * so they are read without locking. The memory they take is added to the plan (see getMemoryUsage)
+     * and to FftPlans when they are calculated.
+     *
+     * @return For each radix 4 pass: cos1, sin1, cos2, sin2, cos3 and sin3 for all butterflies of a block, after each other.
+     * If the size needs a first radix 2 pass, the half lap of cosines and then sines for it comes last.
+     */
+    double[][] getPassTwiddles() {
+
+        double[][] tables = passTwiddles;
+
+        if (tables == null) {
+            synchronized (this) {
+                tables = passTwiddles;
+
+                if (tables == null) {
+                    tables = calculatePassTwiddles();
+                    passTwiddles = tables;
+                    FftPlans.addMemoryUsage(this, Double.BYTES * getLength(tables));
+                }
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Same as getPassTwiddles(), rounded to float (for the single precision vector kernel).
+     */
+    float[][] getFloatPassTwiddles() {
+
+        float[][] tables = floatPassTwiddles;
+
+        if (tables == null) {
+            synchronized (this) {
+                tables = floatPassTwiddles;
+
+                if (tables == null) {
+                    double[][] doubleTables = calculatePassTwiddles();
+                    tables = new float[doubleTables.length][];
+
+                    for (int pass = 0; pass < doubleTables.length; pass++) {
+                        tables[pass] = new float[doubleTables[pass].length];
+
+                        for (int i = 0; i < doubleTables[pass].length; i++) {
+                            tables[pass][i] = (float) doubleTables[pass][i];
+                        }
+                    }
+
+                    floatPassTwiddles = tables;
+                    FftPlans.addMemoryUsage(this, Float.BYTES * getLength(doubleTables));
+                }
+            }
+        }
+
+        return tables;
+    }
+
+    private static long getLength(double[][] tables) {
+        long length = 0;
+
+        for (double[] table : tables) {
+            length += table.length;
+        }
+
+        return length;
+    }
+
+    private double[][] calculatePassTwiddles() {
+
+        int halfSize = size / 2;
+        int firstButterflySize = (Integer.numberOfTrailingZeros(size) % 2 == 1) ? size / 2 : size;
+        int noOfPasses = 0;
+
+        for (int butterflySize = firstButterflySize; butterflySize > 4; butterflySize /= 4) {
+            noOfPasses++;
+        }
+
+        boolean hasRadix2Pass = firstButterflySize != size;
+        double[][] tables = new double[hasRadix2Pass ? noOfPasses + 1 : noOfPasses][];
+        int pass = 0;
+
+        for (int butterflySize = firstButterflySize; butterflySize > 4; butterflySize /= 4, pass++) {
+            int quarter = butterflySize / 4;
+            int sinStep = size / butterflySize;
+            double[] table = new double[6 * quarter];
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex++) {
+                for (int multiple = 1; multiple <= 3; multiple++) {
+                    int sinIndex = multiple * butterflyIndex * sinStep;
+                    table[(2 * multiple - 2) * quarter + butterflyIndex] = twiddles.cos(sinIndex);
+                    table[(2 * multiple - 1) * quarter + butterflyIndex] = twiddles.sin(sinIndex);
+                }
+            }
+
+            tables[pass] = table;
+        }
+
+        if (hasRadix2Pass) {
+            double[] table = new double[size];
+
+            for (int butterflyIndex = 0; butterflyIndex < halfSize; butterflyIndex++) {
+                table[butterflyIndex] = twiddles.cos(butterflyIndex);
+                table[halfSize + butterflyIndex] = twiddles.sin(butterflyIndex);
+            }
+
+            tables[noOfPasses] = table;
+        }
+
+        return tables;
+    }
+
+    /**
+     * @return True if reorder works one block at a time, instead of going through the decomp order.
+     */
+    boolean isBlockedReorder() {
+        return blockTable != null;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The approximate number of bytes held by the plan, including the pass twiddles of the vector kernels
+     * if they have been calculated.
+     */
+    public long getMemoryUsage() {
+        long blockTablesLength = (blockTable != null) ? blockTable.length + middleTable.length : 0;
+        long memoryUsage = twiddles.getMemoryUsage() + 4L * (decompArray.length + blockTablesLength);
+        double[][] doubleTables = passTwiddles;
+        float[][] floatTables = floatPassTwiddles;
+
+        if (doubleTables != null) {
+            memoryUsage += Double.BYTES * getLength(doubleTables);
+        }
+
+        if (floatTables != null) {
+            for (float[] table : floatTables) {
+                memoryUsage += Float.BYTES * (long) table.length;
+            }
+        }
+
+        return memoryUsage;
+    }
+}
@@ -0,0 +1,238 @@
+package se.imagick.ft.fft;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registry of shared FftPlans, one per size. The first request for a size calculates the plan,
+ * after that the same (immutable) instance is handed out to all transforms and threads.
+ * The transforms for sizes that are not a power of two (FftMixedRadix and FftBluestein, see getFft)
+ * hold their own tables and are shared in the same way.<br>
+ * The registry is bounded by the memory the plans hold. When a new plan does not fit, the plans
+ * that have been unused for the longest time are evicted. An evicted plan stays valid for the
+ * transforms already using it, it will just be calculated again the next time it is asked for.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public final class FftPlans {
+
+    /**
+     * The default memory limit for the registry, 64 MB. That is enough for all sizes up to 2^22 at the same time with
+     * the scalar kernels (48 MB), but only up to 2^20 with the vector kernel (44 MB), as its pass twiddles are added to
+     * the plans (see FftPlan.getPassTwiddles).
+     */
+    public static final long DEFAULT_MAX_MEMORY_USAGE = 64L * 1024L * 1024L;
+
+    private static final Map<PlanKey, Object> plans = new LinkedHashMap<>(32, 0.75f, true);
+    private static final Map<PlanKey, Long> planMemoryUsage = new HashMap<>();
+    private static long maxMemoryUsage = DEFAULT_MAX_MEMORY_USAGE;
+    private static long memoryUsage;
+
+    private FftPlans() {
+    }
+
+    /**
+     * Retrieves the plan for the specified size, calculating it if it is not in the registry.
+     *
+     * @param size The size of the transform (a power of two).
+     * @return The shared plan for the size.
+     */
+    public static FftPlan get(int size) {
+        return get(FftPlan.class, size, FftPlan::new, FftPlan::getMemoryUsage);
+    }
+
+    /**
+     * Retrieves a transform for any size: FftDif (with FftKernels.getFastest()) for powers of two, FftMixedRadix for sizes that only have
+     * small factors (see FftMixedRadix.isSupported) and FftBluestein for the rest.
+     * The tables of the transform are shared through the registry.
+     *
+     * @param size The size of the transform, at least 1.
+     * @return A (thread safe) transform for the size.
+     */
+    public static Fft getFft(int size) {
+        return getComplexFft(size);
+    }
+
+    /**
+     * Same as getFft, with the complex transforms of ComplexFft (forwardComplex and inverseComplex).
+     *
+     * @param size The size of the transform, at least 1.
+     * @return A (thread safe) transform for the size.
+     */
+    public static ComplexFft getComplexFft(int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1: " + size);
+        }
+
+        if (size > 1 && Integer.bitCount(size) == 1) {
+            return new FftDif(get(size), FftKernels.getFastest());
+        }
+
+        if (FftMixedRadix.isSupported(size)) {
+            return get(FftMixedRadix.class, size, FftMixedRadix::new, FftMixedRadix::getMemoryUsage);
+        }
+
+        return get(FftBluestein.class, size, FftBluestein::new, FftBluestein::getMemoryUsage);
+    }
+
+    private static <T> T get(Class<T> type, int size, IntFunction<T> factory, ToLongFunction<T> memoryUsageOf) {
+
+        PlanKey key = new PlanKey(type, size);
+
+        synchronized (plans) {
+            Object plan = plans.get(key);
+
+            if (plan != null) {
+                return type.cast(plan);
+            }
+        }
+
+        // Calculated outside the lock, so large sizes don't hold up other sizes.
+        // Two threads may end up calculating the same size, only the first one is kept.
+        T plan = factory.apply(size);
+        long planMemory = memoryUsageOf.applyAsLong(plan);
+
+        synchronized (plans) {
+            Object existingPlan = plans.get(key);
+
+            if (existingPlan != null) {
+                return type.cast(existingPlan);
+            }
+
+            if (planMemory <= maxMemoryUsage) {
+                plans.put(key, plan);
+                planMemoryUsage.put(key, planMemory);
+                memoryUsage += planMemory;
+                evict();
+            }
+        }
+
+        return plan;
+    }
+
+    /**
+     * Adds memory that a plan has taken after it was put in the registry (the pass twiddles of the vector kernels),
+     * evicting plans if needed. Plans that are not in the registry are not counted.
+     */
+    static void addMemoryUsage(FftPlan plan, long bytes) {
+
+        PlanKey key = new PlanKey(FftPlan.class, plan.getSize());
+
+        synchronized (plans) {
+            if (plans.get(key) == plan) {
+                planMemoryUsage.put(key, planMemoryUsage.get(key) + bytes);
+                memoryUsage += bytes;
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes the plans in the registry may hold, evicting plans if needed.
+     * Plans larger than the limit are calculated for each request and never kept.
+     *
+     * @param maxMemoryUsage The limit in bytes.
+     */
+    public static void setMaxMemoryUsage(long maxMemoryUsage) {
+
+        if (maxMemoryUsage < 0) {
+            throw new IllegalArgumentException("Negative memory limit");
+        }
+
+        synchronized (plans) {
+            FftPlans.maxMemoryUsage = maxMemoryUsage;
+            evict();
+        }
+    }
+
+    /**
+     * @return The number of bytes held by the plans currently in the registry.
+     */
+    public static long getMemoryUsage() {
+        synchronized (plans) {
+            return memoryUsage;
+        }
+    }
+
+    /**
+     * @return The number of plans currently in the registry.
+     */
+    public static int getNoOfPlans() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * Removes all plans from the registry.
+     */
+    public static void clear() {
+        synchronized (plans) {
+            plans.clear();
+            planMemoryUsage.clear();
+            memoryUsage = 0;
+        }
+    }
+
+    private static void evict() {
+        Iterator<PlanKey> leastRecentlyUsed = plans.keySet().iterator();
+
+        while (memoryUsage > maxMemoryUsage && leastRecentlyUsed.hasNext()) {
+            memoryUsage -= planMemoryUsage.remove(leastRecentlyUsed.next());
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private static final class PlanKey {
+
+        private final Class<?> type;
+        private final int size;
+
+        PlanKey(Class<?> type, int size) {
+            this.type = type;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof PlanKey)) {
+                return false;
+            }
+
+            PlanKey otherKey = (PlanKey) other;
+            return type == otherKey.type && size == otherKey.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + size;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package se.imagick.ft.fft;
+
+/**
+ * Radix 4 butterflies (see Radix4Kernel) in single precision. The sine and cosine values are taken from
+ * the double tables of the plan and rounded to float, so no tables of its own are needed.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FloatRadix4Kernel implements FloatFftKernel {
+
+    @Override
+    public void transform(FftPlan plan, float[] realValues, float[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        int butterflySize = size;
+
+        if (Integer.numberOfTrailingZeros(size) % 2 == 1) {
+            radix2Pass(plan, realValues, imagValues, offset);
+            butterflySize /= 2;
+        }
+
+        for (; butterflySize > 4; butterflySize /= 4) {
+            radix4Pass(plan, realValues, imagValues, offset, butterflySize);
+        }
+
+        if (butterflySize == 4) {
+            lastRadix4Pass(realValues, imagValues, offset, size);
+        }
+    }
+
+    /**
+     * The first radix 2 pass (butterfly size = size).
+     */
+    static void radix2Pass(FftPlan plan, float[] realValues, float[] imagValues, int offset) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int butterflyHalfsize = plan.getSize() / 2;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+            int currIndex = offset + butterflyIndex;
+            int currDoubleIndex = currIndex + butterflyHalfsize;
+
+            float realTemp = realValues[currIndex];
+            float imagTemp = imagValues[currIndex];
+            float realDiff = realTemp - realValues[currDoubleIndex];
+            float imagDiff = imagTemp - imagValues[currDoubleIndex];
+            realValues[currIndex] = realTemp + realValues[currDoubleIndex];
+            imagValues[currIndex] = imagTemp + imagValues[currDoubleIndex];
+
+            float currCos = (float) twiddles.cos(butterflyIndex);
+            float currSin = (float) twiddles.sin(butterflyIndex);
+            realValues[currDoubleIndex] = realDiff * currCos - imagDiff * currSin;
+            imagValues[currDoubleIndex] = realDiff * currSin + imagDiff * currCos;
+        }
+    }
+
+    static void radix4Pass(FftPlan plan, float[] realValues, float[] imagValues, int offset, int butterflySize) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int size = plan.getSize();
+        int quarter = butterflySize / 4;
+        int sinStep = size / butterflySize;
+
+        for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex++) {
+                int index0 = butterflyIndexStart + butterflyIndex;
+                int index1 = index0 + quarter;
+                int index2 = index1 + quarter;
+                int index3 = index2 + quarter;
+
+                float sumReal02 = realValues[index0] + realValues[index2];
+                float sumImag02 = imagValues[index0] + imagValues[index2];
+                float sumReal13 = realValues[index1] + realValues[index3];
+                float sumImag13 = imagValues[index1] + imagValues[index3];
+                float diffReal02 = realValues[index0] - realValues[index2];
+                float diffImag02 = imagValues[index0] - imagValues[index2];
+                float diffReal13 = realValues[index1] - realValues[index3];
+                float diffImag13 = imagValues[index1] - imagValues[index3];
+
+                int sinIndex1 = butterflyIndex * sinStep;
+                int sinIndex2 = 2 * sinIndex1;
+                int sinIndex3 = 3 * sinIndex1;
+                float cos1 = (float) twiddles.cosOfFirstQuarter(sinIndex1);
+                float sin1 = (float) twiddles.sinOfFirstQuarter(sinIndex1);
+                float cos2 = (float) twiddles.cos(sinIndex2);
+                float sin2 = (float) twiddles.sin(sinIndex2);
+                float cos3 = (float) twiddles.cos(sinIndex3);
+                float sin3 = (float) twiddles.sin(sinIndex3);
+
+                realValues[index0] = sumReal02 + sumReal13;
+                imagValues[index0] = sumImag02 + sumImag13;
+
+                float realTemp = sumReal02 - sumReal13;
+                float imagTemp = sumImag02 - sumImag13;
+                realValues[index1] = realTemp * cos2 - imagTemp * sin2;
+                imagValues[index1] = realTemp * sin2 + imagTemp * cos2;
+
+                // Multiplying by i turns (re, im) into (-im, re).
+                realTemp = diffReal02 - diffImag13;
+                imagTemp = diffImag02 + diffReal13;
+                realValues[index2] = realTemp * cos1 - imagTemp * sin1;
+                imagValues[index2] = realTemp * sin1 + imagTemp * cos1;
+
+                realTemp = diffReal02 + diffImag13;
+                imagTemp = diffImag02 - diffReal13;
+                realValues[index3] = realTemp * cos3 - imagTemp * sin3;
+                imagValues[index3] = realTemp * sin3 + imagTemp * cos3;
+            }
+        }
+    }
+
+    /**
+     * The last pass (butterfly size 4), where all the sines are zero and all the cosines are one.
+     */
+    static void lastRadix4Pass(float[] realValues, float[] imagValues, int offset, int size) {
+
+        for (int index0 = offset; index0 < offset + size; index0 += 4) {
+            float sumReal02 = realValues[index0] + realValues[index0 + 2];
+            float sumImag02 = imagValues[index0] + imagValues[index0 + 2];
+            float sumReal13 = realValues[index0 + 1] + realValues[index0 + 3];
+            float sumImag13 = imagValues[index0 + 1] + imagValues[index0 + 3];
+            float diffReal02 = realValues[index0] - realValues[index0 + 2];
+            float diffImag02 = imagValues[index0] - imagValues[index0 + 2];
+            float diffReal13 = realValues[index0 + 1] - realValues[index0 + 3];
+            float diffImag13 = imagValues[index0 + 1] - imagValues[index0 + 3];
+
+            realValues[index0] = sumReal02 + sumReal13;
+            imagValues[index0] = sumImag02 + sumImag13;
+            realValues[index0 + 1] = sumReal02 - sumReal13;
+            imagValues[index0 + 1] = sumImag02 - sumImag13;
+            realValues[index0 + 2] = diffReal02 - diffImag13;
+            imagValues[index0 + 2] = diffImag02 + diffReal13;
+            realValues[index0 + 3] = diffReal02 + diffImag13;
+            imagValues[index0 + 3] = diffImag02 - diffReal13;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package se.imagick.ft.fft;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Doubles in a file, mapped into memory one segment (of at most 1 GB) at a time, since a MappedByteBuffer
+ * can't be larger than 2 GB. All segments are mapped when the instance is created. They only take address
+ * space, the operating system pages the values in and out as they are used, so files much larger than the
+ * heap can be read and written a block at a time.<br>
+ * An instance is not thread safe (the buffers are positioned for each block).<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class MappedDoubles {
+
+    /**
+     * The number of doubles per segment (1 GB).
+     */
+    static final int SEGMENT_SIZE = 1 << 27;
+
+    private final int segmentSize;
+    private final MappedByteBuffer[] buffers;
+    private final DoubleBuffer[] segments;
+
+    /**
+     * @param channel The file, opened for reading (and writing if the mode is READ_WRITE).
+     * @param mode READ_ONLY or READ_WRITE (the file grows to fit the values).
+     * @param noOfValues The number of doubles, from the start of the file.
+     * @param byteOrder The byte order of the doubles in the file.
+     */
+    MappedDoubles(FileChannel channel, FileChannel.MapMode mode, long noOfValues, ByteOrder byteOrder)
+            throws IOException {
+        this(channel, mode, noOfValues, byteOrder, SEGMENT_SIZE);
+    }
+
+    /**
+     * Same as above, with the number of doubles per segment (for the tests).
+     */
+    MappedDoubles(FileChannel channel, FileChannel.MapMode mode, long noOfValues, ByteOrder byteOrder,
+                  int segmentSize) throws IOException {
+
+        this.segmentSize = segmentSize;
+        int noOfSegments = (int) ((noOfValues + segmentSize - 1) / segmentSize);
+        this.buffers = new MappedByteBuffer[noOfSegments];
+        this.segments = new DoubleBuffer[noOfSegments];
+
+        for (int segment = 0; segment < noOfSegments; segment++) {
+            long first = (long) segment * segmentSize;
+            long length = Math.min(segmentSize, noOfValues - first);
+            buffers[segment] = channel.map(mode, first * Double.BYTES, length * Double.BYTES);
+            segments[segment] = buffers[segment].order(byteOrder).asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Reads length values from index to values[offset...].
+     */
+    void get(long index, double[] values, int offset, int length) {
+
+        while (length > 0) {
+            DoubleBuffer segment = segments[(int) (index / segmentSize)];
+            int position = (int) (index % segmentSize);
+            int part = Math.min(length, segmentSize - position);
+            ((Buffer) segment).position(position); // Buffer.position, also on Java 8.
+            segment.get(values, offset, part);
+            index += part;
+            offset += part;
+            length -= part;
+        }
+    }
+
+    /**
+     * Writes length values from values[offset...] to index.
+     */
+    void put(long index, double[] values, int offset, int length) {
+
+        while (length > 0) {
+            DoubleBuffer segment = segments[(int) (index / segmentSize)];
+            int position = (int) (index % segmentSize);
+            int part = Math.min(length, segmentSize - position);
+            ((Buffer) segment).position(position); // Buffer.position, also on Java 8.
+            segment.put(values, offset, part);
+            index += part;
+            offset += part;
+            length -= part;
+        }
+    }
+
+    /**
+     * Writes the changed values to the file (see MappedByteBuffer.force).
+     */
+    void force() {
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package se.imagick.ft.fft;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an action for all rows of a matrix as ForkJoin tasks, splitting the rows in halves until the
+ * tasks are small enough.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class ParallelRows {
+
+    /**
+     * The least number of values each task works on, smaller tasks cost more to schedule than they gain.
+     */
+    static final int MIN_VALUES_PER_TASK = 1 << 14;
+
+    private ParallelRows() {
+    }
+
+    interface RowAction {
+        void run(int fromRow, int toRow);
+    }
+
+    /**
+     * Runs the action for the rows 0 to noOfRows (exclusive) in the pool, and waits for all of them to finish.
+     *
+     * @param rowLength The number of values in each row, used to decide the size of the tasks.
+     */
+    static void forEach(ForkJoinPool pool, int noOfRows, int rowLength, RowAction action) {
+        int minRowsPerTask = Math.max(1, MIN_VALUES_PER_TASK / Math.max(1, rowLength));
+        pool.invoke(new RowTask(action, 0, noOfRows, minRowsPerTask));
+    }
+
+    private static final class RowTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RowAction action;
+        private final int fromRow;
+        private final int toRow;
+        private final int minRowsPerTask;
+
+        RowTask(RowAction action, int fromRow, int toRow, int minRowsPerTask) {
+            this.action = action;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.minRowsPerTask = minRowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (toRow - fromRow <= minRowsPerTask) {
+                action.run(fromRow, toRow);
+                return;
+            }
+
+            int middleRow = (fromRow + toRow) >>> 1;
+            invokeAll(new RowTask(action, fromRow, middleRow, minRowsPerTask),
+                    new RowTask(action, middleRow, toRow, minRowsPerTask));
+        }
+    }
+}
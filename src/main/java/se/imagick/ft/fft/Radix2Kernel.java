@@ -0,0 +1,73 @@
+package se.imagick.ft.fft;
+
+/**
+ * Radix 2 butterflies, one pass over the values for every halving of the butterfly size.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class Radix2Kernel implements FftKernel {
+
+    @Override
+    public void transform(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        TwiddleTable twiddles = plan.twiddles;
+        int sinStep = 1;
+
+        for (int butterflySize = size; butterflySize > 1; butterflySize /= 2) {
+            int butterflyHalfsize = butterflySize / 2;
+
+            for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+                for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+
+                    // Setup for this butterfly
+                    int currIndex = butterflyIndexStart + butterflyIndex;
+                    int currDoubleIndex = currIndex + butterflyHalfsize;
+
+                    double realTemp = realValues[currIndex];
+                    double imagTemp = imagValues[currIndex];
+
+                    // Additions and subtractions, dividing odd and even frequencies and down sampling.
+                    realValues[currIndex] += realValues[currDoubleIndex];
+                    realValues[currDoubleIndex] = realTemp - realValues[currDoubleIndex];
+                    imagValues[currIndex] += imagValues[currDoubleIndex];
+                    imagValues[currDoubleIndex] = imagTemp - imagValues[currDoubleIndex];
+
+                    // Multiply with a sine in form of several complex values.
+                    realTemp = realValues[currDoubleIndex];
+                    imagTemp = imagValues[currDoubleIndex];
+                    double currCos = twiddles.cos(butterflyIndex * sinStep);
+                    double currSin = twiddles.sin(butterflyIndex * sinStep);
+
+                    // Butterfly complex multiplication with half a sine curve.
+                    realValues[currDoubleIndex] = realTemp * currCos - imagTemp * currSin;
+                    imagValues[currDoubleIndex] = realTemp * currSin + imagTemp * currCos;
+                }
+            }
+
+            sinStep *= 2;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package se.imagick.ft.fft;
+
+/**
+ * Radix 4 butterflies. Two radix 2 passes (butterfly size L and L / 2) are merged into one pass over
+ * the values, working on four values (L / 4 apart) at a time:<br>
+ * <pre>
+ * y0 =  (x0 + x2) + (x1 + x3)
+ * y1 = ((x0 + x2) - (x1 + x3)) * w^2j
+ * y2 = ((x0 - x2) + i(x1 - x3)) * w^j
+ * y3 = ((x0 - x2) - i(x1 - x3)) * w^3j
+ * </pre>
+ * The turn of a quarter lap (i) is free, so four values need three complex multiplications instead of
+ * the four needed by the two radix 2 passes, and the values are only read and written half as many times.
+ * The values end up in exactly the same places as with Radix2Kernel, so the result is in decomp order.
+ * If the number of radix 2 passes is odd, the first one is done on its own.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class Radix4Kernel implements FftKernel {
+
+    @Override
+    public void transform(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        int butterflySize = size;
+
+        if (Integer.numberOfTrailingZeros(size) % 2 == 1) {
+            radix2Pass(plan, realValues, imagValues, offset);
+            butterflySize /= 2;
+        }
+
+        for (; butterflySize > 4; butterflySize /= 4) {
+            radix4Pass(plan, realValues, imagValues, offset, butterflySize);
+        }
+
+        if (butterflySize == 4) {
+            lastRadix4Pass(realValues, imagValues, offset, size);
+        }
+    }
+
+    /**
+     * The first radix 2 pass (butterfly size = size).
+     */
+    static void radix2Pass(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int butterflyHalfsize = plan.getSize() / 2;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex++) {
+            int currIndex = offset + butterflyIndex;
+            int currDoubleIndex = currIndex + butterflyHalfsize;
+
+            double realTemp = realValues[currIndex];
+            double imagTemp = imagValues[currIndex];
+            double realDiff = realTemp - realValues[currDoubleIndex];
+            double imagDiff = imagTemp - imagValues[currDoubleIndex];
+            realValues[currIndex] = realTemp + realValues[currDoubleIndex];
+            imagValues[currIndex] = imagTemp + imagValues[currDoubleIndex];
+
+            double currCos = twiddles.cos(butterflyIndex);
+            double currSin = twiddles.sin(butterflyIndex);
+            realValues[currDoubleIndex] = realDiff * currCos - imagDiff * currSin;
+            imagValues[currDoubleIndex] = realDiff * currSin + imagDiff * currCos;
+        }
+    }
+
+    static void radix4Pass(FftPlan plan, double[] realValues, double[] imagValues, int offset,
+                                   int butterflySize) {
+
+        TwiddleTable twiddles = plan.twiddles;
+        int size = plan.getSize();
+        int quarter = butterflySize / 4;
+        int sinStep = size / butterflySize;
+
+        for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex++) {
+                int index0 = butterflyIndexStart + butterflyIndex;
+                int index1 = index0 + quarter;
+                int index2 = index1 + quarter;
+                int index3 = index2 + quarter;
+
+                double real0 = realValues[index0];
+                double imag0 = imagValues[index0];
+                double real1 = realValues[index1];
+                double imag1 = imagValues[index1];
+                double real2 = realValues[index2];
+                double imag2 = imagValues[index2];
+                double real3 = realValues[index3];
+                double imag3 = imagValues[index3];
+
+                double sumReal02 = real0 + real2;
+                double sumImag02 = imag0 + imag2;
+                double sumReal13 = real1 + real3;
+                double sumImag13 = imag1 + imag3;
+                double diffReal02 = real0 - real2;
+                double diffImag02 = imag0 - imag2;
+                double diffReal13 = real1 - real3;
+                double diffImag13 = imag1 - imag3;
+
+                // The butterfly index is below a quarter of the butterfly size, so sinIndex1 is below a quarter lap.
+                int sinIndex1 = butterflyIndex * sinStep;
+                int sinIndex2 = 2 * sinIndex1;
+                int sinIndex3 = 3 * sinIndex1;
+                double cos1 = twiddles.cosOfFirstQuarter(sinIndex1);
+                double sin1 = twiddles.sinOfFirstQuarter(sinIndex1);
+                double cos2 = twiddles.cos(sinIndex2);
+                double sin2 = twiddles.sin(sinIndex2);
+                double cos3 = twiddles.cos(sinIndex3);
+                double sin3 = twiddles.sin(sinIndex3);
+
+                realValues[index0] = sumReal02 + sumReal13;
+                imagValues[index0] = sumImag02 + sumImag13;
+
+                double realTemp = sumReal02 - sumReal13;
+                double imagTemp = sumImag02 - sumImag13;
+                realValues[index1] = realTemp * cos2 - imagTemp * sin2;
+                imagValues[index1] = realTemp * sin2 + imagTemp * cos2;
+
+                // Multiplying by i turns (re, im) into (-im, re).
+                realTemp = diffReal02 - diffImag13;
+                imagTemp = diffImag02 + diffReal13;
+                realValues[index2] = realTemp * cos1 - imagTemp * sin1;
+                imagValues[index2] = realTemp * sin1 + imagTemp * cos1;
+
+                realTemp = diffReal02 + diffImag13;
+                imagTemp = diffImag02 - diffReal13;
+                realValues[index3] = realTemp * cos3 - imagTemp * sin3;
+                imagValues[index3] = realTemp * sin3 + imagTemp * cos3;
+            }
+        }
+    }
+
+    /**
+     * The last pass (butterfly size 4), where all the sines are zero and all the cosines are one.
+     */
+    static void lastRadix4Pass(double[] realValues, double[] imagValues, int offset, int size) {
+
+        for (int index0 = offset; index0 < offset + size; index0 += 4) {
+            double real0 = realValues[index0];
+            double imag0 = imagValues[index0];
+            double real1 = realValues[index0 + 1];
+            double imag1 = imagValues[index0 + 1];
+            double real2 = realValues[index0 + 2];
+            double imag2 = imagValues[index0 + 2];
+            double real3 = realValues[index0 + 3];
+            double imag3 = imagValues[index0 + 3];
+
+            double sumReal02 = real0 + real2;
+            double sumImag02 = imag0 + imag2;
+            double sumReal13 = real1 + real3;
+            double sumImag13 = imag1 + imag3;
+            double diffReal02 = real0 - real2;
+            double diffImag02 = imag0 - imag2;
+            double diffReal13 = real1 - real3;
+            double diffImag13 = imag1 - imag3;
+
+            realValues[index0] = sumReal02 + sumReal13;
+            imagValues[index0] = sumImag02 + sumImag13;
+            realValues[index0 + 1] = sumReal02 - sumReal13;
+            imagValues[index0 + 1] = sumImag02 - sumImag13;
+            realValues[index0 + 2] = diffReal02 - diffImag13;
+            imagValues[index0 + 2] = diffImag02 + diffReal13;
+            realValues[index0 + 3] = diffReal02 + diffImag13;
+            imagValues[index0 + 3] = diffImag02 - diffReal13;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package se.imagick.ft.fft;
+
+/**
+ * Streaming short time Fourier transform (STFT). Samples are added in chunks of any size, and a spectrum of
+ * the last frameSize samples is calculated every hopSize samples (Eg a frame of 2048 samples and a hop of 441
+ * gives 100 spectra per second at 44.1 kHz). This is much cheaper than a DFTSlider when a spectrum is not
+ * needed for every sample: one FftReal transform per hop instead of one update of all frequencies per sample.<br>
+ * The samples are kept in a ring buffer of frameSize samples. When a frame is due, the samples are multiplied
+ * with the window (oldest sample first) and transformed. The spectrum has the same layout and scaling as
+ * FftDif.forward, with the window divided by its mean so that the magnitude of a frequency is still its
+ * amplitude (for a frequency in the middle of a bin).<br>
+ * The spectra are handed to a FrameListener in the same two arrays every time, so nothing is allocated while
+ * streaming. An instance is not thread safe, use one per stream.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class Stft {
+
+    private final int frameSize;
+    private final int hopSize;
+    private final FftReal fft;
+    private final double[] window;
+    private final double[] ringBuffer;
+    private final double[] frame;
+    private final double[] realValues;
+    private final double[] imagValues;
+    private int writeIndex;
+    private int samplesToNextFrame;
+    private long noOfFrames;
+
+    /**
+     * Receives the spectra, see process.
+     */
+    public interface FrameListener {
+
+        /**
+         * @param frameNo The number of the frame, starting with zero. The frame holds the samples from
+         *                frameNo * hopSize to frameNo * hopSize + frameSize - 1.
+         * @param realValues The real values of the frameSize / 2 + 1 frequencies. The array is reused for the
+         *                   next frame, copy the values that should be kept.
+         * @param imagValues The imaginary values of the frequencies, reused in the same way.
+         */
+        void frame(long frameNo, double[] realValues, double[] imagValues);
+    }
+
+    /**
+     * @param frameSize The number of samples per frame (a power of two, larger than one).
+     * @param hopSize The number of samples from one frame to the next, at least 1. A hop larger than the frame
+     *                skips the samples in between.
+     * @param window The window function.
+     */
+    public Stft(int frameSize, int hopSize, Window window) {
+
+        if (hopSize < 1) {
+            throw new IllegalArgumentException("Hop size must be at least 1: " + hopSize);
+        }
+
+        this.frameSize = frameSize;
+        this.hopSize = hopSize;
+        this.fft = new FftReal(frameSize, FftKernels.getFastest());
+        this.window = window.getCoefficients(frameSize);
+        this.ringBuffer = new double[frameSize];
+        this.frame = new double[frameSize];
+        this.realValues = new double[frameSize / 2 + 1];
+        this.imagValues = new double[frameSize / 2 + 1];
+
+        double sum = 0d;
+
+        for (double coefficient : this.window) {
+            sum += coefficient;
+        }
+
+        double scale = frameSize / sum;
+
+        for (int i = 0; i < frameSize; i++) {
+            this.window[i] *= scale;
+        }
+
+        reset();
+    }
+
+    /**
+     * Creates a transform where the frames overlap by the specified part of the frame.
+     *
+     * @param frameSize The number of samples per frame (a power of two, larger than one).
+     * @param overlap The part of a frame that overlaps the next frame, from 0 (inclusive) to 1 (exclusive).
+     *                Eg 0.5 for a hop of half a frame.
+     * @param window The window function.
+     * @return The transform, with a hop of frameSize * (1 - overlap) samples (rounded, at least 1).
+     */
+    public static Stft withOverlap(int frameSize, double overlap, Window window) {
+
+        if (!(overlap >= 0d && overlap < 1d)) {
+            throw new IllegalArgumentException("Overlap must be from 0 to 1 (exclusive): " + overlap);
+        }
+
+        int hopSize = (int) Math.max(1L, Math.round(frameSize * (1d - overlap)));
+        return new Stft(frameSize, hopSize, window);
+    }
+
+    /**
+     * Adds samples to the stream, calling the listener for each frame that is completed.
+     *
+     * @param samples The samples.
+     * @param offset The index of the first sample.
+     * @param length The number of samples, any number.
+     * @param listener Receives the spectra of the completed frames, in order.
+     * @return The number of frames completed.
+     */
+    public int process(double[] samples, int offset, int length, FrameListener listener) {
+
+        FftDif.checkRange(samples, offset, length);
+        int frames = 0;
+
+        while (length > 0) {
+            int part = Math.min(length, Math.min(samplesToNextFrame, frameSize - writeIndex));
+            System.arraycopy(samples, offset, ringBuffer, writeIndex, part);
+            writeIndex = (writeIndex + part) % frameSize;
+            samplesToNextFrame -= part;
+            offset += part;
+            length -= part;
+
+            if (samplesToNextFrame == 0) {
+                transformFrame();
+                listener.frame(noOfFrames++, realValues, imagValues);
+                samplesToNextFrame = hopSize;
+                frames++;
+            }
+        }
+
+        return frames;
+    }
+
+    /**
+     * Same as process(samples, 0, samples.length, listener).
+     */
+    public int process(double[] samples, FrameListener listener) {
+        return process(samples, 0, samples.length, listener);
+    }
+
+    /**
+     * Empties the ring buffer, the next frame is completed after frameSize samples.
+     */
+    public void reset() {
+        writeIndex = 0;
+        samplesToNextFrame = frameSize;
+        noOfFrames = 0;
+    }
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    /**
+     * @return The number of frames completed since the transform was created or reset.
+     */
+    public long getNoOfFrames() {
+        return noOfFrames;
+    }
+
+    private void transformFrame() {
+
+        // The oldest sample is at the write index.
+        int firstPart = frameSize - writeIndex;
+
+        for (int i = 0; i < firstPart; i++) {
+            frame[i] = ringBuffer[writeIndex + i] * window[i];
+        }
+
+        for (int i = firstPart; i < frameSize; i++) {
+            frame[i] = ringBuffer[i - firstPart] * window[i];
+        }
+
+        fft.forward(frame, 0, realValues, imagValues, 0);
+    }
+}
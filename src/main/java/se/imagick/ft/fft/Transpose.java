@@ -0,0 +1,65 @@
+package se.imagick.ft.fft;
+
+/**
+ * Blocked transpose of complex matrices stored row by row. Going through the matrix one
+ * square block at a time keeps both the rows that are read and the rows that are written in the cache.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class Transpose {
+
+    static final int BLOCK_SIZE = 32;
+
+    private Transpose() {
+    }
+
+    /**
+     * Transposes the columns fromColumn to toColumn (exclusive) of the source matrix into the rows with the
+     * same numbers of the destination matrix. The source and destination must not overlap.
+     *
+     * @param noOfRows The number of rows of the source (columns of the destination).
+     * @param noOfColumns The number of columns of the source (rows of the destination).
+     */
+    static void transpose(double[] srcReal, double[] srcImag, int srcOffset, int noOfRows, int noOfColumns,
+                          double[] dstReal, double[] dstImag, int dstOffset, int fromColumn, int toColumn) {
+
+        for (int rowBlock = 0; rowBlock < noOfRows; rowBlock += BLOCK_SIZE) {
+            int rowBlockEnd = Math.min(rowBlock + BLOCK_SIZE, noOfRows);
+
+            for (int columnBlock = fromColumn; columnBlock < toColumn; columnBlock += BLOCK_SIZE) {
+                int columnBlockEnd = Math.min(columnBlock + BLOCK_SIZE, toColumn);
+
+                for (int row = rowBlock; row < rowBlockEnd; row++) {
+                    int srcIndex = srcOffset + row * noOfColumns;
+                    int dstIndex = dstOffset + row;
+
+                    for (int column = columnBlock; column < columnBlockEnd; column++) {
+                        dstReal[dstIndex + column * noOfRows] = srcReal[srcIndex + column];
+                        dstImag[dstIndex + column * noOfRows] = srcImag[srcIndex + column];
+                    }
+                }
+            }
+        }
+    }
+}
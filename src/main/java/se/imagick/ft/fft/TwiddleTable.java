@@ -0,0 +1,138 @@
+package se.imagick.ft.fft;
+
+/**
+ * The sine and cosine values of a whole lap, divided in size steps, stored as one quarter of a sine lap.
+ * All the other values are the same quarter mirrored and/or negated:<br>
+ * <pre>
+ * index       sin                      cos
+ * 0 - q       q[i]                     q[q - i]
+ * q - 2q      q[2q - i]               -q[i - q]
+ * 2q - 3q    -q[i - 2q]               -q[3q - i]
+ * 3q - 4q    -q[4q - i]                q[i - 3q]
+ * </pre>
+ * That is size / 4 + 1 values instead of the size values of a half lap of sines and a half lap of cosines,
+ * a quarter of the memory, which also leaves more of the cache to the values being transformed.
+ * The values near a quarter lap are calculated as cosines of small angles, so they are at least as
+ * precise as calculating them directly.<br>
+ * This only holds for the scalar kernels. The vector kernels load the twiddles of a pass as vectors, so they copy
+ * them into tables of their own (see FftPlan.getPassTwiddles), about two doubles per value (three for an odd number
+ * of radix 2 passes). With the vector kernel a plan is therefore about 3.6 times as large as with the scalar kernels.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class TwiddleTable {
+
+    private final int quarter;
+    private final int half;
+    private final int threeQuarters;
+    private final double[] values;
+
+    /**
+     * @param size The number of steps of a lap (a power of two). Sizes below 4 only have index 0.
+     */
+    TwiddleTable(int size) {
+
+        // Sizes below 4 have no whole quarter, the index 0 (the only one used) is the same for a lap of 4.
+        int lap = Math.max(size, 4);
+        this.quarter = lap / 4;
+        this.half = 2 * quarter;
+        this.threeQuarters = 3 * quarter;
+        this.values = new double[quarter + 1];
+
+        for (int i = 0; i <= quarter; i++) {
+            values[i] = (2 * i <= quarter)
+                    ? Math.sin(2 * Math.PI * i / lap)
+                    : Math.cos(2 * Math.PI * (quarter - i) / lap);
+        }
+    }
+
+    /**
+     * @param index The step of the lap, from 0 to size - 1.
+     * @return The sine of 2 * pi * index / size.
+     */
+    double sin(int index) {
+
+        if (index <= quarter) {
+            return values[index];
+        }
+
+        if (index <= half) {
+            return values[half - index];
+        }
+
+        if (index <= threeQuarters) {
+            return -values[index - half];
+        }
+
+        return -values[4 * quarter - index];
+    }
+
+    /**
+     * @param index The step of the lap, from 0 to size - 1.
+     * @return The cosine of 2 * pi * index / size.
+     */
+    double cos(int index) {
+
+        if (index <= quarter) {
+            return values[quarter - index];
+        }
+
+        if (index <= half) {
+            return -values[index - quarter];
+        }
+
+        if (index <= threeQuarters) {
+            return -values[threeQuarters - index];
+        }
+
+        return values[index - threeQuarters];
+    }
+
+    /**
+     * Same as sin, without finding the quarter (for the inner loops where the index is known).
+     *
+     * @param index The step of the lap, from 0 to size / 4.
+     * @return The sine of 2 * pi * index / size.
+     */
+    double sinOfFirstQuarter(int index) {
+        return values[index];
+    }
+
+    /**
+     * Same as cos, without finding the quarter (for the inner loops where the index is known).
+     *
+     * @param index The step of the lap, from 0 to size / 4.
+     * @return The cosine of 2 * pi * index / size.
+     */
+    double cosOfFirstQuarter(int index) {
+        return values[quarter - index];
+    }
+
+    /**
+     * @return The approximate number of bytes held by the table.
+     */
+    long getMemoryUsage() {
+        return 8L * values.length;
+    }
+}
@@ -0,0 +1,77 @@
+package se.imagick.ft.fft;
+
+/**
+ * Window functions for short time transforms (see Stft). The coefficients are periodic (the window of size N
+ * is the first N values of the symmetric window of size N + 1), which is the form that adds up to a constant
+ * when the windows overlap by the right amount (Eg Hann with a hop of half or a quarter of the size).<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public enum Window {
+
+    /**
+     * All ones (no window).
+     */
+    RECTANGULAR(1d, 0d, 0d),
+
+    /**
+     * 0.5 - 0.5 cos(2 pi n / N). Sums to a constant with a hop of N / 2 or N / 4.
+     */
+    HANN(0.5d, 0.5d, 0d),
+
+    /**
+     * 0.54 - 0.46 cos(2 pi n / N). Lower first side lobe than Hann, but the side lobes fall off slower.
+     */
+    HAMMING(0.54d, 0.46d, 0d),
+
+    /**
+     * 0.42 - 0.5 cos(2 pi n / N) + 0.08 cos(4 pi n / N). Low side lobes, wide main lobe.
+     */
+    BLACKMAN(0.42d, 0.5d, 0.08d);
+
+    private final double a0;
+    private final double a1;
+    private final double a2;
+
+    Window(double a0, double a1, double a2) {
+        this.a0 = a0;
+        this.a1 = a1;
+        this.a2 = a2;
+    }
+
+    /**
+     * @param size The number of coefficients.
+     * @return The coefficients of a window of the size.
+     */
+    public double[] getCoefficients(int size) {
+        double[] coefficients = new double[size];
+
+        for (int n = 0; n < size; n++) {
+            double angle = 2d * Math.PI * n / size;
+            coefficients[n] = a0 - a1 * Math.cos(angle) + a2 * Math.cos(2d * angle);
+        }
+
+        return coefficients;
+    }
+}
@@ -53,6 +53,23 @@ public interface DFTSlider {
      */
     double slide(double value);
 
+    /**
+     * Slides a block of samples, with the same result as len calls to slide (apart from rounding).
+     * This default slides the samples one by one, the implementations override it with a faster
+     * calculation of the whole block.
+     *
+     * @param samples The values that are to be slid in to the buffer, in order.
+     * @param off The index of the first sample.
+     * @param len The number of samples.
+     * @param realSumOut Receives the value slide would return for each sample, at the same index
+     *                   as the sample. May be the same array as samples (filtering in place).
+     */
+    default void slide(double[] samples, int off, int len, double[] realSumOut){
+        for(int i = off; i < off + len; i++){
+            realSumOut[i] = slide(samples[i]);
+        }
+    }
+
     /**
      * Retrieves the number of frequency components (including the added dc component).
      * @return The number of frequencies that the the slider got initiated with plus one
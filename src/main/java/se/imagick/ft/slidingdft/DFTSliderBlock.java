@@ -0,0 +1,135 @@
+package se.imagick.ft.slidingdft;
+
+import se.imagick.ft.fft.ComplexFft;
+import se.imagick.ft.fft.FftPlans;
+
+import java.util.Arrays;
+
+/**
+ * Slides a block of samples into the components of a slider with two transforms, instead of
+ * updating all components for each sample.<br>
+ * <br>
+ * The value pushed out by each slide is the real sum of the components. A sample slid in does not
+ * show in the real sum until a whole period later (its turns over all frequencies add up to zero until then),
+ * so the real sums of the next period minus one slides only depend on the current components:
+ * the real part of the components turned 1, 2, 3... steps, which is the inverse transform of the components.
+ * With the real sums known, the changes of the block (sample - real sum pushed out) are known, and what
+ * they add to each component (each change turned the remaining number of steps) is the forward transform
+ * of the changes. Finally the components are turned one step for each sample in the block.<br>
+ * <br>
+ * A block of len samples costs two transforms of getLatencyInSamples() values instead of len times the
+ * number of components, which pays off from a few tens of samples (see MIN_LENGTH). The result is the same
+ * as sliding the samples one by one, apart from rounding.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class DFTSliderBlock {
+
+    /**
+     * Shorter blocks are faster to slide one sample at a time.
+     */
+    static final int MIN_LENGTH = 64;
+
+    private final ComplexFft fft;
+    private final double[] realValues;
+    private final double[] imagValues;
+    private final double[] scratchReal;
+    private final double[] scratchImag;
+    private final double turnBase;
+    private final int noofSamples;
+    private final int noofComplex;
+
+    DFTSliderBlock(int noofFrequencies){
+        this.noofSamples = noofFrequencies * 2;
+        this.noofComplex = noofFrequencies + 1;
+        this.turnBase = Math.PI / noofFrequencies;
+        this.fft = FftPlans.getComplexFft(noofSamples);
+        this.realValues = new double[noofSamples];
+        this.imagValues = new double[noofSamples];
+        this.scratchReal = (fft.getScratchSize() > 0)?new double[fft.getScratchSize()]:null;
+        this.scratchImag = (fft.getScratchSize() > 0)?new double[fft.getScratchSize()]:null;
+    }
+
+    /**
+     * @return The longest block that can be slid at once, a period minus one sample.
+     */
+    int getMaxLength(){
+        return noofSamples - 1;
+    }
+
+    /**
+     * Slides a block of samples into the components.
+     * @param real The real part of the components (noofFrequencies + 1), updated.
+     * @param imag The imaginary part of the components, updated.
+     * @param realSum The real sum before the block (the value pushed out by the first slide).
+     * @param samples The samples to slide in.
+     * @param off The index of the first sample.
+     * @param len The number of samples, at most getMaxLength().
+     * @param realSumOut Receives the real sum after each slide, may be the same array as samples.
+     * @return The real sum after the last slide.
+     */
+    double slide(double[] real, double[] imag, double realSum, double[] samples, int off, int len, double[] realSumOut){
+        // The real sums, index j is the real sum after j slides.
+        System.arraycopy(real, 0, realValues, 0, noofComplex);
+        System.arraycopy(imag, 0, imagValues, 0, noofComplex);
+        Arrays.fill(realValues, noofComplex, noofSamples, 0d);
+        Arrays.fill(imagValues, noofComplex, noofSamples, 0d);
+        fft.inverseComplex(realValues, imagValues, 0, scratchReal, scratchImag);
+
+        // The changes replace the real sums, each real sum is used before it is replaced.
+        double outValue = realSum;
+
+        for(int j = 0; j < len; j++){
+            double nextRealSum = realValues[j + 1];
+            realValues[j] = samples[off + j] - outValue;
+            realSumOut[off + j] = nextRealSum;
+            outValue = nextRealSum;
+        }
+
+        Arrays.fill(realValues, len, noofSamples, 0d);
+        Arrays.fill(imagValues, 0d);
+        fft.forwardComplex(realValues, imagValues, 0, scratchReal, scratchImag);
+
+        // The forward transform is scaled by 1 / noofSamples and turns the changes back to the
+        // start of the block, from where the sum of the components and the changes are turned len steps.
+        // Component i turns i times as far as component 1, so the turns are stepped up from component 1.
+        double stepReal = Math.cos(turnBase * len);
+        double stepImag = Math.sin(turnBase * len);
+        double twReal = 1d;
+        double twImag = 0d;
+
+        for(int i = 0; i < noofComplex; i++){
+            double multi = (i == 0 || i == noofComplex - 1)?1d:2d; // See DFT-principles for first and last frequency.
+            double realVal = real[i] + realValues[i] * multi;
+            double imagVal = imag[i] + imagValues[i] * multi;
+            real[i] = realVal * twReal - imagVal * twImag;
+            imag[i] = realVal * twImag + imagVal * twReal;
+            double nextReal = twReal * stepReal - twImag * stepImag;
+            twImag = twReal * stepImag + twImag * stepReal;
+            twReal = nextReal;
+        }
+
+        return outValue;
+    }
+}
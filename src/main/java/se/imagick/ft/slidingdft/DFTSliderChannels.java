@@ -0,0 +1,307 @@
+package se.imagick.ft.slidingdft;
+
+import se.imagick.ft.common.Complex;
+import se.imagick.ft.common.FTUtils;
+import se.imagick.ft.common.Polar;
+
+/**
+ * Sliders for many channels in shared arrays, used by DFTSliderFilter for channel interleaved mode.
+ * The values of a frequency component are stored next to each other for all channels
+ * (one array per component, indexed by channel), so a slide updates one component of all channels
+ * in a single loop over contiguous values, that the JIT can vectorize.<br>
+ * <br>
+ * The components are turned with a complex multiplication by a twiddle factor and renormalized once
+ * per period, and magnitude and phase are only calculated when asked for, as in DFTSliderPhasorImpl.
+ * Each channel gives the same values as a DFTSliderPhasorImpl (apart from rounding). The channels can be reached one at a time as DFTSliders through getChannels.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class DFTSliderChannels {
+
+    private final double[][] real;
+    private final double[][] imag;
+    private final double[][] magni;
+    private final double[][] phase;
+    private final long[][] polarSlideNo;
+    private final double[] multi;
+    private final double[] twiddleReal;
+    private final double[] twiddleImag;
+    private final double[] correctionReal;
+    private final double[] correctionImag;
+    private final double[] realSum;
+    private final double[] newValues;
+    private final int[] periodPosition;
+    private final long[] slideNo;
+    private final int noofSamples;
+    private final int noofComplex;
+    private final int noofChannels;
+    private final DFTSlider[] channels;
+
+    DFTSliderChannels(int noofFrequencies, int noofChannels){
+        double turnBase = Math.PI / noofFrequencies;
+        this.noofSamples = noofFrequencies * 2;
+        this.noofComplex = noofFrequencies + 1; // +1 = dc, see DFT-principles.
+        this.noofChannels = noofChannels;
+        this.real = new double[noofComplex][noofChannels];
+        this.imag = new double[noofComplex][noofChannels];
+        this.magni = new double[noofComplex][noofChannels];
+        this.phase = new double[noofComplex][noofChannels];
+        this.polarSlideNo = new long[noofComplex][noofChannels];
+        this.multi = new double[noofComplex];
+        this.twiddleReal = new double[noofComplex];
+        this.twiddleImag = new double[noofComplex];
+        this.correctionReal = new double[noofComplex];
+        this.correctionImag = new double[noofComplex];
+        this.realSum = new double[noofChannels];
+        this.newValues = new double[noofChannels];
+        this.periodPosition = new int[noofChannels];
+        this.slideNo = new long[noofChannels];
+        this.channels = new DFTSlider[noofChannels];
+
+        for(int i = 0; i < noofComplex; i++){
+            twiddleReal[i] = Math.cos(i * turnBase);
+            twiddleImag[i] = Math.sin(i * turnBase);
+            multi[i] = (i == 0 || i == noofComplex - 1)?1:2; // See DFT-principles for first and last frequency.
+            double[] correction = DFTSliderPhasorImpl.calculateCorrection(twiddleReal[i], twiddleImag[i], noofSamples);
+            correctionReal[i] = correction[0];
+            correctionImag[i] = correction[1];
+        }
+
+        for(int channel = 0; channel < noofChannels; channel++){
+            channels[channel] = new Channel(channel);
+        }
+    }
+
+    /**
+     * Slides in one sample for all channels.
+     * @param sample One value per channel, replaced by the real sum of the channel (as returned by DFTSlider.slide).
+     */
+    void slide(double[] sample){
+        slide(sample, 0, noofChannels);
+    }
+
+    /**
+     * Slides in one sample for a range of channels. Channels outside the range are not touched,
+     * so separate ranges can be slid by different threads at the same time.
+     * @param sample One value per channel, replaced by the real sum of the channel (as returned by DFTSlider.slide).
+     * @param fromChannel The first channel (inclusive).
+     * @param toChannel The last channel (exclusive).
+     */
+    void slide(double[] sample, int fromChannel, int toChannel){
+        for(int channel = fromChannel; channel < toChannel; channel++){
+            newValues[channel] = (sample[channel] - realSum[channel]) / noofSamples;
+            realSum[channel] = 0d;
+        }
+
+        slideComponents(fromChannel, toChannel);
+
+        for(int channel = fromChannel; channel < toChannel; channel++){
+            sample[channel] = realSum[channel];
+        }
+    }
+
+    /**
+     * Slides in a block of samples for a range of channels, with the same result as sliding them one by one.
+     * @param samples One array per channel, the values at off to off + len are replaced by the real sums
+     *                (as returned by DFTSlider.slide).
+     * @param off The index of the first sample.
+     * @param len The number of samples.
+     * @param fromChannel The first channel (inclusive).
+     * @param toChannel The last channel (exclusive).
+     */
+    void slide(double[][] samples, int off, int len, int fromChannel, int toChannel){
+        for(int i = off; i < off + len; i++){
+            for(int channel = fromChannel; channel < toChannel; channel++){
+                newValues[channel] = (samples[channel][i] - realSum[channel]) / noofSamples;
+                realSum[channel] = 0d;
+            }
+
+            slideComponents(fromChannel, toChannel);
+
+            for(int channel = fromChannel; channel < toChannel; channel++){
+                samples[channel][i] = realSum[channel];
+            }
+        }
+    }
+
+    private void slideComponents(int fromChannel, int toChannel){
+        for(int i = 0; i < noofComplex; i++){
+            slideComponent(real[i], imag[i], multi[i], twiddleReal[i], twiddleImag[i], fromChannel, toChannel);
+        }
+
+        for(int channel = fromChannel; channel < toChannel; channel++){
+            slideNo[channel]++;
+
+            if(++periodPosition[channel] == noofSamples){
+                renormalize(channel);
+            }
+        }
+    }
+
+    /**
+     * Slides one frequency component of a range of channels. All arrays are indexed by channel only, which the JIT
+     * needs to vectorize the loop (one array with an offset per component is not vectorized).
+     */
+    private void slideComponent(double[] real, double[] imag, double mul, double twReal, double twImag, int fromChannel, int toChannel){
+        for(int channel = fromChannel; channel < toChannel; channel++){
+            double realVal = real[channel] + newValues[channel] * mul;
+            double imagVal = imag[channel];
+            double turnedReal = realVal * twReal - imagVal * twImag;
+            real[channel] = turnedReal;
+            imag[channel] = realVal * twImag + imagVal * twReal;
+            realSum[channel] += turnedReal;
+        }
+    }
+
+    /**
+     * @return One slider per channel, working on the shared arrays.
+     */
+    DFTSlider[] getChannels(){
+        return channels;
+    }
+
+    private double slide(int channel, double inValue){
+        double newVal = (inValue - realSum[channel]) / noofSamples;
+        double sum = 0d;
+
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i][channel] + newVal * multi[i];
+            double imagVal = imag[i][channel];
+            double turnedReal = realVal * twiddleReal[i] - imagVal * twiddleImag[i];
+            real[i][channel] = turnedReal;
+            imag[i][channel] = realVal * twiddleImag[i] + imagVal * twiddleReal[i];
+            sum += turnedReal;
+        }
+
+        realSum[channel] = sum;
+        slideNo[channel]++;
+
+        if(++periodPosition[channel] == noofSamples){
+            renormalize(channel);
+        }
+
+        return realSum[channel];
+    }
+
+    private void renormalize(int channel){
+        double sum = 0d;
+        periodPosition[channel] = 0;
+
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i][channel];
+            double imagVal = imag[i][channel];
+            real[i][channel] = realVal * correctionReal[i] - imagVal * correctionImag[i];
+            imag[i][channel] = realVal * correctionImag[i] + imagVal * correctionReal[i];
+            sum += real[i][channel];
+        }
+
+        realSum[channel] = sum;
+    }
+
+    /**
+     * One channel of the shared arrays.
+     */
+    private final class Channel implements DFTSlider{
+
+        private final int channel;
+        private final Complex copyComplex = new Complex();
+        private final Polar copyPolar = new Polar();
+
+        Channel(int channel){
+            this.channel = channel;
+        }
+
+        @Override
+        public double slide(double value){
+            return DFTSliderChannels.this.slide(channel, value);
+        }
+
+        @Override
+        public int getNoOfFrequencies(){
+            return noofComplex;
+        }
+
+        @Override
+        public int getLatencyInSamples(){
+            return noofSamples;
+        }
+
+        @Override
+        public double getRealSum(boolean willRecalculate){
+            if(willRecalculate){
+                double sum = 0d;
+
+                for(int i = 0; i < noofComplex; i++){
+                    sum += real[i][channel];
+                }
+
+                realSum[channel] = sum;
+            }
+
+            return realSum[channel];
+        }
+
+        @Override
+        public Complex getComplex(int componentNo){
+            copyComplex.setReal(real[componentNo][channel]);
+            copyComplex.setImaginary(imag[componentNo][channel]);
+
+            return copyComplex;
+        }
+
+        @Override
+        public void setComplex(int componentNo, Complex complex){
+            real[componentNo][channel] = complex.getReal();
+            imag[componentNo][channel] = complex.getImaginary();
+            polarSlideNo[componentNo][channel] = slideNo[channel] - 1; // The polar values are now outdated.
+        }
+
+        @Override
+        public Polar getPolar(int componentNo){
+
+            if(polarSlideNo[componentNo][channel] != slideNo[channel]){
+                double realVal = real[componentNo][channel];
+                double imagVal = imag[componentNo][channel];
+                magni[componentNo][channel] = Math.sqrt(realVal * realVal + imagVal * imagVal);
+                phase[componentNo][channel] = Math.atan2(imagVal, realVal);
+                polarSlideNo[componentNo][channel] = slideNo[channel];
+            }
+
+            copyPolar.setMagnitude(magni[componentNo][channel]);
+            copyPolar.setPhase(phase[componentNo][channel]);
+
+            return copyPolar;
+        }
+
+        @Override
+        public void setPolar(int componentNo, Polar polar){
+            magni[componentNo][channel] = polar.getMagnitude();
+            phase[componentNo][channel] = polar.getPhase();
+            polarSlideNo[componentNo][channel] = slideNo[channel];
+            FTUtils.polar2Complex(polar, copyComplex);
+            real[componentNo][channel] = copyComplex.getReal();
+            imag[componentNo][channel] = copyComplex.getImaginary();
+        }
+    }
+}
@@ -9,6 +9,11 @@ import se.imagick.ft.common.Polar;
  * Slightly, slightly faster but harder to understand.
  * Only positive frequencies are calculated.<br>
  * <br>
+ * In lazy polar mode the components are turned with a complex multiplication by a twiddle factor
+ * (renormalized once per period, as in DFTSliderPhasorImpl) instead of going through polar form, and
+ * magnitude and phase are only calculated for the components asked for (getPolar or getPolars),
+ * once per slide. The phase is then from -PI to PI.<br>
+ * <br>
  * ---------------------<br>
  * The MIT License (MIT)<br>
  * <br>
@@ -46,6 +51,15 @@ public class DFTSliderCompactImpl implements DFTSlider{
     private final double noofComplex;
     private final Complex copyComplex;
     private final Polar copyPolar;
+    private final boolean isLazyPolar;
+    private final long[] polarSlideNo;
+    private final double[] twiddleReal;
+    private final double[] twiddleImag;
+    private final double[] correctionReal;
+    private final double[] correctionImag;
+    private DFTSliderBlock block;
+    private long slideNo;
+    private int periodPosition;
 
     /**
      * Creates a new instance that will reuse Complex and Polar instances
@@ -64,6 +78,18 @@ public class DFTSliderCompactImpl implements DFTSlider{
      * in getters and setters will be resued (to reduce need for garbage collection).
      */
     public DFTSliderCompactImpl(int noofFrequencies, boolean isReusing){
+        this(noofFrequencies, isReusing, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param noofFrequencies Number och frequencies used.
+     * @param isReusing If true, Complex and Polar instances
+     * in getters and setters will be resued (to reduce need for garbage collection).
+     * @param isLazyPolar If true, magnitude and phase are only calculated when asked for.
+     */
+    public DFTSliderCompactImpl(int noofFrequencies, boolean isReusing, boolean isLazyPolar){
 
         double turnBase = Math.PI * 2d / noofFrequencies;
         this.realSum = 0d;
@@ -78,14 +104,33 @@ public class DFTSliderCompactImpl implements DFTSlider{
         this.isReusing = isReusing;
         this.copyComplex = new Complex();
         this.copyPolar = new Polar();
+        this.isLazyPolar = isLazyPolar;
+        // Only needed in lazy polar mode.
+        this.polarSlideNo = (isLazyPolar)?new long[(int)this.noofComplex]:null;
+        this.twiddleReal = (isLazyPolar)?new double[(int)this.noofComplex]:null;
+        this.twiddleImag = (isLazyPolar)?new double[(int)this.noofComplex]:null;
+        this.correctionReal = (isLazyPolar)?new double[(int)this.noofComplex]:null;
+        this.correctionImag = (isLazyPolar)?new double[(int)this.noofComplex]:null;
 
         for(int i = 0; i < this.noofComplex; i++){
             turn[i] = i * turnBase / 2d;
             multi[i] = (i == 0 || i == noofComplex - 1)?1:2; // See DFT-principles for first and last frequency.
+
+            if(isLazyPolar){
+                twiddleReal[i] = Math.cos(turn[i]);
+                twiddleImag[i] = Math.sin(turn[i]);
+                double[] correction = DFTSliderPhasorImpl.calculateCorrection(twiddleReal[i], twiddleImag[i], (int)noofSamples);
+                correctionReal[i] = correction[0];
+                correctionImag[i] = correction[1];
+            }
         }
     }
 
     public double slide(double inValue){
+        if(isLazyPolar){
+            return slideLazy(inValue);
+        }
+
         double newVal = (inValue - this.realSum) / this.noofSamples;
         this.realSum = 0d;
 
@@ -105,6 +150,61 @@ public class DFTSliderCompactImpl implements DFTSlider{
         return realSum;
     }
 
+    private double slideLazy(double inValue){
+        double newVal = (inValue - this.realSum) / this.noofSamples;
+        double realSum = 0d;
+
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i] + newVal * multi[i];
+            double imagVal = imag[i];
+            double turnedReal = realVal * twiddleReal[i] - imagVal * twiddleImag[i];
+            real[i] = turnedReal;
+            imag[i] = realVal * twiddleImag[i] + imagVal * twiddleReal[i];
+            realSum += turnedReal;
+        }
+
+        this.slideNo++;
+        this.realSum = realSum;
+
+        if(++periodPosition == noofSamples){
+            periodPosition = 0;
+
+            for(int i = 0; i < noofComplex; i++){
+                double realVal = real[i];
+                double imagVal = imag[i];
+                real[i] = realVal * correctionReal[i] - imagVal * correctionImag[i];
+                imag[i] = realVal * correctionImag[i] + imagVal * correctionReal[i];
+            }
+
+            getRealSum(true);
+        }
+
+        return this.realSum;
+    }
+
+    /**
+     * Slides the block with two transforms per period (see DFTSliderBlock), instead of the
+     * polar turns of all components for each sample. The last sample goes through slide(double)
+     * to get the same polar values.
+     */
+    @Override
+    public void slide(double[] samples, int off, int len, double[] realSumOut){
+        int done = 0;
+
+        for(int blockLen; (blockLen = Math.min(len - 1 - done, (int)noofSamples - 1)) >= DFTSliderBlock.MIN_LENGTH; done += blockLen){
+            if(block == null){
+                block = new DFTSliderBlock((int)noofComplex - 1);
+            }
+
+            realSum = block.slide(real, imag, realSum, samples, off + done, blockLen, realSumOut);
+            slideNo += blockLen;
+        }
+
+        for(; done < len; done++){
+            realSumOut[off + done] = slide(samples[off + done]);
+        }
+    }
+
     @Override
     public int getNoOfFrequencies() {
         return (int)this.noofComplex;
@@ -141,6 +241,12 @@ public class DFTSliderCompactImpl implements DFTSlider{
     public void setComplex(int componentNo, Complex complex) {
         real[componentNo] = complex.getReal();
         imag[componentNo] = complex.getImaginary();
+
+        if(isLazyPolar){
+            polarSlideNo[componentNo] = slideNo - 1; // The polar values are now outdated.
+            return;
+        }
+
         FTUtils.complex2Polar(complex, copyPolar);
         magni[componentNo] = copyPolar.getMagnitude();
         phase[componentNo] = copyPolar.getPhase();
@@ -148,6 +254,7 @@ public class DFTSliderCompactImpl implements DFTSlider{
 
     @Override
     public Polar getPolar(int componentNo) {
+        updatePolar(componentNo);
         Polar polar = (isReusing)?copyPolar:new Polar();
         polar.setMagnitude(magni[componentNo]);
         polar.setPhase(phase[componentNo]);
@@ -159,9 +266,41 @@ public class DFTSliderCompactImpl implements DFTSlider{
     public void setPolar(int componentNo, Polar polar) {
         magni[componentNo] = polar.getMagnitude();
         phase[componentNo] = polar.getPhase();
+
+        if(isLazyPolar){
+            polarSlideNo[componentNo] = slideNo;
+        }
+
         FTUtils.polar2Complex(polar, copyComplex);
         real[componentNo] = copyComplex.getReal();
         imag[componentNo] = copyComplex.getImaginary();
 
     }
+
+    /**
+     * Copies the magnitude and phase of all frequency components (getNoOfFrequencies() values).
+     * @param magnitudes Receives the magnitudes.
+     * @param phases Receives the phases.
+     */
+    public void getPolars(double[] magnitudes, double[] phases) {
+        for(int i = 0; i < noofComplex; i++){
+            updatePolar(i);
+        }
+
+        System.arraycopy(magni, 0, magnitudes, 0, (int)noofComplex);
+        System.arraycopy(phase, 0, phases, 0, (int)noofComplex);
+    }
+
+    /**
+     * Calculates magnitude and phase of a component (lazy polar mode) if it has changed since they were last calculated.
+     */
+    private void updatePolar(int componentNo) {
+        if(isLazyPolar && polarSlideNo[componentNo] != slideNo) {
+            double realVal = real[componentNo];
+            double imagVal = imag[componentNo];
+            magni[componentNo] = Math.sqrt(realVal * realVal + imagVal * imagVal);
+            phase[componentNo] = Math.atan2(imagVal, realVal);
+            polarSlideNo[componentNo] = slideNo;
+        }
+    }
 }
@@ -1,9 +1,28 @@
 package se.imagick.ft.slidingdft;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
 /**
  * Entry point for calculating multi channel sliding DFT.
  * For details about single channel Sliding DFT see DFTSliderImpl.<br>
  * <br>
+ * For many channels (EG 64 and up), use the channel interleaved mode. All channels are then kept
+ * in shared arrays (see DFTSliderChannels) and each frequency component is updated for all channels
+ * in one loop, instead of one DFTSliderImpl per channel.<br>
+ * <br>
+ * For very many channels (EG 1000 and up), an ExecutorService (a ForkJoinPool or a pool of pinned worker threads)
+ * can be given, and the channels are then split in fixed ranges that are slid in parallel. Each channel is always
+ * slid by one task in the same way, so the output is the same as when sliding on the calling thread.
+ * Use slide(double[][], int, int) to slide a block of samples per task, so the threads are only
+ * synchronized once per block instead of once per sample.<br>
+ * <br>
  * ---------------------<br>
  * The MIT License (MIT)<br>
  * <br>
@@ -29,35 +48,195 @@ package se.imagick.ft.slidingdft;
  */
 public class DFTSliderFilter{
 
+    private static final int MIN_CHANNELS_PER_TASK = 64;
+
     private final DFTSlider[] channelSliders;
+    private final DFTSliderChannels interleavedChannels;
+    private final ExecutorService executor;
+    private final int[] taskChannels;
+    private final List<Callable<Void>> tasks;
+
+    // The samples the tasks slide, set for each call.
+    private double[] taskSample;
+    private double[][] taskSamples;
+    private int taskOff;
+    private int taskLen;
 
-    private final double noofChannels;
     /**
      * @param noofFrequencies How many frequency components to use. One extra will added automatically for the
      *                        dc-component.
      * @param noofChannels The number of channels (2 for a stereo signal).
      */
     public DFTSliderFilter(int noofFrequencies, int noofChannels){
-        this.noofChannels = (double)noofChannels;
-        this.channelSliders = new DFTSlider[noofChannels];
+        this(noofFrequencies, noofChannels, false);
+    }
 
-        for(int i = 0; i < channelSliders.length; i++){
-            channelSliders[i] = new DFTSliderImpl(noofFrequencies);
+    /**
+     * @param noofFrequencies How many frequency components to use. One extra will added automatically for the
+     *                        dc-component.
+     * @param noofChannels The number of channels (2 for a stereo signal).
+     * @param isChannelInterleaved If true, the channels are kept in shared arrays and updated together
+     *                             (faster for many channels). The channel sliders are then views of the shared arrays.
+     */
+    public DFTSliderFilter(int noofFrequencies, int noofChannels, boolean isChannelInterleaved){
+        this(noofFrequencies, noofChannels, isChannelInterleaved, null);
+    }
+
+    /**
+     * @param noofFrequencies How many frequency components to use. One extra will added automatically for the
+     *                        dc-component.
+     * @param noofChannels The number of channels (2 for a stereo signal).
+     * @param isChannelInterleaved If true, the channels are kept in shared arrays and updated together
+     *                             (faster for many channels). The channel sliders are then views of the shared arrays.
+     * @param executor The executor that slides the channel ranges in parallel (EG a ForkJoinPool),
+     *                 or null to slide all channels on the calling thread. The channels are split in one range
+     *                 per thread of the executor (or per processor, if the number of threads is unknown).
+     */
+    public DFTSliderFilter(int noofFrequencies, int noofChannels, boolean isChannelInterleaved, ExecutorService executor){
+        this.executor = executor;
+        this.taskChannels = getTaskChannels(noofChannels, getMaxNoofTasks(executor));
+
+        if(isChannelInterleaved){
+            this.interleavedChannels = new DFTSliderChannels(noofFrequencies, noofChannels);
+            this.channelSliders = interleavedChannels.getChannels();
+        }else{
+            this.interleavedChannels = null;
+            this.channelSliders = new DFTSlider[noofChannels];
+
+            for(int i = 0; i < channelSliders.length; i++){
+                channelSliders[i] = new DFTSliderImpl(noofFrequencies);
+            }
+        }
+
+        this.tasks = new ArrayList<>(taskChannels.length - 1);
+
+        for(int task = 0; task < taskChannels.length - 1; task++){
+            int fromChannel = taskChannels[task];
+            int toChannel = taskChannels[task + 1];
+            tasks.add(() -> {
+                slideTask(fromChannel, toChannel);
+                return null;
+            });
         }
     }
 
     /**
      * Slide in one sample.
+     * With an executor, the threads are synchronized for each sample, which is only worth it for very many channels
+     * and frequencies. Use slide(double[][], int, int) to slide blocks of samples instead.
      * @param sample One sample. One array element per channel, EG. sample[0] = left, sample[1] = right).
      */
     public void slide(double[] sample){
-        if(sample != null){
-            for(int channel = 0; channel < noofChannels; channel++){
+        if(sample != null && tasks.size() == 1){
+            slide(sample, 0, channelSliders.length);
+        }else if(sample != null){
+            taskSample = sample;
+            invokeTasks();
+        }
+    }
+
+    /**
+     * Slide in a block of samples, with the same result as sliding them one by one.
+     * With an executor, each task slides the whole block for its channels, so the threads are only synchronized once per block.
+     * @param samples One array per channel (EG. samples[0] = left, samples[1] = right). The values at off to off + len
+     *                are replaced by the real sums (as slide(double[]) does for one sample).
+     * @param off The index of the first sample.
+     * @param len The number of samples.
+     */
+    public void slide(double[][] samples, int off, int len){
+        if(samples != null && len > 0 && tasks.size() == 1){
+            slide(samples, off, len, 0, channelSliders.length);
+        }else if(samples != null && len > 0){
+            taskSamples = samples;
+            taskOff = off;
+            taskLen = len;
+            invokeTasks();
+        }
+    }
+
+    private void slide(double[] sample, int fromChannel, int toChannel){
+        if(interleavedChannels != null){
+            interleavedChannels.slide(sample, fromChannel, toChannel);
+        }else{
+            for(int channel = fromChannel; channel < toChannel; channel++){
                 sample[channel] = channelSliders[channel].slide(sample[channel]);
             }
         }
     }
 
+    private void slide(double[][] samples, int off, int len, int fromChannel, int toChannel){
+        if(interleavedChannels != null){
+            interleavedChannels.slide(samples, off, len, fromChannel, toChannel);
+        }else{
+            for(int channel = fromChannel; channel < toChannel; channel++){
+                channelSliders[channel].slide(samples[channel], off, len, samples[channel]);
+            }
+        }
+    }
+
+    private void slideTask(int fromChannel, int toChannel){
+        if(taskSamples != null){
+            slide(taskSamples, taskOff, taskLen, fromChannel, toChannel);
+        }else{
+            slide(taskSample, fromChannel, toChannel);
+        }
+    }
+
+    /**
+     * Runs the tasks (one per channel range) on the executor and waits for all of them.
+     */
+    private void invokeTasks(){
+        try{
+            for(Future<Void> future : executor.invokeAll(tasks)){
+                future.get();
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sliding the channels.", e);
+        }catch(ExecutionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException)e.getCause();
+            }else if(e.getCause() instanceof Error){
+                throw (Error)e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }finally{
+            taskSample = null;
+            taskSamples = null;
+        }
+    }
+
+    private static int getMaxNoofTasks(ExecutorService executor){
+        if(executor == null){
+            return 1;
+        }else if(executor instanceof ForkJoinPool){
+            return ((ForkJoinPool)executor).getParallelism();
+        }else if(executor instanceof ThreadPoolExecutor){
+            return ((ThreadPoolExecutor)executor).getMaximumPoolSize();
+        }
+
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Splits the channels in ranges of about the same size, with at least MIN_CHANNELS_PER_TASK channels (if possible).
+     * Neighbouring ranges may write the same cache line of a shared array at their edges, which costs little
+     * next to the rest of the range.
+     * @return The first channel of each range, followed by noofChannels.
+     */
+    static int[] getTaskChannels(int noofChannels, int maxNoofTasks){
+        int noofTasks = Math.max(1, Math.min(maxNoofTasks, noofChannels / MIN_CHANNELS_PER_TASK));
+        int[] taskChannels = new int[noofTasks + 1];
+
+        for(int task = 1; task < noofTasks; task++){
+            taskChannels[task] = (int)((long)noofChannels * task / noofTasks);
+        }
+
+        taskChannels[noofTasks] = noofChannels;
+        return taskChannels;
+    }
+
     /**
      * Retrieves the sliders (one for each channel).
      * @return The sliders for all channels.
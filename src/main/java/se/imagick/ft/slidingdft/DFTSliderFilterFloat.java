@@ -0,0 +1,98 @@
+package se.imagick.ft.slidingdft;
+
+/**
+ * Single precision (float) version of DFTSliderFilter, using one DFTSliderCompactFloatImpl per channel.
+ * The samples are slid in and out as float arrays. For the error bounds compared with the double
+ * version, see DFTSliderCompactFloatImpl.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderFilterFloat{
+
+    private final DFTSliderCompactFloatImpl[] channelSliders;
+
+    /**
+     * @param noofFrequencies How many frequency components to use. One extra will added automatically for the
+     *                        dc-component.
+     * @param noofChannels The number of channels (2 for a stereo signal).
+     */
+    public DFTSliderFilterFloat(int noofFrequencies, int noofChannels){
+        this.channelSliders = new DFTSliderCompactFloatImpl[noofChannels];
+
+        for(int i = 0; i < channelSliders.length; i++){
+            channelSliders[i] = new DFTSliderCompactFloatImpl(noofFrequencies);
+        }
+    }
+
+    /**
+     * Slide in one sample.
+     * @param sample One sample. One array element per channel, EG. sample[0] = left, sample[1] = right).
+     *               Receives the slid out sample (the real sum) of each channel.
+     */
+    public void slide(float[] sample){
+        if(sample != null){
+            for(int channel = 0; channel < channelSliders.length; channel++){
+                sample[channel] = channelSliders[channel].slide(sample[channel]);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the sliders (one for each channel).
+     * @return The sliders for all channels.
+     */
+    public DFTSliderCompactFloatImpl[] getChannelSliders() {
+        return channelSliders;
+    }
+
+    /**
+     * Retrieves the real sum for all frequencies for sample 0 in the buffer (one array element per channel).
+     * @return The real sum for all frequencies per channel for sample 0 (EG sample[0] = left, sample[1] = right).
+     */
+    public float[] getRealSum() {
+        float[] sample = new float[channelSliders.length];
+
+        for(int channel = 0; channel < channelSliders.length; channel++) {
+            sample[channel] = (float)channelSliders[channel].getRealSum(false);
+        }
+
+        return sample;
+    }
+
+    public double getAmplitude(int channelNo, int componentNo){
+        return channelSliders[channelNo].getPolar(componentNo).getMagnitude();
+    }
+
+    public double getPhase(int channelNo, int componentNo){
+        return channelSliders[channelNo].getPolar(componentNo).getPhase();
+    }
+
+    public double getImaginary(int channelNo, int componentNo) {
+        return channelSliders[channelNo].getComplex(componentNo).getImaginary();
+    }
+
+    public double getReal(int channelNo, int componentNo) {
+        return channelSliders[channelNo].getComplex(componentNo).getReal();
+    }
+}
@@ -46,6 +46,9 @@ public class DFTSliderImpl implements DFTSlider {
     private final DFTSliderFrequency[] sliderFrequencies;
     private final double noofSamples;
     private double realSum;
+    private DFTSliderBlock block;
+    private double[] blockReal;
+    private double[] blockImag;
 
     /**
      * Creates an instance of DFTSliderImpl that will use recycled Complex and Polar instances.
@@ -79,6 +82,43 @@ public class DFTSliderImpl implements DFTSlider {
         return realSum;
     }
 
+    /**
+     * Slides the block with two transforms per period (see DFTSliderBlock), instead of the
+     * polar turns of all frequencies for each sample. The last sample goes through slide(double)
+     * to get the same polar values.
+     */
+    @Override
+    public void slide(double[] samples, int off, int len, double[] realSumOut){
+        int done = 0;
+
+        for(int blockLen; (blockLen = Math.min(len - 1 - done, (int)noofSamples - 1)) >= DFTSliderBlock.MIN_LENGTH; done += blockLen){
+            if(block == null){
+                block = new DFTSliderBlock(sliderFrequencies.length - 1);
+                blockReal = new double[sliderFrequencies.length];
+                blockImag = new double[sliderFrequencies.length];
+            }
+
+            for(int i = 0; i < sliderFrequencies.length; i++){
+                Complex complex = sliderFrequencies[i].getComplex();
+                blockReal[i] = complex.getReal();
+                blockImag[i] = complex.getImaginary();
+            }
+
+            realSum = block.slide(blockReal, blockImag, realSum, samples, off + done, blockLen, realSumOut);
+            Complex complex = new Complex();
+
+            for(int i = 0; i < sliderFrequencies.length; i++){
+                complex.setReal(blockReal[i]);
+                complex.setImaginary(blockImag[i]);
+                sliderFrequencies[i].setComplex(complex);
+            }
+        }
+
+        for(; done < len; done++){
+            realSumOut[off + done] = slide(samples[off + done]);
+        }
+    }
+
     @Override
     public int getNoOfFrequencies(){
         return sliderFrequencies.length;
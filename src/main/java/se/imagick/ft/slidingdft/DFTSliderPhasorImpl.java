@@ -0,0 +1,278 @@
+package se.imagick.ft.slidingdft;
+
+import se.imagick.ft.common.Complex;
+import se.imagick.ft.common.FTUtils;
+import se.imagick.ft.common.Polar;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * A trig free version of the slider. Each frequency component is rotated with a complex
+ * multiplication by a pre-calculated twiddle factor instead of going through polar form
+ * (sqrt, atan2, cos and sin) for every sample. Magnitude and phase are only calculated when
+ * they are asked for.<br>
+ * <br>
+ * The twiddle factors are rounded to double precision, so a rotation does not turn exactly
+ * one step and not with a gain of exactly one. Left alone that error builds up on long running
+ * signals. Since all components have turned a whole number of laps after one period
+ * (getLatencyInSamples() samples), the components are renormalized once per period with a
+ * correction factor that cancels out the accumulated rounding of the twiddle factors.<br>
+ * <br>
+ * Only positive frequencies are calculated.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderPhasorImpl implements DFTSlider{
+
+    private static final MathContext CORRECTION_PRECISION = new MathContext(40);
+
+    private final double[] real;
+    private final double[] imag;
+    private final double[] magni;
+    private final double[] phase;
+    private final long[] polarSlideNo;
+    private final double[] multi;
+    private final double[] twiddleReal;
+    private final double[] twiddleImag;
+    private final double[] correctionReal;
+    private final double[] correctionImag;
+    private final boolean isReusing;
+    private final int noofSamples;
+    private final int noofComplex;
+    private final Complex copyComplex;
+    private final Polar copyPolar;
+    private DFTSliderBlock block;
+    private double realSum;
+    private long slideNo;
+    private int periodPosition;
+
+    /**
+     * Creates a new instance that will reuse Complex and Polar instances
+     * in getters and setters (to reduce need for garbage collection).
+     * @param noofFrequencies Number och frequencies used.
+     */
+    public DFTSliderPhasorImpl(int noofFrequencies){
+        this(noofFrequencies, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param noofFrequencies Number och frequencies used.
+     * @param isReusing If true, Complex and Polar instances
+     * in getters and setters will be resued (to reduce need for garbage collection).
+     */
+    public DFTSliderPhasorImpl(int noofFrequencies, boolean isReusing){
+        double turnBase = Math.PI / noofFrequencies;
+        this.realSum = 0d;
+        this.noofSamples = noofFrequencies * 2;
+        this.noofComplex = noofFrequencies + 1; // +1 = dc, see DFT-principles.
+        this.real = new double[noofComplex];
+        this.imag = new double[noofComplex];
+        this.magni = new double[noofComplex];
+        this.phase = new double[noofComplex];
+        this.polarSlideNo = new long[noofComplex];
+        this.multi = new double[noofComplex];
+        this.twiddleReal = new double[noofComplex];
+        this.twiddleImag = new double[noofComplex];
+        this.correctionReal = new double[noofComplex];
+        this.correctionImag = new double[noofComplex];
+        this.isReusing = isReusing;
+        this.copyComplex = new Complex();
+        this.copyPolar = new Polar();
+
+        for(int i = 0; i < noofComplex; i++){
+            twiddleReal[i] = Math.cos(i * turnBase);
+            twiddleImag[i] = Math.sin(i * turnBase);
+            multi[i] = (i == 0 || i == noofComplex - 1)?1:2; // See DFT-principles for first and last frequency.
+            double[] correction = calculateCorrection(twiddleReal[i], twiddleImag[i], noofSamples);
+            correctionReal[i] = correction[0];
+            correctionImag[i] = correction[1];
+        }
+    }
+
+    @Override
+    public double slide(double inValue){
+        double newVal = (inValue - this.realSum) / this.noofSamples;
+        double realSum = 0d;
+
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i] + newVal * multi[i];
+            double imagVal = imag[i];
+            double twReal = twiddleReal[i];
+            double twImag = twiddleImag[i];
+            double turnedReal = realVal * twReal - imagVal * twImag;
+            real[i] = turnedReal;
+            imag[i] = realVal * twImag + imagVal * twReal;
+            realSum += turnedReal;
+        }
+
+        this.slideNo++;
+        this.realSum = realSum;
+
+        if(++periodPosition == noofSamples){
+            periodPosition = 0;
+            renormalize();
+            getRealSum(true);
+        }
+
+        return this.realSum;
+    }
+
+    /**
+     * Slides the block with two transforms per period (see DFTSliderBlock). The block does not turn the
+     * components with the rounded twiddle factors, so it does not count towards the renormalization.
+     */
+    @Override
+    public void slide(double[] samples, int off, int len, double[] realSumOut){
+        int done = 0;
+
+        for(int blockLen; (blockLen = Math.min(len - done, noofSamples - 1)) >= DFTSliderBlock.MIN_LENGTH; done += blockLen){
+            if(block == null){
+                block = new DFTSliderBlock(noofComplex - 1);
+            }
+
+            this.realSum = block.slide(real, imag, realSum, samples, off + done, blockLen, realSumOut);
+            this.slideNo += blockLen;
+        }
+
+        for(; done < len; done++){
+            realSumOut[off + done] = slide(samples[off + done]);
+        }
+    }
+
+    @Override
+    public int getNoOfFrequencies() {
+        return this.noofComplex;
+    }
+
+    @Override
+    public int getLatencyInSamples() {
+        return this.noofSamples;
+    }
+
+    @Override
+    public double getRealSum(boolean willRecalculate) {
+        if(willRecalculate) {
+            this.realSum = 0d;
+
+            for(int i = 0; i < noofComplex; i++){
+                this.realSum += real[i];
+            }
+        }
+
+        return this.realSum;
+    }
+
+    @Override
+    public Complex getComplex(int componentNo) {
+        Complex complex = (isReusing)?copyComplex:new Complex();
+        complex.setReal(real[componentNo]);
+        complex.setImaginary(imag[componentNo]);
+
+        return complex;
+    }
+
+    @Override
+    public void setComplex(int componentNo, Complex complex) {
+        real[componentNo] = complex.getReal();
+        imag[componentNo] = complex.getImaginary();
+        polarSlideNo[componentNo] = slideNo - 1; // The polar values are now outdated.
+    }
+
+    @Override
+    public Polar getPolar(int componentNo) {
+        if(polarSlideNo[componentNo] != slideNo) {
+            double realVal = real[componentNo];
+            double imagVal = imag[componentNo];
+            magni[componentNo] = Math.sqrt(realVal * realVal + imagVal * imagVal);
+            phase[componentNo] = Math.atan2(imagVal, realVal);
+            polarSlideNo[componentNo] = slideNo;
+        }
+
+        Polar polar = (isReusing)?copyPolar:new Polar();
+        polar.setMagnitude(magni[componentNo]);
+        polar.setPhase(phase[componentNo]);
+
+        return polar;
+    }
+
+    @Override
+    public void setPolar(int componentNo, Polar polar) {
+        magni[componentNo] = polar.getMagnitude();
+        phase[componentNo] = polar.getPhase();
+        polarSlideNo[componentNo] = slideNo;
+        FTUtils.polar2Complex(polar, copyComplex);
+        real[componentNo] = copyComplex.getReal();
+        imag[componentNo] = copyComplex.getImaginary();
+    }
+
+    private void renormalize(){
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i];
+            double imagVal = imag[i];
+            real[i] = realVal * correctionReal[i] - imagVal * correctionImag[i];
+            imag[i] = realVal * correctionImag[i] + imagVal * correctionReal[i];
+        }
+    }
+
+    /**
+     * Calculates the inverse of what the rounded twiddle factor turns one period, which is
+     * exactly one (an even number of laps) for a twiddle factor without rounding errors.
+     * @return The real and imaginary part of the correction.
+     */
+    static double[] calculateCorrection(double twiddleReal, double twiddleImag, int noofSamples){
+        BigDecimal[] pow = power(twiddleReal, twiddleImag, noofSamples);
+        BigDecimal squaredMagnitude = pow[0].multiply(pow[0]).add(pow[1].multiply(pow[1]), CORRECTION_PRECISION);
+        return new double[]{pow[0].divide(squaredMagnitude, CORRECTION_PRECISION).doubleValue(),
+                pow[1].negate().divide(squaredMagnitude, CORRECTION_PRECISION).doubleValue()};
+    }
+
+    /**
+     * Raises a (rounded) twiddle factor to a power. The power is calculated with big decimals, otherwise
+     * the calculation would suffer from the same rounding problem that it is supposed to correct.
+     * @return The real and imaginary part of the power.
+     */
+    static BigDecimal[] power(double real, double imag, int exponent){
+        BigDecimal twReal = new BigDecimal(real);
+        BigDecimal twImag = new BigDecimal(imag);
+        BigDecimal powReal = BigDecimal.ONE;
+        BigDecimal powImag = BigDecimal.ZERO;
+
+        for(; exponent > 0; exponent >>= 1){
+            if((exponent & 1) == 1){
+                BigDecimal tempReal = powReal.multiply(twReal).subtract(powImag.multiply(twImag), CORRECTION_PRECISION);
+                powImag = powReal.multiply(twImag).add(powImag.multiply(twReal), CORRECTION_PRECISION);
+                powReal = tempReal;
+            }
+
+            BigDecimal tempReal = twReal.multiply(twReal).subtract(twImag.multiply(twImag), CORRECTION_PRECISION);
+            twImag = twReal.multiply(twImag).multiply(BigDecimal.valueOf(2), CORRECTION_PRECISION);
+            twReal = tempReal;
+        }
+
+        return new BigDecimal[]{powReal, powImag};
+    }
+}
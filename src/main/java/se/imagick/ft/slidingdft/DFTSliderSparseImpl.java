@@ -0,0 +1,361 @@
+package se.imagick.ft.slidingdft;
+
+import se.imagick.ft.common.Complex;
+import se.imagick.ft.common.FTUtils;
+import se.imagick.ft.common.Polar;
+
+import java.math.BigDecimal;
+
+/**
+ * A slider that only tracks a chosen set of frequencies (EG a few tones out of thousands of bins),
+ * so the cost per sample is proportional to the number of tracked frequencies, not to the window length.
+ * The window is the same as for the other sliders with the same number of frequencies
+ * (noofFrequencies * 2 samples), and a tracked bin gets the same value as the corresponding
+ * component of the full slider.<br>
+ * <br>
+ * The frequencies are given in bins, from 0 (dc) to noofFrequencies, and do not have to be whole
+ * numbers. The samples of the window are kept in a buffer, since the sample pushed out can not be
+ * taken from the sum of a few components. Each tracked frequency is a one pole resonator
+ * (the idea of the sliding Goertzel filter, in complex form to allow frequencies between the bins):<br>
+ * <pre>
+ * X = (X + (in - out * w^N) * multi / N) * w
+ * </pre>
+ * where w is the twiddle factor of the frequency and w^N is exactly one for whole bins.
+ * w^N is calculated (with big decimals) from the rounded twiddle factor, so the pushed out
+ * samples are removed exactly as they were added and the rounding does not build up over time.<br>
+ * <br>
+ * The component numbers of the accessors are the positions in the tracked set (see getFrequency),
+ * and getNoOfFrequencies returns the size of the set. getRealSum (and slide) returns the sum of the
+ * real part of the tracked components, which is the part of the first sample in the buffer made up
+ * by the tracked frequencies (the first sample itself when all bins are tracked).
+ * A component changed with setComplex or setPolar keeps the change while sliding, since the samples
+ * in the buffer are not affected.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderSparseImpl implements DFTSlider{
+
+    private final double[] frequencies;
+    private final double[] real;
+    private final double[] imag;
+    private final double[] magni;
+    private final double[] phase;
+    private final long[] polarSlideNo;
+    private final double[] multi;
+    private final double[] twiddleReal;
+    private final double[] twiddleImag;
+    private final double[] periodReal;
+    private final double[] periodImag;
+    private final double[] buffer;
+    private final boolean isReusing;
+    private final int noofSamples;
+    private final int noofComplex;
+    private final Complex copyComplex;
+    private final Polar copyPolar;
+    private double[] blockRealSums;
+    private double[] blockOutValues;
+    private double realSum;
+    private long slideNo;
+    private int bufferPosition;
+
+    /**
+     * Creates a new instance tracking the specified bins, that will reuse Complex and Polar instances
+     * in getters and setters (to reduce need for garbage collection).
+     * @param noofFrequencies Number of frequencies of the full slider (sets the window length).
+     * @param bins The bins to track, from 0 (dc) to noofFrequencies.
+     */
+    public DFTSliderSparseImpl(int noofFrequencies, int[] bins){
+        this(noofFrequencies, bins, true);
+    }
+
+    /**
+     * Creates a new instance tracking the specified bins.
+     * @param noofFrequencies Number of frequencies of the full slider (sets the window length).
+     * @param bins The bins to track, from 0 (dc) to noofFrequencies.
+     * @param isReusing If true, Complex and Polar instances
+     * in getters and setters will be resued (to reduce need for garbage collection).
+     */
+    public DFTSliderSparseImpl(int noofFrequencies, int[] bins, boolean isReusing){
+        this(noofFrequencies, toDoubles(bins), isReusing);
+    }
+
+    /**
+     * Creates a new instance tracking the specified frequencies, that will reuse Complex and Polar instances
+     * in getters and setters (to reduce need for garbage collection).
+     * @param noofFrequencies Number of frequencies of the full slider (sets the window length).
+     * @param frequencies The frequencies to track in bins (frequency * noofFrequencies * 2 / sample rate),
+     *                    from 0 (dc) to noofFrequencies.
+     */
+    public DFTSliderSparseImpl(int noofFrequencies, double[] frequencies){
+        this(noofFrequencies, frequencies, true);
+    }
+
+    /**
+     * Creates a new instance tracking the specified frequencies.
+     * @param noofFrequencies Number of frequencies of the full slider (sets the window length).
+     * @param frequencies The frequencies to track in bins (frequency * noofFrequencies * 2 / sample rate),
+     *                    from 0 (dc) to noofFrequencies.
+     * @param isReusing If true, Complex and Polar instances
+     * in getters and setters will be resued (to reduce need for garbage collection).
+     */
+    public DFTSliderSparseImpl(int noofFrequencies, double[] frequencies, boolean isReusing){
+        if(noofFrequencies < 1){
+            throw new IllegalArgumentException("Number of frequencies must be at least 1: " + noofFrequencies);
+        }
+
+        double turnBase = Math.PI / noofFrequencies;
+        this.noofSamples = noofFrequencies * 2;
+        this.noofComplex = frequencies.length;
+        this.frequencies = frequencies.clone();
+        this.real = new double[noofComplex];
+        this.imag = new double[noofComplex];
+        this.magni = new double[noofComplex];
+        this.phase = new double[noofComplex];
+        this.polarSlideNo = new long[noofComplex];
+        this.multi = new double[noofComplex];
+        this.twiddleReal = new double[noofComplex];
+        this.twiddleImag = new double[noofComplex];
+        this.periodReal = new double[noofComplex];
+        this.periodImag = new double[noofComplex];
+        this.buffer = new double[noofSamples];
+        this.isReusing = isReusing;
+        this.copyComplex = new Complex();
+        this.copyPolar = new Polar();
+
+        for(int i = 0; i < noofComplex; i++){
+            double frequency = frequencies[i];
+
+            if(!(frequency >= 0d && frequency <= noofFrequencies)){
+                throw new IllegalArgumentException("Frequency must be from 0 to " + noofFrequencies + ": " + frequency);
+            }
+
+            twiddleReal[i] = Math.cos(frequency * turnBase);
+            twiddleImag[i] = Math.sin(frequency * turnBase);
+            multi[i] = ((frequency == 0d || frequency == noofFrequencies)?1d:2d) / noofSamples; // See DFT-principles for first and last frequency.
+            BigDecimal[] period = DFTSliderPhasorImpl.power(twiddleReal[i], twiddleImag[i], noofSamples);
+            periodReal[i] = period[0].doubleValue();
+            periodImag[i] = period[1].doubleValue();
+        }
+    }
+
+    @Override
+    public double slide(double inValue){
+        double outValue = buffer[bufferPosition];
+        buffer[bufferPosition] = inValue;
+        bufferPosition = (bufferPosition == noofSamples - 1)?0:bufferPosition + 1;
+        double realSum = 0d;
+
+        for(int i = 0; i < noofComplex; i++){
+            double realVal = real[i] + (inValue - outValue * periodReal[i]) * multi[i];
+            double imagVal = imag[i] - outValue * periodImag[i] * multi[i];
+            double twReal = twiddleReal[i];
+            double twImag = twiddleImag[i];
+            double turnedReal = realVal * twReal - imagVal * twImag;
+            real[i] = turnedReal;
+            imag[i] = realVal * twImag + imagVal * twReal;
+            realSum += turnedReal;
+        }
+
+        this.slideNo++;
+        this.realSum = realSum;
+
+        return realSum;
+    }
+
+    /**
+     * Slides the block one component at a time, with the pushed out samples taken from the buffer.
+     */
+    @Override
+    public void slide(double[] samples, int off, int len, double[] realSumOut){
+        if(blockRealSums == null){
+            blockRealSums = new double[noofSamples];
+            blockOutValues = new double[noofSamples];
+        }
+
+        for(int done = 0; done < len;){
+            int blockLen = Math.min(len - done, noofSamples);
+            int blockOff = off + done;
+
+            for(int j = 0; j < blockLen; j++){
+                int position = bufferPosition + j;
+                blockOutValues[j] = buffer[(position < noofSamples)?position:position - noofSamples];
+                blockRealSums[j] = 0d;
+            }
+
+            int i = 0;
+
+            // Two components at a time, so the turns of one do not have to wait for the other.
+            for(; i < noofComplex - 1; i += 2){
+                slideComponents(i, 2, samples, blockOff, blockLen);
+            }
+
+            if(i < noofComplex){
+                slideComponents(i, 1, samples, blockOff, blockLen);
+            }
+
+            for(int j = 0; j < blockLen; j++){
+                buffer[bufferPosition] = samples[blockOff + j];
+                bufferPosition = (bufferPosition == noofSamples - 1)?0:bufferPosition + 1;
+            }
+
+            System.arraycopy(blockRealSums, 0, realSumOut, blockOff, blockLen);
+            this.slideNo += blockLen;
+            this.realSum = blockRealSums[blockLen - 1];
+            done += blockLen;
+        }
+    }
+
+    /**
+     * Slides a block into one or two components, adding their real parts to the real sums.
+     */
+    private void slideComponents(int componentNo, int count, double[] samples, int off, int len){
+        int last = componentNo + count - 1;
+        double realVal0 = real[componentNo];
+        double imagVal0 = imag[componentNo];
+        double realVal1 = real[last];
+        double imagVal1 = imag[last];
+        double twReal0 = twiddleReal[componentNo];
+        double twImag0 = twiddleImag[componentNo];
+        double twReal1 = (count == 2)?twiddleReal[last]:0d;
+        double twImag1 = (count == 2)?twiddleImag[last]:0d;
+        double outReal0 = periodReal[componentNo] * multi[componentNo];
+        double outImag0 = periodImag[componentNo] * multi[componentNo];
+        double outReal1 = (count == 2)?periodReal[last] * multi[last]:0d;
+        double outImag1 = (count == 2)?periodImag[last] * multi[last]:0d;
+        double mul0 = multi[componentNo];
+        double mul1 = (count == 2)?multi[last]:0d;
+
+        for(int j = 0; j < len; j++){
+            double inValue = samples[off + j];
+            double outValue = blockOutValues[j];
+            realVal0 += inValue * mul0 - outValue * outReal0;
+            imagVal0 -= outValue * outImag0;
+            realVal1 += inValue * mul1 - outValue * outReal1;
+            imagVal1 -= outValue * outImag1;
+            double turnedReal0 = realVal0 * twReal0 - imagVal0 * twImag0;
+            imagVal0 = realVal0 * twImag0 + imagVal0 * twReal0;
+            realVal0 = turnedReal0;
+            double turnedReal1 = realVal1 * twReal1 - imagVal1 * twImag1;
+            imagVal1 = realVal1 * twImag1 + imagVal1 * twReal1;
+            realVal1 = turnedReal1;
+            blockRealSums[j] += turnedReal0 + turnedReal1;
+        }
+
+        real[componentNo] = realVal0;
+        imag[componentNo] = imagVal0;
+
+        if(count == 2){
+            real[last] = realVal1;
+            imag[last] = imagVal1;
+        }
+    }
+
+    /**
+     * Retrieves the frequency of a tracked component.
+     * @param componentNo The position of the component in the tracked set.
+     * @return The frequency in bins.
+     */
+    public double getFrequency(int componentNo){
+        return frequencies[componentNo];
+    }
+
+    /**
+     * @return The number of tracked frequencies.
+     */
+    @Override
+    public int getNoOfFrequencies() {
+        return this.noofComplex;
+    }
+
+    @Override
+    public int getLatencyInSamples() {
+        return this.noofSamples;
+    }
+
+    @Override
+    public double getRealSum(boolean willRecalculate) {
+        if(willRecalculate) {
+            this.realSum = 0d;
+
+            for(int i = 0; i < noofComplex; i++){
+                this.realSum += real[i];
+            }
+        }
+
+        return this.realSum;
+    }
+
+    @Override
+    public Complex getComplex(int componentNo) {
+        Complex complex = (isReusing)?copyComplex:new Complex();
+        complex.setReal(real[componentNo]);
+        complex.setImaginary(imag[componentNo]);
+
+        return complex;
+    }
+
+    @Override
+    public void setComplex(int componentNo, Complex complex) {
+        real[componentNo] = complex.getReal();
+        imag[componentNo] = complex.getImaginary();
+        polarSlideNo[componentNo] = slideNo - 1; // The polar values are now outdated.
+    }
+
+    @Override
+    public Polar getPolar(int componentNo) {
+        if(polarSlideNo[componentNo] != slideNo) {
+            double realVal = real[componentNo];
+            double imagVal = imag[componentNo];
+            magni[componentNo] = Math.sqrt(realVal * realVal + imagVal * imagVal);
+            phase[componentNo] = Math.atan2(imagVal, realVal);
+            polarSlideNo[componentNo] = slideNo;
+        }
+
+        Polar polar = (isReusing)?copyPolar:new Polar();
+        polar.setMagnitude(magni[componentNo]);
+        polar.setPhase(phase[componentNo]);
+
+        return polar;
+    }
+
+    @Override
+    public void setPolar(int componentNo, Polar polar) {
+        magni[componentNo] = polar.getMagnitude();
+        phase[componentNo] = polar.getPhase();
+        polarSlideNo[componentNo] = slideNo;
+        FTUtils.polar2Complex(polar, copyComplex);
+        real[componentNo] = copyComplex.getReal();
+        imag[componentNo] = copyComplex.getImaginary();
+    }
+
+    private static double[] toDoubles(int[] bins){
+        double[] frequencies = new double[bins.length];
+
+        for(int i = 0; i < bins.length; i++){
+            frequencies[i] = bins[i];
+        }
+
+        return frequencies;
+    }
+}
@@ -0,0 +1,156 @@
+package se.imagick.ft.fft;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Single precision version of VectorRadix4Kernel (see FloatFftKernel). A vector holds twice as many
+ * floats as doubles, so twice as many butterflies are calculated at a time. The twiddle factors of each
+ * pass are rounded to float and copied into tables of their own, kept per plan in the same way.<br>
+ * The passes with fewer butterflies per block than the vector length run the scalar code of
+ * FloatRadix4Kernel. Loaded by FftKernels, only with Java 17 or later.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class VectorFloatRadix4Kernel implements FloatFftKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+
+    @Override
+    public void transform(FftPlan plan, float[] realValues, float[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        int butterflySize = size;
+        float[][] twiddles = null;
+
+        if (Integer.numberOfTrailingZeros(size) % 2 == 1) {
+            if (size / 2 >= LENGTH) {
+                twiddles = plan.getFloatPassTwiddles();
+                radix2Pass(realValues, imagValues, offset, size, twiddles[twiddles.length - 1]);
+            } else {
+                FloatRadix4Kernel.radix2Pass(plan, realValues, imagValues, offset);
+            }
+
+            butterflySize /= 2;
+        }
+
+        for (int pass = 0; butterflySize > 4; butterflySize /= 4, pass++) {
+            if (butterflySize / 4 >= LENGTH) {
+                twiddles = (twiddles != null) ? twiddles : plan.getFloatPassTwiddles();
+                radix4Pass(realValues, imagValues, offset, size, butterflySize, twiddles[pass]);
+            } else {
+                FloatRadix4Kernel.radix4Pass(plan, realValues, imagValues, offset, butterflySize);
+            }
+        }
+
+        if (butterflySize == 4) {
+            FloatRadix4Kernel.lastRadix4Pass(realValues, imagValues, offset, size);
+        }
+    }
+
+    private static void radix2Pass(float[] realValues, float[] imagValues, int offset, int size, float[] twiddles) {
+
+        int butterflyHalfsize = size / 2;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex += LENGTH) {
+            int currIndex = offset + butterflyIndex;
+            int currDoubleIndex = currIndex + butterflyHalfsize;
+
+            FloatVector real0 = FloatVector.fromArray(SPECIES, realValues, currIndex);
+            FloatVector imag0 = FloatVector.fromArray(SPECIES, imagValues, currIndex);
+            FloatVector real1 = FloatVector.fromArray(SPECIES, realValues, currDoubleIndex);
+            FloatVector imag1 = FloatVector.fromArray(SPECIES, imagValues, currDoubleIndex);
+            FloatVector cos = FloatVector.fromArray(SPECIES, twiddles, butterflyIndex);
+            FloatVector sin = FloatVector.fromArray(SPECIES, twiddles, butterflyHalfsize + butterflyIndex);
+
+            FloatVector realDiff = real0.sub(real1);
+            FloatVector imagDiff = imag0.sub(imag1);
+            real0.add(real1).intoArray(realValues, currIndex);
+            imag0.add(imag1).intoArray(imagValues, currIndex);
+            realDiff.mul(cos).sub(imagDiff.mul(sin)).intoArray(realValues, currDoubleIndex);
+            realDiff.mul(sin).add(imagDiff.mul(cos)).intoArray(imagValues, currDoubleIndex);
+        }
+    }
+
+    private static void radix4Pass(float[] realValues, float[] imagValues, int offset, int size,
+                                   int butterflySize, float[] twiddles) {
+
+        int quarter = butterflySize / 4;
+
+        for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex += LENGTH) {
+                int index0 = butterflyIndexStart + butterflyIndex;
+                int index1 = index0 + quarter;
+                int index2 = index1 + quarter;
+                int index3 = index2 + quarter;
+
+                FloatVector real0 = FloatVector.fromArray(SPECIES, realValues, index0);
+                FloatVector imag0 = FloatVector.fromArray(SPECIES, imagValues, index0);
+                FloatVector real1 = FloatVector.fromArray(SPECIES, realValues, index1);
+                FloatVector imag1 = FloatVector.fromArray(SPECIES, imagValues, index1);
+                FloatVector real2 = FloatVector.fromArray(SPECIES, realValues, index2);
+                FloatVector imag2 = FloatVector.fromArray(SPECIES, imagValues, index2);
+                FloatVector real3 = FloatVector.fromArray(SPECIES, realValues, index3);
+                FloatVector imag3 = FloatVector.fromArray(SPECIES, imagValues, index3);
+
+                FloatVector sumReal02 = real0.add(real2);
+                FloatVector sumImag02 = imag0.add(imag2);
+                FloatVector sumReal13 = real1.add(real3);
+                FloatVector sumImag13 = imag1.add(imag3);
+                FloatVector diffReal02 = real0.sub(real2);
+                FloatVector diffImag02 = imag0.sub(imag2);
+                FloatVector diffReal13 = real1.sub(real3);
+                FloatVector diffImag13 = imag1.sub(imag3);
+
+                FloatVector cos1 = FloatVector.fromArray(SPECIES, twiddles, butterflyIndex);
+                FloatVector sin1 = FloatVector.fromArray(SPECIES, twiddles, quarter + butterflyIndex);
+                FloatVector cos2 = FloatVector.fromArray(SPECIES, twiddles, 2 * quarter + butterflyIndex);
+                FloatVector sin2 = FloatVector.fromArray(SPECIES, twiddles, 3 * quarter + butterflyIndex);
+                FloatVector cos3 = FloatVector.fromArray(SPECIES, twiddles, 4 * quarter + butterflyIndex);
+                FloatVector sin3 = FloatVector.fromArray(SPECIES, twiddles, 5 * quarter + butterflyIndex);
+
+                sumReal02.add(sumReal13).intoArray(realValues, index0);
+                sumImag02.add(sumImag13).intoArray(imagValues, index0);
+
+                FloatVector realTemp = sumReal02.sub(sumReal13);
+                FloatVector imagTemp = sumImag02.sub(sumImag13);
+                realTemp.mul(cos2).sub(imagTemp.mul(sin2)).intoArray(realValues, index1);
+                realTemp.mul(sin2).add(imagTemp.mul(cos2)).intoArray(imagValues, index1);
+
+                // Multiplying by i turns (re, im) into (-im, re).
+                realTemp = diffReal02.sub(diffImag13);
+                imagTemp = diffImag02.add(diffReal13);
+                realTemp.mul(cos1).sub(imagTemp.mul(sin1)).intoArray(realValues, index2);
+                realTemp.mul(sin1).add(imagTemp.mul(cos1)).intoArray(imagValues, index2);
+
+                realTemp = diffReal02.add(diffImag13);
+                imagTemp = diffImag02.sub(diffReal13);
+                realTemp.mul(cos3).sub(imagTemp.mul(sin3)).intoArray(realValues, index3);
+                realTemp.mul(sin3).add(imagTemp.mul(cos3)).intoArray(imagValues, index3);
+            }
+        }
+    }
+}
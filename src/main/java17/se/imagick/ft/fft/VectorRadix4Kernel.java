@@ -0,0 +1,158 @@
+package se.imagick.ft.fft;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Radix 4 butterflies (see Radix4Kernel) using the Vector API, several butterflies at a time.
+ * The twiddle factors of each pass are copied into tables of their own (one value per butterfly),
+ * so that they can be loaded as vectors instead of with the stride of the pass (and, for a first
+ * radix 2 pass, a half lap of cosines and sines, as the plan only holds a quarter lap). The tables are
+ * built once and kept on the plan (see FftPlan.getPassTwiddles), so the transforms read them without locking.<br>
+ * The passes with fewer butterflies per block than the vector length run the scalar code of
+ * Radix4Kernel. Loaded by FftKernels, only with Java 17 or later.<br>
+ * <br>
+ * ---------------------<br>
+ * The MIT License (MIT)<br>
+ * <br>
+ * Copyright (c) 2015 Olav Holten<br>
+ * <br>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:<br>
+ * <br>
+ * The above copyright notice and this permission notice shall be included in<br>
+ * all copies or substantial portions of the Software.<br>
+ * <br>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+final class VectorRadix4Kernel implements FftKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+
+    @Override
+    public void transform(FftPlan plan, double[] realValues, double[] imagValues, int offset) {
+
+        int size = plan.getSize();
+        int butterflySize = size;
+        double[][] twiddles = null;
+
+        if (Integer.numberOfTrailingZeros(size) % 2 == 1) {
+            if (size / 2 >= LENGTH) {
+                twiddles = plan.getPassTwiddles();
+                radix2Pass(realValues, imagValues, offset, size, twiddles[twiddles.length - 1]);
+            } else {
+                Radix4Kernel.radix2Pass(plan, realValues, imagValues, offset);
+            }
+
+            butterflySize /= 2;
+        }
+
+        for (int pass = 0; butterflySize > 4; butterflySize /= 4, pass++) {
+            if (butterflySize / 4 >= LENGTH) {
+                twiddles = (twiddles != null) ? twiddles : plan.getPassTwiddles();
+                radix4Pass(realValues, imagValues, offset, size, butterflySize, twiddles[pass]);
+            } else {
+                Radix4Kernel.radix4Pass(plan, realValues, imagValues, offset, butterflySize);
+            }
+        }
+
+        if (butterflySize == 4) {
+            Radix4Kernel.lastRadix4Pass(realValues, imagValues, offset, size);
+        }
+    }
+
+    private static void radix2Pass(double[] realValues, double[] imagValues, int offset, int size, double[] twiddles) {
+
+        int butterflyHalfsize = size / 2;
+
+        for (int butterflyIndex = 0; butterflyIndex < butterflyHalfsize; butterflyIndex += LENGTH) {
+            int currIndex = offset + butterflyIndex;
+            int currDoubleIndex = currIndex + butterflyHalfsize;
+
+            DoubleVector real0 = DoubleVector.fromArray(SPECIES, realValues, currIndex);
+            DoubleVector imag0 = DoubleVector.fromArray(SPECIES, imagValues, currIndex);
+            DoubleVector real1 = DoubleVector.fromArray(SPECIES, realValues, currDoubleIndex);
+            DoubleVector imag1 = DoubleVector.fromArray(SPECIES, imagValues, currDoubleIndex);
+            DoubleVector cos = DoubleVector.fromArray(SPECIES, twiddles, butterflyIndex);
+            DoubleVector sin = DoubleVector.fromArray(SPECIES, twiddles, butterflyHalfsize + butterflyIndex);
+
+            DoubleVector realDiff = real0.sub(real1);
+            DoubleVector imagDiff = imag0.sub(imag1);
+            real0.add(real1).intoArray(realValues, currIndex);
+            imag0.add(imag1).intoArray(imagValues, currIndex);
+            realDiff.mul(cos).sub(imagDiff.mul(sin)).intoArray(realValues, currDoubleIndex);
+            realDiff.mul(sin).add(imagDiff.mul(cos)).intoArray(imagValues, currDoubleIndex);
+        }
+    }
+
+    private static void radix4Pass(double[] realValues, double[] imagValues, int offset, int size,
+                                   int butterflySize, double[] twiddles) {
+
+        int quarter = butterflySize / 4;
+
+        for (int butterflyIndexStart = offset; butterflyIndexStart < offset + size; butterflyIndexStart += butterflySize) {
+
+            for (int butterflyIndex = 0; butterflyIndex < quarter; butterflyIndex += LENGTH) {
+                int index0 = butterflyIndexStart + butterflyIndex;
+                int index1 = index0 + quarter;
+                int index2 = index1 + quarter;
+                int index3 = index2 + quarter;
+
+                DoubleVector real0 = DoubleVector.fromArray(SPECIES, realValues, index0);
+                DoubleVector imag0 = DoubleVector.fromArray(SPECIES, imagValues, index0);
+                DoubleVector real1 = DoubleVector.fromArray(SPECIES, realValues, index1);
+                DoubleVector imag1 = DoubleVector.fromArray(SPECIES, imagValues, index1);
+                DoubleVector real2 = DoubleVector.fromArray(SPECIES, realValues, index2);
+                DoubleVector imag2 = DoubleVector.fromArray(SPECIES, imagValues, index2);
+                DoubleVector real3 = DoubleVector.fromArray(SPECIES, realValues, index3);
+                DoubleVector imag3 = DoubleVector.fromArray(SPECIES, imagValues, index3);
+
+                DoubleVector sumReal02 = real0.add(real2);
+                DoubleVector sumImag02 = imag0.add(imag2);
+                DoubleVector sumReal13 = real1.add(real3);
+                DoubleVector sumImag13 = imag1.add(imag3);
+                DoubleVector diffReal02 = real0.sub(real2);
+                DoubleVector diffImag02 = imag0.sub(imag2);
+                DoubleVector diffReal13 = real1.sub(real3);
+                DoubleVector diffImag13 = imag1.sub(imag3);
+
+                DoubleVector cos1 = DoubleVector.fromArray(SPECIES, twiddles, butterflyIndex);
+                DoubleVector sin1 = DoubleVector.fromArray(SPECIES, twiddles, quarter + butterflyIndex);
+                DoubleVector cos2 = DoubleVector.fromArray(SPECIES, twiddles, 2 * quarter + butterflyIndex);
+                DoubleVector sin2 = DoubleVector.fromArray(SPECIES, twiddles, 3 * quarter + butterflyIndex);
+                DoubleVector cos3 = DoubleVector.fromArray(SPECIES, twiddles, 4 * quarter + butterflyIndex);
+                DoubleVector sin3 = DoubleVector.fromArray(SPECIES, twiddles, 5 * quarter + butterflyIndex);
+
+                sumReal02.add(sumReal13).intoArray(realValues, index0);
+                sumImag02.add(sumImag13).intoArray(imagValues, index0);
+
+                DoubleVector realTemp = sumReal02.sub(sumReal13);
+                DoubleVector imagTemp = sumImag02.sub(sumImag13);
+                realTemp.mul(cos2).sub(imagTemp.mul(sin2)).intoArray(realValues, index1);
+                realTemp.mul(sin2).add(imagTemp.mul(cos2)).intoArray(imagValues, index1);
+
+                // Multiplying by i turns (re, im) into (-im, re).
+                realTemp = diffReal02.sub(diffImag13);
+                imagTemp = diffImag02.add(diffReal13);
+                realTemp.mul(cos1).sub(imagTemp.mul(sin1)).intoArray(realValues, index2);
+                realTemp.mul(sin1).add(imagTemp.mul(cos1)).intoArray(imagValues, index2);
+
+                realTemp = diffReal02.add(diffImag13);
+                imagTemp = diffImag02.sub(diffReal13);
+                realTemp.mul(cos3).sub(imagTemp.mul(sin3)).intoArray(realValues, index3);
+                realTemp.mul(sin3).add(imagTemp.mul(cos3)).intoArray(imagValues, index3);
+            }
+        }
+    }
+}
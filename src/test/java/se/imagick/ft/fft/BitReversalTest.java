@@ -0,0 +1,93 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class BitReversalTest {
+
+    @Test
+    public void tableGivesSameOrderAsListBasedDecomp() {
+        for (int size = 1; size <= 1 << 12; size *= 2) {
+            Assert.assertArrayEquals("Size: " + size, listBasedDecomp(size), BitReversal.table(size));
+        }
+    }
+
+    @Test
+    public void blockedReorderGivesSameOrderAsTable() {
+        int blockSize = 1 << BitReversal.BLOCK_BITS;
+        int[] blockTable = BitReversal.table(blockSize);
+
+        for (int size = blockSize * blockSize; size <= 1 << 17; size *= 2) {
+            double[] realValues = getNoise(size + 3, size);
+            double[] imagValues = getNoise(size + 3, size + 1);
+            double[] expectedRealValues = realValues.clone();
+            double[] expectedImagValues = imagValues.clone();
+
+            BitReversal.reorder(expectedRealValues, expectedImagValues, 3, BitReversal.table(size));
+            BitReversal.reorderBlocked(realValues, imagValues, 3, size, blockTable,
+                    BitReversal.table(size / (blockSize * blockSize)));
+
+            Assert.assertArrayEquals("Size: " + size, expectedRealValues, realValues, 0d);
+            Assert.assertArrayEquals("Size: " + size, expectedImagValues, imagValues, 0d);
+        }
+    }
+
+    @Test
+    public void blockedReorderIsUsedForLargeSizes() {
+        int size = FftPlan.MIN_BLOCKED_REORDER_SIZE;
+        Assert.assertTrue(FftPlans.get(size).isBlockedReorder());
+        Assert.assertFalse(FftPlans.get(size / 2).isBlockedReorder());
+
+        // FftReal works on half the size, so it reorders with the table.
+        double[] realValues = getNoise(size, 5);
+        FftDif fftDif = new FftDif(size);
+        double[][] expected = new FftReal(size).forward(realValues);
+        double[][] actual = fftDif.forward(realValues);
+
+        Assert.assertArrayEquals(expected[0], actual[0], 0.0000001);
+        Assert.assertArrayEquals(expected[1], actual[1], 0.0000001);
+        Assert.assertArrayEquals(realValues, fftDif.inverse(actual[0], actual[1]), 0.0000001);
+    }
+
+    /**
+     * The decomp order as it used to be calculated, by recursively splitting lists.
+     */
+    private static int[] listBasedDecomp(int noOfSamples) {
+        List<Integer> input = new ArrayList<>();
+        List<List<Integer>> wrapper = new ArrayList<>();
+        wrapper.add(input);
+
+        for (int i = 0; i < noOfSamples; i++) {
+            input.add(i);
+        }
+
+        while (wrapper.get(0).size() > 1) {
+            int endIndex = wrapper.get(0).size();
+            int middleIndex = endIndex / 2;
+            List<List<Integer>> listsTop = new ArrayList<>();
+            List<List<Integer>> listsBottom = new ArrayList<>();
+
+            for (List<Integer> values : wrapper) {
+                listsTop.add(values.subList(0, middleIndex));
+                listsBottom.add(values.subList(middleIndex, endIndex));
+            }
+
+            wrapper.clear();
+            wrapper.addAll(listsTop);
+            wrapper.addAll(listsBottom);
+        }
+
+        int[] decompArray = new int[noOfSamples];
+
+        for (int i = 0; i < noOfSamples; i++) {
+            decompArray[i] = wrapper.get(i).get(0);
+        }
+
+        return decompArray;
+    }
+}
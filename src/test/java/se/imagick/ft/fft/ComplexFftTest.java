@@ -0,0 +1,154 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class ComplexFftTest {
+
+    private static final ComplexFft[] TRANSFORMS = {
+            new FftDif(64), new FftDif(256, new Radix4Kernel()), new FftMixedRadix(60), new FftBluestein(37),
+            new FftStockham(128), new FftParallel(256), FftPlans.getComplexFft(1)};
+
+    @Test
+    public void forwardComplexGivesSameOutputAsDft() {
+
+        for (ComplexFft fft : TRANSFORMS) {
+            int size = fft.getSize();
+            double[] realValues = getNoise(size, size);
+            double[] imagValues = getNoise(size, size + 1);
+            double[][] actual = fft.forwardComplex(realValues, imagValues);
+
+            for (int k = 0; k < size; k++) {
+                double expectedReal = 0d;
+                double expectedImag = 0d;
+
+                for (int n = 0; n < size; n++) {
+                    double angle = -2d * Math.PI * ((n * k) % size) / size;
+                    expectedReal += realValues[n] * Math.cos(angle) - imagValues[n] * Math.sin(angle);
+                    expectedImag += realValues[n] * Math.sin(angle) + imagValues[n] * Math.cos(angle);
+                }
+
+                String name = fft.getClass().getSimpleName() + " " + size;
+                Assert.assertEquals(name, expectedReal / size, actual[0][k], 0.0000001);
+                Assert.assertEquals(name, expectedImag / size, actual[1][k], 0.0000001);
+            }
+        }
+    }
+
+    @Test
+    public void inverseComplexGivesSameOutputAsInputToForwardComplex() {
+
+        for (ComplexFft fft : TRANSFORMS) {
+            int size = fft.getSize();
+            double[] realValues = getNoise(size, 3);
+            double[] imagValues = getNoise(size, 4);
+            double[][] inverse = fft.inverseComplex(fft.forwardComplex(realValues, imagValues)[0],
+                    fft.forwardComplex(realValues, imagValues)[1]);
+
+            Assert.assertArrayEquals(realValues, inverse[0], 0.0000001);
+            Assert.assertArrayEquals(imagValues, inverse[1], 0.0000001);
+        }
+    }
+
+    @Test
+    public void bufferAndInPlaceVariantsGiveSameOutput() {
+
+        int size = 32;
+        int offset = 3;
+        ComplexFft fft = FftPlans.getComplexFft(size);
+        double[] realValues = getNoise(size, 5);
+        double[] imagValues = getNoise(size, 6);
+        double[][] expected = fft.forwardComplex(realValues, imagValues);
+
+        // Caller buffers, the input is left as it was.
+        double[] realIn = new double[offset + size];
+        double[] imagIn = new double[offset + size];
+        System.arraycopy(realValues, 0, realIn, offset, size);
+        System.arraycopy(imagValues, 0, imagIn, offset, size);
+        double[] realOut = new double[size];
+        double[] imagOut = new double[size];
+        fft.forwardComplex(realIn, imagIn, offset, realOut, imagOut, 0);
+
+        Assert.assertArrayEquals(expected[0], realOut, 0d);
+        Assert.assertArrayEquals(expected[1], imagOut, 0d);
+        Assert.assertEquals(realValues[0], realIn[offset], 0d);
+
+        // In place, and back again.
+        fft.forwardComplex(realIn, imagIn, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(expected[0][i], realIn[offset + i], 0d);
+            Assert.assertEquals(expected[1][i], imagIn[offset + i], 0d);
+        }
+
+        fft.inverseComplex(realIn, imagIn, offset, realOut, imagOut, 0);
+        Assert.assertArrayEquals(realValues, realOut, 0.0000001);
+        Assert.assertArrayEquals(imagValues, imagOut, 0.0000001);
+
+        fft.inverseComplex(realIn, imagIn, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], realIn[offset + i], 0.0000001);
+            Assert.assertEquals(imagValues[i], imagIn[offset + i], 0.0000001);
+        }
+    }
+
+    @Test
+    public void scratchVariantsGiveSameOutput() {
+
+        for (ComplexFft fft : TRANSFORMS) {
+            int size = fft.getSize();
+            int scratchSize = fft.getScratchSize();
+            double[] scratchReal = (scratchSize > 0) ? new double[scratchSize] : null;
+            double[] scratchImag = (scratchSize > 0) ? new double[scratchSize] : null;
+            double[] realValues = getNoise(size, 7);
+            double[] imagValues = getNoise(size, 8);
+            double[][] expected = fft.forwardComplex(realValues, imagValues);
+            double[] realOut = new double[size];
+            double[] imagOut = new double[size];
+            String name = fft.getClass().getSimpleName() + " " + size;
+
+            fft.forwardComplex(realValues, imagValues, 0, realOut, imagOut, 0, scratchReal, scratchImag);
+            Assert.assertArrayEquals(name, expected[0], realOut, 0d);
+            Assert.assertArrayEquals(name, expected[1], imagOut, 0d);
+
+            double[][] expectedInverse = fft.inverseComplex(realOut, imagOut);
+            fft.inverseComplex(realOut, imagOut, 0, scratchReal, scratchImag);
+            Assert.assertArrayEquals(name, expectedInverse[0], realOut, 0d);
+            Assert.assertArrayEquals(name, expectedInverse[1], imagOut, 0d);
+
+            fft.forwardComplex(realOut, imagOut, 0, scratchReal, scratchImag);
+            fft.inverseComplex(realOut, imagOut, 0, realValues, imagValues, 0, scratchReal, scratchImag);
+            Assert.assertArrayEquals(name, expectedInverse[0], realValues, 0.0000001);
+            Assert.assertArrayEquals(name, expectedInverse[1], imagValues, 0.0000001);
+        }
+    }
+
+    @Test
+    public void complexExponentialGivesOneFrequency() {
+
+        int size = 100;
+        double[] realValues = new double[size];
+        double[] imagValues = new double[size];
+
+        // A negative frequency, as from I/Q data below the center frequency.
+        for (int n = 0; n < size; n++) {
+            realValues[n] = 0.5d * Math.cos(-2d * Math.PI * 7 * n / size);
+            imagValues[n] = 0.5d * Math.sin(-2d * Math.PI * 7 * n / size);
+        }
+
+        double[][] spectrum = FftPlans.getComplexFft(size).forwardComplex(realValues, imagValues);
+
+        for (int k = 0; k < size; k++) {
+            double magnitude = Math.hypot(spectrum[0][k], spectrum[1][k]);
+            Assert.assertEquals(k == size - 7 ? 0.5d : 0d, magnitude, 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongLengthIsRejected() {
+        new FftDif(8).forwardComplex(new double[8], new double[7]);
+    }
+}
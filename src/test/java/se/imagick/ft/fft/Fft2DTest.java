@@ -0,0 +1,97 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class Fft2DTest {
+
+    @Test
+    public void forwardGivesSameOutputAsDft() {
+
+        for (int[] size : new int[][]{{1, 1}, {8, 8}, {16, 4}, {12, 10}, {7, 13}}) {
+            int width = size[0];
+            int height = size[1];
+            double[] values = getNoise(width * height, width + height);
+
+            double[][] actual = new Fft2D(width, height).forward(values);
+
+            for (int ky = 0; ky < height; ky++) {
+                for (int kx = 0; kx < width; kx++) {
+                    double re = 0d;
+                    double im = 0d;
+
+                    for (int y = 0; y < height; y++) {
+                        for (int x = 0; x < width; x++) {
+                            double angle = 2d * Math.PI * ((double) kx * x / width + (double) ky * y / height);
+                            re += values[y * width + x] * Math.cos(angle);
+                            im -= values[y * width + x] * Math.sin(angle);
+                        }
+                    }
+
+                    String message = width + "x" + height + " [" + ky + "][" + kx + "]";
+                    Assert.assertEquals(message, re / (width * height), actual[0][ky * width + kx], 0.0000001);
+                    Assert.assertEquals(message, im / (width * height), actual[1][ky * width + kx], 0.0000001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+        int width = 256;
+        int height = 96;
+        double[] values = getNoise(width * height, 3);
+        Fft2D fft2D = new Fft2D(width, height);
+
+        double[][] spectrum = fft2D.forward(values);
+        double[] inverse = fft2D.inverse(spectrum[0], spectrum[1]);
+
+        Assert.assertArrayEquals(values, inverse, 0.0000001);
+    }
+
+    @Test
+    public void imageBandSurvivesRoundTrip() {
+        int width = 64;
+        int height = 48;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(11);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+
+        Fft2D fft2D = new Fft2D(width, height);
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        for (int band = 0; band < 3; band++) {
+            double[][] spectrum = fft2D.forward(image, band);
+            fft2D.inverse(spectrum[0], spectrum[1], result, band);
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(image.getRGB(x, y), result.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void bandValuesAreClamped() {
+        BufferedImage image = new BufferedImage(3, 1, BufferedImage.TYPE_BYTE_GRAY);
+        Fft2D.setBand(image, 0, new double[]{-10d, 99.6d, 300d});
+
+        Assert.assertArrayEquals(new double[]{0d, 100d, 255d}, Fft2D.getBand(image, 0), 0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongImageSizeIsRejected() {
+        new Fft2D(8, 8).forward(new BufferedImage(8, 4, BufferedImage.TYPE_INT_RGB), 0);
+    }
+}
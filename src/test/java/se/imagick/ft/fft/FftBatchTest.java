@@ -0,0 +1,96 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftBatchTest {
+
+    @Test
+    public void forwardGivesSameOutputAsFftDif() {
+
+        for (int size = 2; size <= 8192; size *= 2) {
+            for (int noOfSignals : new int[]{1, 2, 7, 40}) {
+                double[] signals = getNoise(noOfSignals * size, size + noOfSignals);
+                double[][] spectra = new FftBatch(size).forward(signals, noOfSignals);
+                FftDif fftDif = new FftDif(size);
+                int dftSize = size / 2 + 1;
+
+                for (int signal = 0; signal < noOfSignals; signal++) {
+                    double[] realValues = new double[size];
+                    System.arraycopy(signals, signal * size, realValues, 0, size);
+                    double[][] expected = fftDif.forward(realValues);
+
+                    for (int k = 0; k < dftSize; k++) {
+                        String message = "Size: " + size + " Signal: " + signal + " Index: " + k;
+                        Assert.assertEquals(message, expected[0][k], spectra[0][signal * dftSize + k], 0.0000001);
+                        Assert.assertEquals(message, expected[1][k], spectra[1][signal * dftSize + k], 0.0000001);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsFftDif() {
+        int size = 1024;
+        int noOfSignals = 33;
+        int dftSize = size / 2 + 1;
+        double[] realSpectra = getNoise(noOfSignals * dftSize, 1);
+        double[] imagSpectra = getNoise(noOfSignals * dftSize, 2);
+
+        double[] signals = new FftBatch(size).inverse(realSpectra, imagSpectra, noOfSignals);
+
+        for (int signal = 0; signal < noOfSignals; signal++) {
+            double[] re = new double[dftSize];
+            double[] im = new double[dftSize];
+            System.arraycopy(realSpectra, signal * dftSize, re, 0, dftSize);
+            System.arraycopy(imagSpectra, signal * dftSize, im, 0, dftSize);
+            double[] expected = new FftDif(size).inverse(re, im);
+
+            for (int n = 0; n < size; n++) {
+                Assert.assertEquals("Signal: " + signal + " Index: " + n, expected[n], signals[signal * size + n], 0.0000001);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+        int size = 256;
+        int noOfSignals = 256;
+        double[] signals = getNoise(noOfSignals * size, 3);
+        FftBatch fftBatch = new FftBatch(size);
+
+        double[][] spectra = fftBatch.forward(signals, noOfSignals);
+
+        Assert.assertArrayEquals(signals, fftBatch.inverse(spectra[0], spectra[1], noOfSignals), 0.0000001);
+    }
+
+    @Test
+    public void parallelGivesSameOutputAsSequential() {
+        int size = 512;
+        int noOfSignals = 101;
+        double[] signals = getNoise(noOfSignals * size, 4);
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            double[][] expected = new FftBatch(size).forward(signals, noOfSignals);
+            FftBatch parallelBatch = new FftBatch(size, pool);
+            double[][] actual = parallelBatch.forward(signals, noOfSignals);
+
+            Assert.assertArrayEquals(expected[0], actual[0], 0d);
+            Assert.assertArrayEquals(expected[1], actual[1], 0d);
+            Assert.assertArrayEquals(signals, parallelBatch.inverse(actual[0], actual[1], noOfSignals), 0.0000001);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallOutputIsRejected() {
+        new FftBatch(16).forward(new double[32], 2, new double[17], new double[18]);
+    }
+}
@@ -0,0 +1,254 @@
+package se.imagick.ft.fft;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simple throughput comparison of the FFT implementations (not run as a part of the tests).
+ * Run the main method with the test classpath, preferably with a fixed heap (-Xms1g -Xmx1g).
+ * To include the vector kernel on Java 17, add target/classes/META-INF/versions/17 to the classpath
+ * and start with --add-modules jdk.incubator.vector.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class FftBenchmark {
+
+    private static final int MIN_SIZE = 1 << 10;
+    private static final int MAX_SIZE = 1 << 20;
+    private static final long MIN_NANOS_PER_ROUND = 200_000_000L;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        benchmarkPowersOfTwo();
+        benchmarkStockham();
+        benchmarkRoundTrip();
+        benchmarkFirFilter();
+        benchmarkBatch();
+        benchmarkLargeTransforms();
+        benchmarkOtherSizes();
+    }
+
+    private static void benchmarkPowersOfTwo() {
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size *= 4) {
+            double[] realValues = getSamples(size);
+            double[] re = new double[size];
+            double[] im = new double[size];
+            float[] floatValues = new float[size];
+            float[] floatRe = new float[size];
+            float[] floatIm = new float[size];
+            FftDif fftDif = new FftDif(size);
+            FftDif fftDifRadix4 = new FftDif(size, new Radix4Kernel());
+            FftDif fftDifFastest = new FftDif(size, FftKernels.getFastest());
+            FftReal fftReal = new FftReal(size);
+            FftDifFloat fftDifFloat = new FftDifFloat(size);
+
+            for (int i = 0; i < size; i++) {
+                floatValues[i] = (float) realValues[i];
+            }
+
+            System.out.println("Size: " + size);
+            benchmark("  FftDif (radix 2) ", size, () -> fftDif.forward(realValues, re, im));
+            benchmark("  FftDif (radix 4) ", size, () -> fftDifRadix4.forward(realValues, re, im));
+            benchmark("  FftDif (fastest) ", size, () -> fftDifFastest.forward(realValues, re, im));
+            benchmark("  FftReal          ", size, () -> fftReal.forward(realValues, re, im));
+            benchmark("  FftDifFloat      ", size, () -> fftDifFloat.forward(floatValues, floatRe, floatIm));
+        }
+    }
+
+    /**
+     * Complex transforms in frequency order, FftDif (butterflies and reorder through the decomp order)
+     * compared with FftStockham (no reorder, but a scratch area).
+     */
+    private static void benchmarkStockham() {
+        for (int size = MIN_SIZE; size <= 1 << 22; size *= 4) {
+            FftDif fftDif = new FftDif(size, new Radix4Kernel());
+            FftDif fftDifFastest = new FftDif(size, FftKernels.getFastest());
+            FftStockham fftStockham = new FftStockham(size);
+            double[] re = getSamples(size);
+            double[] im = getSamples(size);
+            double[] scratchRe = new double[size];
+            double[] scratchIm = new double[size];
+
+            System.out.println("Size: " + size);
+            benchmark("  FftDif (radix 4) ", size, () -> fftDif.transform(re, im, 0));
+            benchmark("  FftDif (fastest) ", size, () -> fftDifFastest.transform(re, im, 0));
+            benchmark("  FftStockham      ", size, () -> fftStockham.transform(re, im, 0, scratchRe, scratchIm));
+        }
+    }
+
+    /**
+     * A complex forward and inverse transform (as in a convolution), with and without reordering.
+     */
+    private static void benchmarkRoundTrip() {
+        for (int size = MIN_SIZE; size <= 1 << 22; size *= 16) {
+            FftDif fftDif = new FftDif(size, new Radix4Kernel());
+            double[] re = getSamples(size);
+            double[] im = getSamples(size);
+
+            System.out.println("Round trip size: " + size);
+            benchmark("  transform x 2     ", size, () -> {
+                fftDif.transform(im, re, 0);
+                fftDif.transform(re, im, 0);
+            });
+            benchmark("  forward/inverseRaw", size, () -> {
+                fftDif.forwardRaw(re, im, 0);
+                fftDif.inverseRaw(re, im, 0);
+            });
+        }
+    }
+
+    /**
+     * A stereo FIR filter of 4096 taps, block convolution compared with direct convolution.
+     */
+    private static void benchmarkFirFilter() {
+        int noOfTaps = 4096;
+        int noOfSamples = 1 << 16;
+        double[] taps = getSamples(noOfTaps);
+        double[][] channels = {getSamples(noOfSamples), getSamples(noOfSamples)};
+        double[][] output = new double[2][noOfSamples];
+        FftFirFilter filter = new FftFirFilter(taps, 2);
+
+        System.out.println("FIR filter: " + noOfTaps + " taps, 2 channels");
+        benchmark("  FftFirFilter     ", noOfSamples, () -> {
+            for (int offset = 0; offset < noOfSamples; offset += 1024) {
+                filter.process(channels, offset, 1024);
+            }
+        });
+        benchmark("  Direct           ", noOfSamples, () -> {
+            for (int channel = 0; channel < 2; channel++) {
+                for (int n = noOfTaps; n < noOfSamples; n++) {
+                    double sum = 0d;
+
+                    for (int tap = 0; tap < noOfTaps; tap++) {
+                        sum += taps[tap] * channels[channel][n - tap];
+                    }
+
+                    output[channel][n] = sum;
+                }
+            }
+        });
+    }
+
+    /**
+     * A block of 256 signals of 1024 values, one at a time compared with the batch.
+     */
+    private static void benchmarkBatch() {
+        int size = 1024;
+        int noOfSignals = 256;
+        double[] signals = getSamples(noOfSignals * size);
+        double[] batchRe = new double[noOfSignals * (size / 2 + 1)];
+        double[] batchIm = new double[noOfSignals * (size / 2 + 1)];
+        double[] re = new double[size];
+        double[] im = new double[size];
+        FftDif fftDif = new FftDif(size, new Radix4Kernel());
+        FftReal fftReal = new FftReal(size, new Radix4Kernel());
+        FftBatch fftBatch = new FftBatch(size);
+        FftBatch parallelFftBatch = new FftBatch(size, ForkJoinPool.commonPool());
+
+        System.out.println("Batch: " + noOfSignals + " x " + size);
+        benchmark("  FftDif (radix 4) ", noOfSignals * size, () -> {
+            for (int signal = 0; signal < noOfSignals; signal++) {
+                fftDif.forward(signals, signal * size, re, im, 0);
+            }
+        });
+        benchmark("  FftReal (radix 4)", noOfSignals * size, () -> {
+            for (int signal = 0; signal < noOfSignals; signal++) {
+                fftReal.forward(signals, signal * size, re, im, 0);
+            }
+        });
+        benchmark("  FftBatch         ", noOfSignals * size, () -> fftBatch.forward(signals, noOfSignals, batchRe, batchIm));
+        benchmark("  FftBatch (pool)  ", noOfSignals * size, () -> parallelFftBatch.forward(signals, noOfSignals, batchRe, batchIm));
+    }
+
+    /**
+     * Very large complex transforms, sequential compared with the parallel six step transform.
+     */
+    private static void benchmarkLargeTransforms() {
+        for (int size = 1 << 20; size <= 1 << 22; size *= 4) {
+            FftDif fftDif = new FftDif(size, new Radix4Kernel());
+            FftParallel fftParallel = new FftParallel(size);
+            double[] re = getSamples(size);
+            double[] im = getSamples(size);
+            double[] scratchRe = new double[size];
+            double[] scratchIm = new double[size];
+
+            System.out.println("Size: " + size + " (" + Runtime.getRuntime().availableProcessors() + " processors)");
+            benchmark("  FftDif (radix 4) ", size, () -> fftDif.transform(re, im, 0));
+            benchmark("  FftParallel      ", size, () -> fftParallel.transform(re, im, 0, scratchRe, scratchIm));
+        }
+    }
+
+    /**
+     * Complex transforms of sizes that are not a power of two, compared with zero padding to one.
+     */
+    private static void benchmarkOtherSizes() {
+        for (int size : new int[]{1000, 1920, 10007, 44100}) {
+            ComplexFft fft = (ComplexFft) FftPlans.getFft(size);
+            int paddedSize = Integer.highestOneBit(size - 1) * 2;
+            FftDif paddedFft = new FftDif(paddedSize);
+            double[] re = getSamples(paddedSize);
+            double[] im = getSamples(paddedSize);
+            double[] scratchRe = new double[Math.max(fft.getScratchSize(), 1)];
+            double[] scratchIm = new double[Math.max(fft.getScratchSize(), 1)];
+
+            System.out.println("Size: " + size);
+            benchmark("  " + fft.getClass().getSimpleName(), size, () -> fft.transform(re, im, 0, scratchRe, scratchIm));
+            benchmark("  FftDif (" + paddedSize + ")", size, () -> paddedFft.transform(re, im, 0));
+        }
+    }
+
+    private static void benchmark(String name, int size, Runnable transform) {
+        long best = Long.MAX_VALUE;
+        int noOfCalls = 1;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < noOfCalls; i++) {
+                transform.run();
+            }
+
+            long nanos = System.nanoTime() - start;
+            best = Math.min(best, nanos / noOfCalls);
+
+            if (nanos < MIN_NANOS_PER_ROUND) {
+                noOfCalls *= 2;
+                round--;
+            }
+        }
+
+        System.out.printf("%s %12.1f us/transform %8.2f ns/point%n", name, best / 1000d, (double) best / size);
+    }
+
+    private static double[] getSamples(int size) {
+        Random random = new Random(4711);
+        double[] samples = new double[size];
+
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        return samples;
+    }
+}
@@ -0,0 +1,41 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.FftMixedRadixTest.assertInverseGivesInput;
+import static se.imagick.ft.fft.FftMixedRadixTest.assertSameAsNaiveDft;
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftBluesteinTest {
+
+    @Test
+    public void forwardGivesSameOutputAsDft() {
+
+        for (int size = 1; size <= 100; size++) {
+            assertSameAsNaiveDft(new FftBluestein(size), 0.0000001);
+        }
+
+        assertSameAsNaiveDft(new FftBluestein(1009), 0.0000001);
+        assertSameAsNaiveDft(new FftBluestein(2 * 1013), 0.0000001);
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+
+        for (int size : new int[]{1, 2, 7, 97, 1009, 10007, 65537}) {
+            assertInverseGivesInput(new FftBluestein(size), 0.0000001);
+        }
+    }
+
+    @Test
+    public void sameOutputAsFftMixedRadix() {
+        int size = 44100;
+        double[] realValues = getNoise(size, 17);
+        double[][] expected = new FftMixedRadix(size).forward(realValues);
+        double[][] actual = new FftBluestein(size).forward(realValues);
+
+        Assert.assertArrayEquals(expected[0], actual[0], 0.0000001);
+        Assert.assertArrayEquals(expected[1], actual[1], 0.0000001);
+    }
+}
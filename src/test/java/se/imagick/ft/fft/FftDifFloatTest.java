@@ -0,0 +1,87 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getFloatNoise;
+
+public class FftDifFloatTest {
+
+    @Test
+    public void forwardGivesSameOutputAsFftDifWithinBound() {
+        for (int size = 2; size <= 1 << 16; size *= 2) {
+            float[] realValues = getFloatNoise(size, size);
+            double[] doubleValues = new double[size];
+
+            for (int i = 0; i < size; i++) {
+                doubleValues[i] = realValues[i];
+            }
+
+            float[][] actual = new FftDifFloat(size).forward(realValues);
+            double[][] expected = new FftDif(size).forward(doubleValues);
+            double bound = 4E-8 * Integer.numberOfTrailingZeros(size);
+
+            Assert.assertEquals(size / 2 + 1, actual[0].length);
+
+            for (int k = 0; k < expected[0].length; k++) {
+                double error = Math.hypot(actual[0][k] - expected[0][k], actual[1][k] - expected[1][k]);
+                Assert.assertTrue("Size: " + size + ", frequency: " + k + ", error: " + error, error < bound);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForwardWithinBound() {
+        for (int size = 2; size <= 1 << 16; size *= 2) {
+            FftDifFloat fft = new FftDifFloat(size);
+            float[] realValues = getFloatNoise(size, size + 1);
+            float[][] complexArrays = fft.forward(realValues);
+            float[] inverse = fft.inverse(complexArrays[0], complexArrays[1]);
+            double bound = 1E-7 * Integer.numberOfTrailingZeros(size);
+
+            Assert.assertArrayEquals("Size: " + size, realValues, inverse, (float) bound);
+        }
+    }
+
+    @Test
+    public void forwardAndInverseWithOffsetsGiveSameOutputAsAllocating() {
+        int size = 256;
+        int offset = 5;
+        FftDifFloat fft = new FftDifFloat(size);
+        float[] realValues = getFloatNoise(size, 7);
+        float[] values = new float[offset + size];
+        float[] re = new float[offset + size];
+        float[] im = new float[offset + size];
+        System.arraycopy(realValues, 0, values, offset, size);
+
+        float[][] expected = fft.forward(realValues);
+        fft.forward(values, offset, re, im, offset);
+
+        for (int k = 0; k <= size / 2; k++) {
+            Assert.assertEquals(expected[0][k], re[offset + k], 0f);
+            Assert.assertEquals(expected[1][k], im[offset + k], 0f);
+        }
+
+        fft.inverse(re, im, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], re[offset + i], 1E-6f);
+        }
+    }
+
+    @Test
+    public void scalarKernelGivesSameOutputAsFastest() {
+        int size = 1 << 12;
+        float[] realValues = getFloatNoise(size, 11);
+        float[][] expected = new FftDifFloat(size).forward(realValues);
+        float[][] actual = new FftDifFloat(size, new FloatRadix4Kernel()).forward(realValues);
+
+        Assert.assertArrayEquals(expected[0], actual[0], 1E-6f);
+        Assert.assertArrayEquals(expected[1], actual[1], 1E-6f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongArrayLengthIsRejected() {
+        new FftDifFloat(16).forward(new float[15]);
+    }
+}
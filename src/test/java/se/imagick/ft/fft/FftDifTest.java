@@ -6,6 +6,12 @@ import se.imagick.ft.common.Complex;
 import se.imagick.ft.common.FTUtils;
 import se.imagick.ft.common.Polar;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
 public class FftDifTest {
 
     @Test
@@ -83,6 +89,195 @@ public class FftDifTest {
         }
     }
 
+    @Test
+    public void forwardWithBuffersGivesSameOutputAsForward() {
+
+        int size = 32;
+        int inOffset = 3;
+        int outOffset = 5;
+        double[] realValues = getNoise(size, 17);
+        double[] realValuesIn = new double[size + inOffset];
+        System.arraycopy(realValues, 0, realValuesIn, inOffset, size);
+
+        FftDif fftDif = new FftDif(size);
+        double[][] complexArrays = fftDif.forward(realValues);
+        double[] realValuesOut = new double[size + outOffset];
+        double[] imagValuesOut = new double[size + outOffset];
+        fftDif.forward(realValuesIn, inOffset, realValuesOut, imagValuesOut, outOffset);
+
+        for (int i = 0; i < size / 2 + 1; i++) {
+            Assert.assertEquals(complexArrays[0][i], realValuesOut[outOffset + i], 0.0000001);
+            Assert.assertEquals(complexArrays[1][i], imagValuesOut[outOffset + i], 0.0000001);
+        }
+    }
+
+    @Test
+    public void forwardInPlaceGivesSameOutputAsForward() {
+
+        int size = 16;
+        double[] realValues = getNoise(size, 42);
+
+        FftDif fftDif = new FftDif(size);
+        double[][] complexArrays = fftDif.forward(realValues);
+        double[] imagValues = new double[size];
+        fftDif.forward(realValues, realValues, imagValues);
+
+        for (int i = 0; i < size / 2 + 1; i++) {
+            Assert.assertEquals(complexArrays[0][i], realValues[i], 0.0000001);
+            Assert.assertEquals(complexArrays[1][i], imagValues[i], 0.0000001);
+        }
+    }
+
+    @Test
+    public void inverseWithBuffersGivesSameOutputAsInputToForward() {
+
+        int size = 64;
+        int offset = 7;
+        double[] realValues = getNoise(size, 1234);
+
+        FftDif fftDif = new FftDif(size);
+        double[] re = new double[size + offset];
+        double[] im = new double[size + offset];
+        double[] inverse = new double[size + offset];
+        fftDif.forward(realValues, 0, re, im, offset);
+        fftDif.inverse(re, im, offset, inverse, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], inverse[offset + i], 0.0000001);
+        }
+
+        fftDif.forward(realValues, 0, re, im, offset);
+        fftDif.inverse(re, im, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], re[offset + i], 0.0000001);
+        }
+    }
+
+    @Test
+    public void forwardRawGivesSpectrumInDecompOrder() {
+
+        int size = 32;
+        double[] realValues = getNoise(size, 17);
+        double[] imagValues = getNoise(size, 18);
+        double[] re = realValues.clone();
+        double[] im = imagValues.clone();
+
+        FftDif fftDif = new FftDif(size, new Radix4Kernel());
+        fftDif.forwardRaw(re, im, 0);
+
+        for (int k = 0; k < size; k++) {
+            double expectedReal = 0d;
+            double expectedImag = 0d;
+
+            for (int n = 0; n < size; n++) {
+                double angle = -2d * Math.PI * ((n * k) % size) / size;
+                expectedReal += realValues[n] * Math.cos(angle) - imagValues[n] * Math.sin(angle);
+                expectedImag += realValues[n] * Math.sin(angle) + imagValues[n] * Math.cos(angle);
+            }
+
+            Assert.assertEquals(expectedReal, re[fftDif.getDecompIndex(k)], 0.0000001);
+            Assert.assertEquals(expectedImag, im[fftDif.getDecompIndex(k)], 0.0000001);
+        }
+    }
+
+    @Test
+    public void inverseRawGivesSameOutputAsInputToForwardRaw() {
+
+        int offset = 5;
+
+        for (int size = 1; size <= 1 << 14; size *= 2) {
+            for (FftKernel kernel : new FftKernel[]{new Radix2Kernel(), new Radix4Kernel()}) {
+                double[] realValues = getNoise(size, size);
+                double[] imagValues = getNoise(size, size + 1);
+                double[] re = new double[size + offset];
+                double[] im = new double[size + offset];
+                System.arraycopy(realValues, 0, re, offset, size);
+                System.arraycopy(imagValues, 0, im, offset, size);
+
+                FftDif fftDif = new FftDif(size, kernel);
+                fftDif.forwardRaw(re, im, offset);
+                fftDif.inverseRaw(re, im, offset);
+
+                for (int i = 0; i < size; i++) {
+                    Assert.assertEquals(realValues[i], re[offset + i] / size, 0.0000001);
+                    Assert.assertEquals(imagValues[i], im[offset + i] / size, 0.0000001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void convolveGivesSameOutputAsCircularConvolution() {
+
+        for (int size = 1; size <= 256; size *= 2) {
+            double[] a = getNoise(size, 3);
+            double[] b = getNoise(size, 4);
+            double[] convolution = new FftDif(size).convolve(a, b);
+
+            for (int n = 0; n < size; n++) {
+                double expected = 0d;
+
+                for (int m = 0; m < size; m++) {
+                    expected += a[m] * b[(n - m + size) % size];
+                }
+
+                Assert.assertEquals(expected, convolution[n], 0.0000001);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void forwardWithTooSmallBuffersIsRejected() {
+        FftDif fftDif = new FftDif(8);
+        fftDif.forward(new double[8], new double[5], new double[5]);
+    }
+
+    @Test
+    public void forwardAndInverseWithDirectBuffers() {
+
+        int size = 256;
+        double[] realValues = getNoise(size, 31);
+        double[][] expected = new FftDif(size).forward(realValues);
+
+        // A frame after a header of one value, as it could arrive from a socket.
+        ByteBuffer bytes = ByteBuffer.allocateDirect((size + 1) * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer buffer = bytes.asDoubleBuffer();
+        buffer.put(0, 4711d);
+
+        for (int i = 0; i < size; i++) {
+            buffer.put(1 + i, realValues[i]);
+        }
+
+        buffer.position(1);
+        FftDif fft = new FftDif(size);
+        double[] re = new double[size];
+        double[] im = new double[size];
+        fft.forward(buffer, re, im, 0);
+
+        Assert.assertEquals(size + 1, buffer.position());
+
+        for (int i = 0; i < size / 2 + 1; i++) {
+            Assert.assertEquals(expected[0][i], re[i], 0.0000001);
+            Assert.assertEquals(expected[1][i], im[i], 0.0000001);
+        }
+
+        DoubleBuffer inverse = DoubleBuffer.allocate(size + 1);
+        inverse.position(1);
+        fft.inverse(re, im, 0, inverse);
+
+        Assert.assertEquals(size + 1, inverse.position());
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], inverse.get(1 + i), 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewValuesInBufferIsRejected() {
+        new FftDif(8).forward(DoubleBuffer.allocate(7), new double[8], new double[8], 0);
+    }
+
     private void assertFrequencies(int freq, double amplitude, double phase, double[][] complexArrays) {
         Complex complex = new Complex(complexArrays[0][freq], complexArrays[1][freq]);
         Polar polar = new Polar();
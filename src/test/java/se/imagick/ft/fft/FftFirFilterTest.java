@@ -0,0 +1,111 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftFirFilterTest {
+
+    @Test
+    public void slideGivesSameOutputAsDirectConvolution() {
+
+        double[] taps = getNoise(100, 1);
+        int noOfSamples = 1000;
+
+        // An odd number of channels, so that one channel is transformed on its own.
+        double[][] channels = {getNoise(noOfSamples, 2), getNoise(noOfSamples, 3), getNoise(noOfSamples, 4)};
+        FftFirFilter filter = new FftFirFilter(taps, channels.length, 256);
+        int latency = filter.getLatencyInSamples();
+        double[] sample = new double[channels.length];
+
+        Assert.assertEquals(256 - 100 + 1, latency);
+
+        for (int n = 0; n < noOfSamples; n++) {
+            for (int channel = 0; channel < channels.length; channel++) {
+                sample[channel] = channels[channel][n];
+            }
+
+            filter.slide(sample);
+
+            for (int channel = 0; channel < channels.length; channel++) {
+                double expected = (n >= latency) ? convolve(channels[channel], taps, n - latency) : 0d;
+                Assert.assertEquals(expected, sample[channel], 0.0000001);
+            }
+        }
+    }
+
+    @Test
+    public void processGivesSameOutputAsSlide() {
+
+        double[] taps = getNoise(33, 5);
+        int noOfSamples = 777;
+        double[][] channels = {getNoise(noOfSamples, 6), getNoise(noOfSamples, 7)};
+        double[][] processed = {channels[0].clone(), channels[1].clone()};
+
+        FftFirFilter slideFilter = new FftFirFilter(taps, 2);
+        FftFirFilter processFilter = new FftFirFilter(taps, 2);
+        double[] sample = new double[2];
+
+        for (int n = 0; n < noOfSamples; n++) {
+            sample[0] = channels[0][n];
+            sample[1] = channels[1][n];
+            slideFilter.slide(sample);
+            channels[0][n] = sample[0];
+            channels[1][n] = sample[1];
+        }
+
+        // Chunks that don't line up with the blocks.
+        for (int offset = 0; offset < noOfSamples; offset += 50) {
+            processFilter.process(processed, offset, Math.min(50, noOfSamples - offset));
+        }
+
+        Assert.assertArrayEquals(channels[0], processed[0], 0.0000001);
+        Assert.assertArrayEquals(channels[1], processed[1], 0.0000001);
+    }
+
+    @Test
+    public void defaultFftSizeIsTwiceTheTaps() {
+        Assert.assertEquals(8192, new FftFirFilter(new double[4096], 1).getFftSize());
+        Assert.assertEquals(8192, new FftFirFilter(new double[4000], 1).getFftSize());
+        Assert.assertEquals(2, new FftFirFilter(new double[1], 1).getFftSize());
+    }
+
+    @Test
+    public void resetClearsSamples() {
+
+        FftFirFilter filter = new FftFirFilter(new double[]{1d}, 1, 4);
+        double[] sample = new double[1];
+
+        for (int n = 0; n < 10; n++) {
+            sample[0] = n + 1;
+            filter.slide(sample);
+        }
+
+        filter.reset();
+
+        for (int n = 0; n < 4; n++) {
+            sample[0] = 5d;
+            filter.slide(sample);
+            Assert.assertEquals(0d, sample[0], 0d);
+        }
+
+        filter.slide(sample);
+        Assert.assertEquals(5d, sample[0], 0.0000001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallFftSizeIsRejected() {
+        new FftFirFilter(new double[64], 1, 64);
+    }
+
+    private static double convolve(double[] values, double[] taps, int n) {
+        double sum = 0d;
+
+        for (int tap = 0; tap < taps.length && tap <= n; tap++) {
+            sum += taps[tap] * values[n - tap];
+        }
+
+        return sum;
+    }
+}
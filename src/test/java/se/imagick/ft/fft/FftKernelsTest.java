@@ -0,0 +1,103 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftKernelsTest {
+
+    @Test
+    public void fastestKernelGivesSameOutputAsRadix2() {
+
+        FftKernel kernel = FftKernels.getFastest();
+
+        for (int size = 2; size <= 1 << 16; size *= 2) {
+            double[] expectedReal = getNoise(size, size);
+            double[] expectedImag = getNoise(size, size + 1);
+            double[] actualReal = expectedReal.clone();
+            double[] actualImag = expectedImag.clone();
+            FftPlan plan = FftPlans.get(size);
+
+            new Radix2Kernel().transform(plan, expectedReal, expectedImag, 0);
+            kernel.transform(plan, actualReal, actualImag, 0);
+
+            Assert.assertArrayEquals("Size: " + size, expectedReal, actualReal, 0.000000001);
+            Assert.assertArrayEquals("Size: " + size, expectedImag, actualImag, 0.000000001);
+        }
+    }
+
+    @Test
+    public void fastestKernelWorksWithOffset() {
+
+        int size = 1024;
+        int offset = 5;
+        FftPlan plan = FftPlans.get(size);
+        double[] expectedReal = getNoise(size, 1);
+        double[] expectedImag = getNoise(size, 2);
+        double[] actualReal = new double[size + offset];
+        double[] actualImag = new double[size + offset];
+        System.arraycopy(expectedReal, 0, actualReal, offset, size);
+        System.arraycopy(expectedImag, 0, actualImag, offset, size);
+
+        new Radix4Kernel().transform(plan, expectedReal, expectedImag, 0);
+        FftKernels.getFastest().transform(plan, actualReal, actualImag, offset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(expectedReal[i], actualReal[offset + i], 0.000000001);
+            Assert.assertEquals(expectedImag[i], actualImag[offset + i], 0.000000001);
+        }
+    }
+
+    @Test
+    public void vectorKernelIsUsedOnJava17() {
+        // Only when the build (and the test run) includes the Java 17 part, see the jdk17 profile.
+        Assume.assumeTrue(getClass().getResource("/se/imagick/ft/fft/VectorRadix4Kernel.class") != null);
+
+        Assert.assertTrue(FftKernels.isVectorKernelAvailable());
+        Assert.assertEquals("VectorRadix4Kernel", FftKernels.getFastest().getClass().getSimpleName());
+    }
+
+    @Test
+    public void fastestFloatKernelGivesSameOutputAsFloatRadix4() {
+
+        FloatFftKernel kernel = FftKernels.getFastestFloat();
+        int offset = 3;
+
+        for (int size = 2; size <= 1 << 16; size *= 2) {
+            float[] expectedReal = toFloat(getNoise(size, size));
+            float[] expectedImag = toFloat(getNoise(size, size + 1));
+            float[] actualReal = new float[size + offset];
+            float[] actualImag = new float[size + offset];
+            System.arraycopy(expectedReal, 0, actualReal, offset, size);
+            System.arraycopy(expectedImag, 0, actualImag, offset, size);
+            FftPlan plan = FftPlans.get(size);
+
+            new FloatRadix4Kernel().transform(plan, expectedReal, expectedImag, 0);
+            kernel.transform(plan, actualReal, actualImag, offset);
+
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals("Size: " + size, expectedReal[i], actualReal[offset + i], 0.0001f);
+                Assert.assertEquals("Size: " + size, expectedImag[i], actualImag[offset + i], 0.0001f);
+            }
+        }
+    }
+
+    @Test
+    public void vectorFloatKernelIsUsedOnJava17() {
+        Assume.assumeTrue(getClass().getResource("/se/imagick/ft/fft/VectorFloatRadix4Kernel.class") != null);
+
+        Assert.assertEquals("VectorFloatRadix4Kernel", FftKernels.getFastestFloat().getClass().getSimpleName());
+    }
+
+    private static float[] toFloat(double[] values) {
+        float[] floatValues = new float[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            floatValues[i] = (float) values[i];
+        }
+
+        return floatValues;
+    }
+}
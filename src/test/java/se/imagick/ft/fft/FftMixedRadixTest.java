@@ -0,0 +1,112 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftMixedRadixTest {
+
+    @Test
+    public void forwardGivesSameOutputAsDft() {
+
+        for (int size = 1; size <= 300; size++) {
+            if (FftMixedRadix.isSupported(size)) {
+                assertSameAsNaiveDft(new FftMixedRadix(size), 0.0000001);
+            }
+        }
+
+        assertSameAsNaiveDft(new FftMixedRadix(1000), 0.0000001);
+        assertSameAsNaiveDft(new FftMixedRadix(1920), 0.0000001);
+    }
+
+    @Test
+    public void otherFactorsGiveSameOutputAsDft() {
+        assertSameAsNaiveDft(new FftMixedRadix(11), 0.0000001);
+        assertSameAsNaiveDft(new FftMixedRadix(4 * 13 * 3), 0.0000001);
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+
+        for (int size : new int[]{1, 2, 3, 6, 15, 49, 100, 1000, 44100}) {
+            assertInverseGivesInput(new FftMixedRadix(size), 0.0000001);
+        }
+    }
+
+    @Test
+    public void powersOfTwoGiveSameOutputAsFftDif() {
+
+        for (int size = 2; size <= 4096; size *= 2) {
+            double[] realValues = getNoise(size, size);
+            double[][] expected = new FftDif(size).forward(realValues);
+            double[][] actual = new FftMixedRadix(size).forward(realValues);
+
+            Assert.assertArrayEquals(expected[0], actual[0], 0.0000001);
+            Assert.assertArrayEquals(expected[1], actual[1], 0.0000001);
+        }
+    }
+
+    @Test
+    public void supportedSizes() {
+        Assert.assertTrue(FftMixedRadix.isSupported(44100));
+        Assert.assertTrue(FftMixedRadix.isSupported(1920));
+        Assert.assertTrue(FftMixedRadix.isSupported(1));
+        Assert.assertFalse(FftMixedRadix.isSupported(22));
+        Assert.assertFalse(FftMixedRadix.isSupported(10007));
+        Assert.assertFalse(FftMixedRadix.isSupported(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongLengthIsRejected() {
+        new FftMixedRadix(100).forward(new double[99]);
+    }
+
+    /**
+     * The positive half of a plain DFT, scaled like FftDif.forward.
+     */
+    static double[][] naiveDft(double[] realValues) {
+        int size = realValues.length;
+        int dftSize = size / 2 + 1;
+        double[] re = new double[dftSize];
+        double[] im = new double[dftSize];
+
+        for (int k = 0; k < dftSize; k++) {
+            for (int n = 0; n < size; n++) {
+                double angle = 2d * Math.PI * (((long) n * k) % size) / size;
+                re[k] += realValues[n] * Math.cos(angle);
+                im[k] -= realValues[n] * Math.sin(angle);
+            }
+
+            boolean isOwnMirror = k == 0 || 2 * k == size;
+            re[k] *= (isOwnMirror ? 1d : 2d) / size;
+            im[k] *= (isOwnMirror ? 1d : 2d) / size;
+        }
+
+        return new double[][]{re, im};
+    }
+
+    static void assertSameAsNaiveDft(Fft fft, double tolerance) {
+        int size = fft.getSize();
+        double[] realValues = getNoise(size, size);
+        double[][] expected = naiveDft(realValues);
+        double[][] actual = fft.forward(realValues);
+
+        Assert.assertEquals(expected[0].length, actual[0].length);
+
+        for (int i = 0; i < expected[0].length; i++) {
+            Assert.assertEquals("Size: " + size + " Index: " + i, expected[0][i], actual[0][i], tolerance);
+            Assert.assertEquals("Size: " + size + " Index: " + i, expected[1][i], actual[1][i], tolerance);
+        }
+    }
+
+    static void assertInverseGivesInput(Fft fft, double tolerance) {
+        int size = fft.getSize();
+        double[] realValues = getNoise(size, size + 1);
+        double[] inverse = fft.inverse(fft.forward(realValues)[0], fft.forward(realValues)[1]);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals("Size: " + size + " Index: " + i, realValues[i], inverse[i], tolerance);
+        }
+    }
+}
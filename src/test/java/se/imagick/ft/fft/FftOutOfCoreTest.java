@@ -0,0 +1,104 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftOutOfCoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void forwardGivesSameOutputAsFftDif() throws IOException {
+
+        for (int size = 4; size <= 1 << 14; size *= 2) {
+            double[] realValues = getNoise(size, size);
+            double[][] expected = new FftDif(size).forward(realValues);
+
+            // The smallest possible block, so that the bands are as narrow as they get.
+            int minBlockSize = size / 2 / Integer.highestOneBit((int) Math.sqrt(size / 2));
+            FftOutOfCore fft = new FftOutOfCore(size, minBlockSize, ByteOrder.LITTLE_ENDIAN);
+            assertSameOutput(expected, fft, realValues, ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    @Test
+    public void blockSizeAndByteOrderGiveSameOutput() throws IOException {
+
+        int size = 1 << 12;
+        double[] realValues = getNoise(size, 42);
+        double[][] expected = new FftDif(size).forward(realValues);
+
+        for (int blockSize : new int[]{64, 100, 1000, 1 << 20}) {
+            assertSameOutput(expected, new FftOutOfCore(size, blockSize, ByteOrder.BIG_ENDIAN), realValues,
+                    ByteOrder.BIG_ENDIAN);
+        }
+
+        assertSameOutput(expected, new FftOutOfCore(size), realValues, ByteOrder.nativeOrder());
+    }
+
+    @Test
+    public void mappedValuesCrossSegments() throws IOException {
+
+        File file = folder.newFile();
+        double[] values = getNoise(100, 7);
+        double[] actual = new double[100];
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedDoubles mapped = new MappedDoubles(channel, FileChannel.MapMode.READ_WRITE, 103, ByteOrder.BIG_ENDIAN, 16);
+            mapped.put(3, values, 0, 100);
+            mapped.get(3, actual, 0, 50);
+            mapped.get(53, actual, 50, 50);
+        }
+
+        Assert.assertArrayEquals(values, actual, 0d);
+        Assert.assertEquals(103 * Double.BYTES, file.length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallBlockIsRejected() {
+        new FftOutOfCore(1 << 20, 512, ByteOrder.nativeOrder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherSizesAreRejected() {
+        new FftOutOfCore(1000);
+    }
+
+    private void assertSameOutput(double[][] expected, FftOutOfCore fft, double[] realValues, ByteOrder byteOrder)
+            throws IOException {
+
+        Path input = folder.newFile().toPath();
+        Path output = folder.getRoot().toPath().resolve("output");
+        ByteBuffer inputBytes = ByteBuffer.allocate(realValues.length * Double.BYTES).order(byteOrder);
+        inputBytes.asDoubleBuffer().put(realValues);
+        Files.write(input, inputBytes.array());
+
+        fft.forward(input, output);
+
+        ByteBuffer outputBytes = ByteBuffer.wrap(Files.readAllBytes(output)).order(byteOrder);
+        Assert.assertEquals(2 * expected[0].length * Double.BYTES, outputBytes.capacity());
+
+        for (int k = 0; k < expected[0].length; k++) {
+            Assert.assertEquals(expected[0][k], outputBytes.getDouble(16 * k), 0.0000001);
+            Assert.assertEquals(expected[1][k], outputBytes.getDouble(16 * k + 8), 0.0000001);
+        }
+
+        // Only the input and the output are left.
+        Assert.assertEquals(2, folder.getRoot().list().length);
+        Files.delete(input);
+    }
+}
@@ -0,0 +1,59 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftParallelTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    public void forwardGivesSameOutputAsFftDif() {
+
+        for (int size = 4; size <= 1 << 16; size *= 2) {
+            assertSameAsFftDif(new FftParallel(size), size);
+        }
+    }
+
+    @Test
+    public void largeTransformInOwnPoolGivesSameOutputAsFftDif() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            assertSameAsFftDif(new FftParallel(1 << 20, pool), 1 << 20);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsFftDif() {
+        int size = 1 << 15;
+        double[][] complexArrays = new FftDif(size).forward(getNoise(size, 5));
+
+        double[] expected = new FftDif(size).inverse(complexArrays[0], complexArrays[1]);
+        double[] actual = new FftParallel(size).inverse(complexArrays[0], complexArrays[1]);
+
+        Assert.assertArrayEquals(expected, actual, TOLERANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notPowerOfTwoIsRejected() {
+        new FftParallel(1000);
+    }
+
+    private void assertSameAsFftDif(FftParallel fftParallel, int size) {
+        double[] realValues = getNoise(size, size);
+        double[][] expected = new FftDif(size).forward(realValues);
+        double[][] actual = fftParallel.forward(realValues);
+
+        for (int i = 0; i < expected[0].length; i++) {
+            Assert.assertEquals("Size: " + size + " Index: " + i, expected[0][i], actual[0][i], TOLERANCE);
+            Assert.assertEquals("Size: " + size + " Index: " + i, expected[1][i], actual[1][i], TOLERANCE);
+        }
+    }
+}
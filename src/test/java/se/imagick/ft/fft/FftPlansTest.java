@@ -0,0 +1,130 @@
+package se.imagick.ft.fft;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class FftPlansTest {
+
+    @After
+    public void restoreRegistry() {
+        FftPlans.setMaxMemoryUsage(FftPlans.DEFAULT_MAX_MEMORY_USAGE);
+    }
+
+    @Test
+    public void sameSizeGivesSamePlan() {
+        FftPlan plan = FftPlans.get(512);
+        Assert.assertSame(plan, FftPlans.get(512));
+        Assert.assertEquals(512, plan.getSize());
+        Assert.assertNotSame(plan, FftPlans.get(256));
+    }
+
+    @Test
+    public void concurrentRequestsGiveSamePlan() throws Exception {
+        FftPlans.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<FftPlan>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> FftPlans.get(1 << 14)));
+            }
+
+            FftPlan plan = futures.get(0).get();
+
+            for (Future<FftPlan> future : futures) {
+                Assert.assertSame(plan, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedPlansAreEvicted() {
+        FftPlans.clear();
+        long maxMemoryUsage = FftPlans.get(1024).getMemoryUsage() + FftPlans.get(512).getMemoryUsage();
+        FftPlans.setMaxMemoryUsage(maxMemoryUsage);
+
+        FftPlan plan1 = FftPlans.get(1024);
+        FftPlan plan2 = FftPlans.get(512);
+        FftPlans.get(1024);
+        FftPlans.get(256); // 512 is the least recently used one.
+
+        Assert.assertTrue(FftPlans.getMemoryUsage() <= maxMemoryUsage);
+        Assert.assertSame(plan1, FftPlans.get(1024));
+        Assert.assertNotSame(plan2, FftPlans.get(512));
+    }
+
+    @Test
+    public void tooLargePlansAreNotKept() {
+        FftPlans.clear();
+        FftPlans.setMaxMemoryUsage(1000);
+
+        FftPlan plan = FftPlans.get(1024);
+
+        Assert.assertEquals(0, FftPlans.getNoOfPlans());
+        Assert.assertEquals(1024, plan.getSize());
+    }
+
+    @Test
+    public void memoryUsageCoversPassTwiddles() {
+        FftPlans.clear();
+        int size = 1 << 11; // An odd number of radix 2 passes, so there is a radix 2 table as well.
+        FftPlan plan = FftPlans.get(size);
+        long planMemoryUsage = plan.getMemoryUsage();
+
+        new FftDif(plan, FftKernels.getFastest()).transform(new double[size], new double[size], 0);
+        new FftDifFloat(plan, FftKernels.getFastestFloat()).inverse(new float[size], new float[size], 0);
+
+        if (FftKernels.isVectorKernelAvailable()) {
+            Assert.assertTrue(plan.getMemoryUsage() > planMemoryUsage);
+        }
+
+        Assert.assertEquals(plan.getMemoryUsage(), FftPlans.getMemoryUsage());
+
+        // Calculated by the vector kernels above, or now.
+        plan.getPassTwiddles();
+        plan.getFloatPassTwiddles();
+        // Six values per butterfly of the radix 4 passes and a half lap of cosines and sines for the radix 2 pass,
+        // in double and in float.
+        long noOfValues = 6 * (256 + 64 + 16 + 4) + size;
+        Assert.assertEquals(planMemoryUsage + (Double.BYTES + Float.BYTES) * noOfValues, plan.getMemoryUsage());
+        Assert.assertEquals(plan.getMemoryUsage(), FftPlans.getMemoryUsage());
+    }
+
+    @Test
+    public void transformsShareThePlan() {
+        FftPlan plan = FftPlans.get(64);
+        double[] realValues = new double[64];
+        realValues[3] = 1d;
+
+        double[][] expected = new FftDif(64).forward(realValues);
+        double[][] actual = new FftDif(plan).forward(realValues);
+
+        Assert.assertArrayEquals(expected[0], actual[0], 0d);
+        Assert.assertArrayEquals(expected[1], actual[1], 0d);
+    }
+
+    @Test
+    public void getFftPicksTransformBySize() {
+        Assert.assertTrue(FftPlans.getFft(1024) instanceof FftDif);
+        Assert.assertTrue(FftPlans.getFft(44100) instanceof FftMixedRadix);
+        Assert.assertTrue(FftPlans.getFft(10007) instanceof FftBluestein);
+        Assert.assertSame(FftPlans.getFft(1920), FftPlans.getFft(1920));
+        Assert.assertSame(FftPlans.getFft(1009), FftPlans.getFft(1009));
+        Assert.assertEquals(1000, FftPlans.getFft(1000).getSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notPowerOfTwoIsRejected() {
+        FftPlans.get(100);
+    }
+}
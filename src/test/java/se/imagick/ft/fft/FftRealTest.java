@@ -0,0 +1,121 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftRealTest {
+
+    @Test
+    public void forwardGivesSameOutputAsFftDif() {
+
+        for (int size = 2; size <= 4096; size *= 2) {
+            double[] realValues = getNoise(size, size);
+
+            double[][] expected = new FftDif(size).forward(realValues);
+            double[][] actual = new FftReal(size).forward(realValues);
+
+            Assert.assertEquals(expected[0].length, actual[0].length);
+
+            for (int i = 0; i < expected[0].length; i++) {
+                Assert.assertEquals("Size: " + size + " Index: " + i, expected[0][i], actual[0][i], 0.0000001);
+                Assert.assertEquals("Size: " + size + " Index: " + i, expected[1][i], actual[1][i], 0.0000001);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsFftDif() {
+
+        for (int size = 2; size <= 4096; size *= 2) {
+            double[][] complexArrays = new FftDif(size).forward(getNoise(size, size + 1));
+            // Imaginary values for dc and the last frequency are ignored by both implementations.
+            complexArrays[1][0] = 0.3;
+            complexArrays[1][size / 2] = -0.2;
+
+            double[] expected = new FftDif(size).inverse(complexArrays[0], complexArrays[1]);
+            double[] actual = new FftReal(size).inverse(complexArrays[0], complexArrays[1]);
+
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals("Size: " + size + " Index: " + i, expected[i], actual[i], 0.0000001);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+
+        int size = 256;
+        int inOffset = 3;
+        int outOffset = 11;
+        double[] realValues = getNoise(size, 99);
+        double[] realValuesIn = new double[size + inOffset];
+        System.arraycopy(realValues, 0, realValuesIn, inOffset, size);
+
+        FftReal fftReal = new FftReal(size);
+        double[] re = new double[size / 2 + 1 + outOffset];
+        double[] im = new double[size / 2 + 1 + outOffset];
+        double[] inverse = new double[size + inOffset];
+        fftReal.forward(realValuesIn, inOffset, re, im, outOffset);
+        fftReal.inverse(re, im, outOffset, inverse, inOffset);
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], inverse[inOffset + i], 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeOneIsRejected() {
+        new FftReal(1);
+    }
+
+    @Test
+    public void forwardAndInverseWithDirectBuffers() {
+
+        int size = 256;
+        double[] realValues = getNoise(size, 31);
+        double[][] expected = new FftReal(size).forward(realValues);
+
+        // A frame after a header of one value, as it could arrive from a socket.
+        ByteBuffer bytes = ByteBuffer.allocateDirect((size + 1) * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer buffer = bytes.asDoubleBuffer();
+        buffer.put(0, 4711d);
+
+        for (int i = 0; i < size; i++) {
+            buffer.put(1 + i, realValues[i]);
+        }
+
+        buffer.position(1);
+        FftReal fft = new FftReal(size);
+        double[] re = new double[size / 2 + 1];
+        double[] im = new double[size / 2 + 1];
+        fft.forward(buffer, re, im, 0);
+
+        Assert.assertEquals(size + 1, buffer.position());
+
+        for (int i = 0; i < size / 2 + 1; i++) {
+            Assert.assertEquals(expected[0][i], re[i], 0.0000001);
+            Assert.assertEquals(expected[1][i], im[i], 0.0000001);
+        }
+
+        DoubleBuffer inverse = DoubleBuffer.allocate(size + 1);
+        inverse.position(1);
+        fft.inverse(re, im, 0, inverse);
+
+        Assert.assertEquals(size + 1, inverse.position());
+
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(realValues[i], inverse.get(1 + i), 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewValuesInBufferIsRejected() {
+        new FftReal(8).forward(DoubleBuffer.allocate(7), new double[8], new double[8], 0);
+    }
+}
@@ -0,0 +1,62 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.FftMixedRadixTest.assertInverseGivesInput;
+import static se.imagick.ft.fft.FftMixedRadixTest.assertSameAsNaiveDft;
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class FftStockhamTest {
+
+    @Test
+    public void forwardGivesSameOutputAsDft() {
+
+        for (int size = 1; size <= 512; size *= 2) {
+            assertSameAsNaiveDft(new FftStockham(size), 0.0000001);
+        }
+    }
+
+    @Test
+    public void transformGivesSameOutputAsFftDif() {
+
+        for (int size = 1; size <= 1 << 16; size *= 2) {
+            double[] realValues = getNoise(size, size);
+            double[] imagValues = getNoise(size, size + 1);
+            double[] expectedReal = realValues.clone();
+            double[] expectedImag = imagValues.clone();
+            new FftDif(size).transform(expectedReal, expectedImag, 0);
+
+            // At an offset, to check that the result is copied back to the right place.
+            int offset = 3;
+            double[] actualReal = new double[offset + size];
+            double[] actualImag = new double[offset + size];
+            System.arraycopy(realValues, 0, actualReal, offset, size);
+            System.arraycopy(imagValues, 0, actualImag, offset, size);
+            new FftStockham(size).transform(actualReal, actualImag, offset, new double[size], new double[size]);
+
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(expectedReal[i], actualReal[offset + i], 0.000000001 * size);
+                Assert.assertEquals(expectedImag[i], actualImag[offset + i], 0.000000001 * size);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+
+        for (int size = 2; size <= 1 << 14; size *= 2) {
+            assertInverseGivesInput(new FftStockham(size), 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherSizesAreRejected() {
+        new FftStockham(1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallScratchIsRejected() {
+        new FftStockham(64).transform(new double[64], new double[64], 0, new double[32], new double[32]);
+    }
+}
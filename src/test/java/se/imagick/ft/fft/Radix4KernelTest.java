@@ -0,0 +1,44 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class Radix4KernelTest {
+
+    @Test
+    public void transformGivesSameOutputAsRadix2() {
+
+        for (int size = 1; size <= 1 << 16; size *= 2) {
+            FftPlan plan = FftPlans.get(size);
+            double[] expectedReal = getNoise(size + 2, size);
+            double[] expectedImag = getNoise(size + 2, -size);
+            double[] actualReal = expectedReal.clone();
+            double[] actualImag = expectedImag.clone();
+
+            new Radix2Kernel().transform(plan, expectedReal, expectedImag, 2);
+            new Radix4Kernel().transform(plan, actualReal, actualImag, 2);
+
+            double tolerance = 1e-12 * size;
+            Assert.assertArrayEquals("Size: " + size, expectedReal, actualReal, tolerance);
+            Assert.assertArrayEquals("Size: " + size, expectedImag, actualImag, tolerance);
+        }
+    }
+
+    @Test
+    public void inverseGivesSameOutputAsInputToForward() {
+
+        for (int size = 2; size <= 1 << 12; size *= 2) {
+            double[] realValues = getNoise(size, size);
+            FftDif fftDif = new FftDif(size, new Radix4Kernel());
+
+            double[][] complexArrays = fftDif.forward(realValues);
+            double[][] expected = new FftDif(size).forward(realValues);
+
+            Assert.assertArrayEquals(expected[0], complexArrays[0], 1e-12);
+            Assert.assertArrayEquals(expected[1], complexArrays[1], 1e-12);
+            Assert.assertArrayEquals(realValues, fftDif.inverse(complexArrays[0], complexArrays[1]), 1e-12);
+        }
+    }
+}
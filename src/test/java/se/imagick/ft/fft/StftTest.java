@@ -0,0 +1,125 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static se.imagick.ft.fft.TestSignals.getNoise;
+
+public class StftTest {
+
+    @Test
+    public void framesGiveSameOutputAsFftDifOfWindowedSamples() {
+
+        int frameSize = 64;
+        int hopSize = 24;
+        double[] samples = getNoise(1000, 5);
+        double[] window = Window.HANN.getCoefficients(frameSize);
+        List<double[][]> frames = new ArrayList<>();
+        Stft stft = new Stft(frameSize, hopSize, Window.HANN);
+
+        // Chunks of random sizes, including empty ones.
+        Random random = new Random(1);
+        int offset = 0;
+
+        while (offset < samples.length) {
+            int length = Math.min(random.nextInt(100), samples.length - offset);
+            stft.process(samples, offset, length, (frameNo, re, im) -> {
+                Assert.assertEquals(frames.size(), frameNo);
+                frames.add(new double[][]{re.clone(), im.clone()});
+            });
+            offset += length;
+        }
+
+        Assert.assertEquals((samples.length - frameSize) / hopSize + 1, frames.size());
+        Assert.assertEquals(frames.size(), stft.getNoOfFrames());
+
+        for (int frameNo = 0; frameNo < frames.size(); frameNo++) {
+            double[] windowed = new double[frameSize];
+
+            for (int i = 0; i < frameSize; i++) {
+                // The window is scaled by its mean, which is 0.5 for Hann.
+                windowed[i] = samples[frameNo * hopSize + i] * window[i] * 2d;
+            }
+
+            double[][] expected = new FftDif(frameSize).forward(windowed);
+            Assert.assertArrayEquals(expected[0], frames.get(frameNo)[0], 0.0000001);
+            Assert.assertArrayEquals(expected[1], frames.get(frameNo)[1], 0.0000001);
+        }
+    }
+
+    @Test
+    public void magnitudeIsAmplitude() {
+
+        int frameSize = 256;
+        double[] samples = new double[frameSize];
+
+        for (int i = 0; i < frameSize; i++) {
+            samples[i] = 0.7d * Math.cos(2d * Math.PI * 10 * i / frameSize);
+        }
+
+        for (Window window : Window.values()) {
+            Stft stft = new Stft(frameSize, frameSize, window);
+            int frames = stft.process(samples, (frameNo, re, im) ->
+                    Assert.assertEquals(window.name(), 0.7d, Math.hypot(re[10], im[10]), 0.0000001));
+            Assert.assertEquals(1, frames);
+        }
+    }
+
+    @Test
+    public void hopLargerThanFrameSkipsSamples() {
+
+        double[] samples = getNoise(100, 9);
+        List<Long> frameNos = new ArrayList<>();
+        Stft stft = new Stft(8, 20, Window.RECTANGULAR);
+        stft.process(samples, (frameNo, re, im) -> {
+            frameNos.add(frameNo);
+            double[][] expected = new FftDif(8).forward(Arrays.copyOfRange(samples,
+                    (int) frameNo * 20, (int) frameNo * 20 + 8));
+            Assert.assertArrayEquals(expected[0], re, 0.0000001);
+        });
+
+        // Frames start at 0, 20, 40, 60 and 80 (and end at 7, 27, 47, 67, 87).
+        Assert.assertEquals(5, frameNos.size());
+    }
+
+    @Test
+    public void overlapGivesHopSize() {
+        Assert.assertEquals(512, Stft.withOverlap(1024, 0.5d, Window.HANN).getHopSize());
+        Assert.assertEquals(256, Stft.withOverlap(1024, 0.75d, Window.HANN).getHopSize());
+        Assert.assertEquals(1024, Stft.withOverlap(1024, 0d, Window.HANN).getHopSize());
+        Assert.assertEquals(1, Stft.withOverlap(4, 0.99d, Window.HANN).getHopSize());
+    }
+
+    @Test
+    public void resetStartsOver() {
+
+        double[] samples = getNoise(50, 3);
+        Stft stft = new Stft(16, 4, Window.BLACKMAN);
+        stft.process(samples, (frameNo, re, im) -> { });
+        stft.reset();
+
+        Assert.assertEquals(0, stft.getNoOfFrames());
+        Assert.assertEquals(0, stft.process(samples, 0, 15, (frameNo, re, im) -> { }));
+        Assert.assertEquals(1, stft.process(samples, 15, 1, (frameNo, re, im) -> { }));
+    }
+
+    @Test
+    public void hannWindowsAddUpToConstant() {
+
+        double[] window = Window.HANN.getCoefficients(16);
+
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(1d, window[i] + window[i + 8], 0.0000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlapOfOneIsRejected() {
+        Stft.withOverlap(1024, 1d, Window.HANN);
+    }
+}
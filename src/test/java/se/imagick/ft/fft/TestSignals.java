@@ -0,0 +1,40 @@
+package se.imagick.ft.fft;
+
+import java.util.Random;
+
+/**
+ * Test signals shared by the tests of the package.
+ */
+final class TestSignals {
+
+    private TestSignals() {
+    }
+
+    /**
+     * @return Size values, evenly distributed between -1 and 1 (the same values for the same seed).
+     */
+    static double[] getNoise(int size, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        return values;
+    }
+
+    /**
+     * @return The values of getNoise rounded to float.
+     */
+    static float[] getFloatNoise(int size, long seed) {
+        double[] noise = getNoise(size, seed);
+        float[] values = new float[size];
+
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) noise[i];
+        }
+
+        return values;
+    }
+}
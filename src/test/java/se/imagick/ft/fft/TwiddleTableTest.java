@@ -0,0 +1,44 @@
+package se.imagick.ft.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TwiddleTableTest {
+
+    @Test
+    public void givesTheSameValuesAsDirectCalculation() {
+        for (int size = 1; size <= 1 << 14; size *= 2) {
+            TwiddleTable twiddles = new TwiddleTable(size);
+
+            // Below 4, only index 0 is used by the butterflies.
+            for (int index = 0; index < ((size < 4) ? 1 : size); index++) {
+
+                // The direct calculation rounds the angle, which is not exact either (a few ulps apart).
+                double angle = 2 * Math.PI * index / size;
+                Assert.assertEquals("Size: " + size + ", index: " + index, Math.cos(angle), twiddles.cos(index), 1E-15);
+                Assert.assertEquals("Size: " + size + ", index: " + index, Math.sin(angle), twiddles.sin(index), 1E-15);
+            }
+        }
+    }
+
+    @Test
+    public void quartersAreExact() {
+        TwiddleTable twiddles = new TwiddleTable(1024);
+
+        Assert.assertEquals(1d, twiddles.cos(0), 0d);
+        Assert.assertEquals(0d, twiddles.sin(0), 0d);
+        Assert.assertEquals(0d, twiddles.cos(256), 0d);
+        Assert.assertEquals(1d, twiddles.sin(256), 0d);
+        Assert.assertEquals(-1d, twiddles.cos(512), 0d);
+        Assert.assertEquals(0d, twiddles.sin(512), 0d);
+        Assert.assertEquals(0d, twiddles.cos(768), 0d);
+        Assert.assertEquals(-1d, twiddles.sin(768), 0d);
+    }
+
+    @Test
+    public void holdsAQuarterLap() {
+        int size = 1 << 20;
+        Assert.assertEquals(8L * (size / 4 + 1), new TwiddleTable(size).getMemoryUsage());
+        Assert.assertTrue(FftPlans.get(size).getMemoryUsage() < 8L * size);
+    }
+}
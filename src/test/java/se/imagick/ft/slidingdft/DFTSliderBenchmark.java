@@ -0,0 +1,204 @@
+package se.imagick.ft.slidingdft;
+
+import se.imagick.ft.fft.Stft;
+import se.imagick.ft.fft.Window;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simple throughput comparison of the DFTSlider implementations (not run as a part of the tests).
+ * Run the main method with the test classpath, preferably with a fixed heap (-Xms1g -Xmx1g).
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        for(int noOfFrequencies : new int[]{64, 512, 2048}) {
+            double[] samples = getSamples(20_000);
+            System.out.println("Frequencies: " + noOfFrequencies);
+            benchmark("  DFTSliderImpl       ", new DFTSliderImpl(noOfFrequencies), samples);
+            benchmark("  DFTSliderCompactImpl", new DFTSliderCompactImpl(noOfFrequencies), samples);
+            benchmarkBlocks("  DFTSliderCompact (b)", new DFTSliderCompactImpl(noOfFrequencies), samples);
+            benchmark("  DFTSliderCompact (l)", new DFTSliderCompactImpl(noOfFrequencies, true, true), samples);
+            benchmark("  DFTSliderCompact (f)", new DFTSliderCompactFloatImpl(noOfFrequencies), samples);
+            benchmark("  DFTSliderPhasorImpl ", new DFTSliderPhasorImpl(noOfFrequencies), samples);
+            benchmarkBlocks("  DFTSliderPhasor (b) ", new DFTSliderPhasorImpl(noOfFrequencies), samples);
+            benchmark("  DFTSliderSparse (5) ", new DFTSliderSparseImpl(noOfFrequencies, new int[]{1, 2, 3, 5, 8}), samples);
+            benchmarkBlocks("  DFTSliderSparse (b) ", new DFTSliderSparseImpl(noOfFrequencies, new int[]{1, 2, 3, 5, 8}), samples);
+            benchmark("  Stft (hop 441)      ", new Stft(noOfFrequencies * 2, 441, Window.HANN), samples);
+        }
+
+        for(int noOfChannels : new int[]{64, 256}) {
+            double[] samples = getSamples(2_000 * noOfChannels);
+            System.out.println("Channels: " + noOfChannels + ", frequencies: 512");
+            benchmarkChannels("  DFTSliderPhasorImpl ", noOfChannels, samples, new DFTSliderFilter(512, noOfChannels, false) {
+                private final DFTSlider[] sliders = getPhasorSliders(512, noOfChannels);
+
+                @Override
+                public void slide(double[] sample) {
+                    for(int channel = 0; channel < sliders.length; channel++) {
+                        sample[channel] = sliders[channel].slide(sample[channel]);
+                    }
+                }
+            });
+            benchmarkChannels("  Interleaved         ", noOfChannels, samples, new DFTSliderFilter(512, noOfChannels, true));
+            benchmarkChannels("  Interleaved (p)     ", noOfChannels, samples,
+                    new DFTSliderFilter(512, noOfChannels, true, ForkJoinPool.commonPool()));
+            benchmarkChannelBlocks("  Interleaved (pb)    ", noOfChannels, samples,
+                    new DFTSliderFilter(512, noOfChannels, true, ForkJoinPool.commonPool()));
+        }
+    }
+
+    private static DFTSlider[] getPhasorSliders(int noOfFrequencies, int noOfChannels) {
+        DFTSlider[] sliders = new DFTSlider[noOfChannels];
+
+        for(int channel = 0; channel < noOfChannels; channel++) {
+            sliders[channel] = new DFTSliderPhasorImpl(noOfFrequencies);
+        }
+
+        return sliders;
+    }
+
+    /**
+     * Samples for all channels, in ns per sample and channel.
+     */
+    private static void benchmarkChannels(String name, int noOfChannels, double[] samples, DFTSliderFilter filter) {
+        double[] sample = new double[noOfChannels];
+        double sink = 0d;
+        long best = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            for(int off = 0; off < samples.length; off += noOfChannels) {
+                System.arraycopy(samples, off, sample, 0, noOfChannels);
+                filter.slide(sample);
+                sink += sample[0];
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%s %10.1f ns/sample (%s)%n", name, (double) best / samples.length, sink == 0d ? "-" : "+");
+    }
+
+    /**
+     * Blocks of 250 samples for all channels, in ns per sample and channel.
+     */
+    private static void benchmarkChannelBlocks(String name, int noOfChannels, double[] samples, DFTSliderFilter filter) {
+        int blockLength = 250;
+        double[][] block = new double[noOfChannels][blockLength];
+        double sink = 0d;
+        long best = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            for(int off = 0; off < samples.length; off += noOfChannels * blockLength) {
+                for(int channel = 0; channel < noOfChannels; channel++) {
+                    for(int i = 0; i < blockLength; i++) {
+                        block[channel][i] = samples[off + i * noOfChannels + channel];
+                    }
+                }
+
+                filter.slide(block, 0, blockLength);
+                sink += block[0][blockLength - 1];
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%s %10.1f ns/sample (%s)%n", name, (double) best / samples.length, sink == 0d ? "-" : "+");
+    }
+
+    private static void benchmark(String name, DFTSlider slider, double[] samples) {
+        double sink = 0d;
+        long best = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            for(double sample : samples) {
+                sink += slider.slide(sample);
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%s %10.1f ns/sample (%s)%n", name, (double) best / samples.length, sink == 0d ? "-" : "+");
+    }
+
+    /**
+     * Blocks of 1024 samples through slide(double[], int, int, double[]).
+     */
+    private static void benchmarkBlocks(String name, DFTSlider slider, double[] samples) {
+        double[] realSums = new double[samples.length];
+        double sink = 0d;
+        long best = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            for(int off = 0; off < samples.length; off += 1024) {
+                slider.slide(samples, off, Math.min(1024, samples.length - off), realSums);
+            }
+
+            sink += realSums[samples.length - 1];
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%s %10.1f ns/sample (%s)%n", name, (double) best / samples.length, sink == 0d ? "-" : "+");
+    }
+
+    /**
+     * The same number of frequencies, but only one spectrum every 441 samples (100 per second at 44.1 kHz).
+     */
+    private static void benchmark(String name, Stft stft, double[] samples) {
+        double[] sink = new double[1];
+        long best = Long.MAX_VALUE;
+
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            stft.process(samples, (frameNo, re, im) -> sink[0] += re[1]);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%s %10.1f ns/sample (%s)%n", name, (double) best / samples.length, sink[0] == 0d ? "-" : "+");
+    }
+
+    private static double[] getSamples(int noOfSamples) {
+        Random random = new Random(4711);
+        double[] samples = new double[noOfSamples];
+
+        for(int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        return samples;
+    }
+}
@@ -0,0 +1,70 @@
+package se.imagick.ft.slidingdft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test of the DFTSliderCompactFloatImpl.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderCompactFloatImplTest extends DFTSliderTestParent {
+
+    @Override
+    DFTSlider getSliderImpl(int noOfFrequencies) {
+        return new DFTSliderCompactFloatImpl(noOfFrequencies);
+    }
+
+    @Override
+    double getBlockSlideTolerance() {
+        return 1e-5; // The block is slid in double, the single slides round each component to float.
+    }
+
+    @Test
+    public void givesSameComponentsAsDoubleVersionWithinBound() {
+        for(int noOfFrequencies : new int[] {8, 64, 1024}) {
+            givesSameComponentsAsDoubleVersionWithinBound(noOfFrequencies, 20000);
+        }
+    }
+
+    private void givesSameComponentsAsDoubleVersionWithinBound(int noOfFrequencies, int noOfSamples) {
+        DFTSliderCompactImpl expected = new DFTSliderCompactImpl(noOfFrequencies);
+        DFTSliderCompactFloatImpl actual = new DFTSliderCompactFloatImpl(noOfFrequencies);
+        Random random = new Random(4711);
+
+        for(int i = 0; i < noOfSamples; i++) {
+            float sample = (float)(random.nextDouble() * 2d - 1d);
+            double expectedSum = expected.slide((double)sample);
+            float actualSum = actual.slide(sample);
+            Assert.assertEquals("Frequencies: " + noOfFrequencies, expectedSum, actualSum, 3E-7 * Math.sqrt(noOfFrequencies));
+        }
+
+        for(int i = 0; i < expected.getNoOfFrequencies(); i++) {
+            Assert.assertEquals("Frequencies: " + noOfFrequencies, expected.getComplex(i).getReal(), actual.getComplex(i).getReal(), 1E-6);
+            Assert.assertEquals("Frequencies: " + noOfFrequencies, expected.getComplex(i).getImaginary(), actual.getComplex(i).getImaginary(), 1E-6);
+        }
+    }
+}
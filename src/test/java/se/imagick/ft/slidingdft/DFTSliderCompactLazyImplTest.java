@@ -0,0 +1,85 @@
+package se.imagick.ft.slidingdft;
+
+import org.junit.Assert;
+import org.junit.Test;
+import se.imagick.ft.common.Complex;
+import se.imagick.ft.common.Polar;
+
+import java.util.Random;
+
+/**
+ * Test of the DFTSliderCompactImpl in lazy polar mode.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderCompactLazyImplTest extends DFTSliderTestParent {
+
+    @Override
+    DFTSlider getSliderImpl(int noOfFrequencies) {
+        return new DFTSliderCompactImpl(noOfFrequencies, true, true);
+    }
+
+    @Test
+    public void sameAsEagerPolar() {
+        int noOfFrequencies = 64;
+        DFTSliderCompactImpl eager = new DFTSliderCompactImpl(noOfFrequencies);
+        DFTSliderCompactImpl lazy = new DFTSliderCompactImpl(noOfFrequencies, true, true);
+        Random random = new Random(4711);
+
+        for(int i = 0; i < 100_003; i++) {
+            double sample = random.nextDouble() * 2d - 1d;
+            Assert.assertEquals(eager.slide(sample), lazy.slide(sample), 1e-9);
+        }
+
+        double[] magnitudes = new double[lazy.getNoOfFrequencies()];
+        double[] phases = new double[lazy.getNoOfFrequencies()];
+        lazy.getPolars(magnitudes, phases);
+
+        for(int i = 0; i < lazy.getNoOfFrequencies(); i++) {
+            Polar eagerPolar = eager.getPolar(i);
+            Complex complex = lazy.getComplex(i);
+            Assert.assertEquals(eager.getComplex(i).getReal(), complex.getReal(), 1e-9);
+            Assert.assertEquals(eager.getComplex(i).getImaginary(), complex.getImaginary(), 1e-9);
+            Assert.assertEquals(eagerPolar.getMagnitude(), magnitudes[i], 1e-9);
+            Assert.assertEquals(Math.cos(eagerPolar.getPhase()), Math.cos(phases[i]), 1e-6);
+            Assert.assertEquals(Math.sin(eagerPolar.getPhase()), Math.sin(phases[i]), 1e-6);
+            Assert.assertEquals(magnitudes[i], lazy.getPolar(i).getMagnitude(), 0d);
+            Assert.assertEquals(phases[i], lazy.getPolar(i).getPhase(), 0d);
+        }
+    }
+
+    @Test
+    public void polarFollowsChanges() {
+        DFTSliderCompactImpl slider = new DFTSliderCompactImpl(4, true, true);
+        slider.slide(1d);
+        Assert.assertEquals(0.125d, slider.getPolar(0).getMagnitude(), 1e-12);
+
+        slider.setComplex(2, new Complex(0d, -3d));
+        Assert.assertEquals(3d, slider.getPolar(2).getMagnitude(), 1e-12);
+        Assert.assertEquals(-Math.PI / 2d, slider.getPolar(2).getPhase(), 1e-12);
+
+        slider.slide(0d);
+        Assert.assertEquals(0d, slider.getPolar(2).getPhase(), 1e-12);
+    }
+}
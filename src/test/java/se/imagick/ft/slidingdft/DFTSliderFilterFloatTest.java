@@ -0,0 +1,83 @@
+package se.imagick.ft.slidingdft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test of the DFTSliderFilterFloat.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderFilterFloatTest {
+
+    @Test
+    public void getSliderWithComponents(){
+
+        DFTSliderFilterFloat sliderFilter = new DFTSliderFilterFloat(4, 2);
+        float[] sample = new float[]{1,2};
+        float[] emptySample = new float[2];
+
+        sliderFilter.slide(sample);
+        sliderFilter.slide(emptySample);
+        sliderFilter.slide(emptySample);
+        sliderFilter.slide(emptySample);
+        sliderFilter.slide(emptySample);
+        sliderFilter.slide(emptySample);
+        sliderFilter.slide(emptySample);
+
+        float[] outSample;
+        outSample = sliderFilter.getRealSum();
+        Assert.assertEquals(0, outSample[0], 0.001d);
+        Assert.assertEquals(0, outSample[1], 0.001d);
+        assertChannelSliders(sliderFilter);
+
+        sliderFilter.slide(emptySample);
+        outSample = sliderFilter.getRealSum();
+        Assert.assertEquals(1, outSample[0], 0.001d);
+        Assert.assertEquals(2, outSample[1], 0.001d);
+        assertChannelSliders(sliderFilter);
+
+        sliderFilter.slide(emptySample);
+        outSample = sliderFilter.getRealSum();
+        Assert.assertEquals(0, outSample[0], 0.001d);
+        Assert.assertEquals(0, outSample[1], 0.001d);
+        assertChannelSliders(sliderFilter);
+    }
+
+    private void assertChannelSliders(DFTSliderFilterFloat filter){
+
+        DFTSliderCompactFloatImpl[] sliders = filter.getChannelSliders();
+
+        for(int channelNo = 0; channelNo < sliders.length; channelNo++) {
+            DFTSliderCompactFloatImpl slider = sliders[channelNo];
+
+            for(int compNo = 0; compNo < slider.getNoOfFrequencies(); compNo++) {
+                Assert.assertEquals(filter.getAmplitude(channelNo, compNo), slider.getPolar(compNo).getMagnitude(), 0.0001);
+                Assert.assertEquals(filter.getPhase(channelNo, compNo), slider.getPolar(compNo).getPhase(), 0.0001);
+                Assert.assertEquals(filter.getReal(channelNo, compNo), slider.getComplex(compNo).getReal(), 0.0001);
+                Assert.assertEquals(filter.getImaginary(channelNo, compNo), slider.getComplex(compNo).getImaginary(), 0.0001);
+            }
+        }
+    }
+}
@@ -3,6 +3,11 @@ package se.imagick.ft.slidingdft;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Test of the DFTSliderFilter.
  *
@@ -33,8 +38,178 @@ public class DFTSliderFilterTest {
 
     @Test
     public void getSliderWithComponents(){
+        getSliderWithComponents(new DFTSliderFilter(4, 2));
+    }
+
+    @Test
+    public void getSliderWithComponentsInterleaved(){
+        getSliderWithComponents(new DFTSliderFilter(4, 2, true));
+    }
+
+    @Test
+    public void interleavedSameAsSeparateChannels(){
+        int noOfChannels = 67;
+        DFTSliderFilter expected = new DFTSliderFilter(32, noOfChannels);
+        DFTSliderFilter actual = new DFTSliderFilter(32, noOfChannels, true);
+        Random random = new Random(4711);
+
+        for(int i = 0; i < 1000; i++) {
+            double[] expectedSample = new double[noOfChannels];
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                expectedSample[channelNo] = random.nextDouble() * 2d - 1d;
+            }
+
+            double[] actualSample = expectedSample.clone();
+            expected.slide(expectedSample);
+            actual.slide(actualSample);
+            Assert.assertArrayEquals(expectedSample, actualSample, 1e-9);
+        }
+
+        Assert.assertArrayEquals(expected.getRealSum(), actual.getRealSum(), 1e-9);
+
+        for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+            for(int compNo = 0; compNo < 33; compNo++) {
+                Assert.assertEquals(expected.getReal(channelNo, compNo), actual.getReal(channelNo, compNo), 1e-9);
+                Assert.assertEquals(expected.getImaginary(channelNo, compNo), actual.getImaginary(channelNo, compNo), 1e-9);
+                Assert.assertEquals(expected.getAmplitude(channelNo, compNo), actual.getAmplitude(channelNo, compNo), 1e-9);
+            }
+        }
+
+        assertChannelSliders(actual);
+    }
+
+    @Test
+    public void parallelSameAsSerial(){
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ExecutorService workers = Executors.newFixedThreadPool(3);
+
+        try{
+            parallelSameAsSerial(false, pool);
+            parallelSameAsSerial(true, pool);
+            parallelSameAsSerial(true, workers);
+        }finally{
+            pool.shutdown();
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    public void blockSameAsSingleSamples(){
+        blockSameAsSingleSamples(false, 1e-5);
+        blockSameAsSingleSamples(true, 0d);
+    }
+
+    @Test
+    public void taskChannels(){
+        Assert.assertArrayEquals(new int[]{0, 100}, DFTSliderFilter.getTaskChannels(100, 8));
+        Assert.assertArrayEquals(new int[]{0, 2}, DFTSliderFilter.getTaskChannels(2, 8));
+        Assert.assertArrayEquals(new int[]{0, 1000}, DFTSliderFilter.getTaskChannels(1000, 1));
+
+        int[] taskChannels = DFTSliderFilter.getTaskChannels(1003, 6);
+        Assert.assertEquals(7, taskChannels.length);
+        Assert.assertEquals(0, taskChannels[0]);
+        Assert.assertEquals(1003, taskChannels[6]);
+
+        for(int task = 1; task < 7; task++) {
+            Assert.assertTrue(taskChannels[task] - taskChannels[task - 1] >= 64);
+        }
+    }
+
+    private void parallelSameAsSerial(boolean isChannelInterleaved, ExecutorService executor){
+        int noOfChannels = 1001;
+        DFTSliderFilter expected = new DFTSliderFilter(16, noOfChannels, isChannelInterleaved);
+        DFTSliderFilter actual = new DFTSliderFilter(16, noOfChannels, isChannelInterleaved, executor);
+        Random random = new Random(4711);
+
+        for(int i = 0; i < 100; i++) {
+            double[] expectedSample = getRandomSample(random, noOfChannels);
+            double[] actualSample = expectedSample.clone();
+            expected.slide(expectedSample);
+            actual.slide(actualSample);
+            Assert.assertArrayEquals(expectedSample, actualSample, 0d);
+        }
+
+        for(int len : new int[]{1, 70, 0, 33}) {
+            double[][] expectedSamples = new double[noOfChannels][];
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                expectedSamples[channelNo] = getRandomSample(random, len + 2);
+            }
+
+            double[][] actualSamples = new double[noOfChannels][];
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                actualSamples[channelNo] = expectedSamples[channelNo].clone();
+            }
+
+            expected.slide(expectedSamples, 2, len);
+            actual.slide(actualSamples, 2, len);
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                Assert.assertArrayEquals(expectedSamples[channelNo], actualSamples[channelNo], 0d);
+            }
+        }
+
+        Assert.assertArrayEquals(expected.getRealSum(), actual.getRealSum(), 0d);
+
+        for(int channelNo = 0; channelNo < noOfChannels; channelNo += 97) {
+            for(int compNo = 0; compNo < 17; compNo++) {
+                Assert.assertEquals(expected.getReal(channelNo, compNo), actual.getReal(channelNo, compNo), 0d);
+                Assert.assertEquals(expected.getImaginary(channelNo, compNo), actual.getImaginary(channelNo, compNo), 0d);
+            }
+        }
+    }
+
+    private void blockSameAsSingleSamples(boolean isChannelInterleaved, double delta){
+        int noOfChannels = 5;
+        int noOfSamples = 300;
+        DFTSliderFilter expected = new DFTSliderFilter(64, noOfChannels, isChannelInterleaved);
+        DFTSliderFilter actual = new DFTSliderFilter(64, noOfChannels, isChannelInterleaved);
+        Random random = new Random(4711);
+        double[][] samples = new double[noOfChannels][];
+
+        for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+            samples[channelNo] = getRandomSample(random, noOfSamples);
+        }
+
+        double[][] expectedSamples = new double[noOfChannels][noOfSamples];
+
+        for(int i = 0; i < noOfSamples; i++) {
+            double[] sample = new double[noOfChannels];
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                sample[channelNo] = samples[channelNo][i];
+            }
+
+            expected.slide(sample);
+
+            for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+                expectedSamples[channelNo][i] = sample[channelNo];
+            }
+        }
+
+        actual.slide(samples, 0, 100);
+        actual.slide(samples, 100, noOfSamples - 100);
+
+        for(int channelNo = 0; channelNo < noOfChannels; channelNo++) {
+            Assert.assertArrayEquals(expectedSamples[channelNo], samples[channelNo], delta);
+        }
+
+        Assert.assertArrayEquals(expected.getRealSum(), actual.getRealSum(), delta);
+    }
+
+    private double[] getRandomSample(Random random, int length){
+        double[] sample = new double[length];
+
+        for(int i = 0; i < length; i++) {
+            sample[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        return sample;
+    }
 
-        DFTSliderFilter sliderFilter = new DFTSliderFilter(4, 2);
+    private void getSliderWithComponents(DFTSliderFilter sliderFilter){
         double[] sample = new double[]{1,2};
         double[] emptySample = new double[2];
 
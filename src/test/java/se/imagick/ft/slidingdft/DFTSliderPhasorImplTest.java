@@ -0,0 +1,78 @@
+package se.imagick.ft.slidingdft;
+
+import org.junit.Assert;
+import org.junit.Test;
+import se.imagick.ft.common.Complex;
+
+import java.util.Random;
+
+/**
+ * Test of the DFTSliderPhasorImpl.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderPhasorImplTest extends DFTSliderTestParent {
+
+    @Override
+    DFTSlider getSliderImpl(int noOfFrequencies) {
+        return new DFTSliderPhasorImpl(noOfFrequencies);
+    }
+
+    @Test
+    public void longSignalDoesNotDrift() {
+        int noOfFrequencies = 64;
+        int windowSize = noOfFrequencies * 2;
+        double[] samples = new double[1_000_003];
+        Random random = new Random(4711);
+
+        for(int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        DFTSlider slider = getSliderImpl(noOfFrequencies);
+
+        for(double sample : samples) {
+            slider.slide(sample);
+        }
+
+        for(int compNo = 0; compNo <= noOfFrequencies; compNo++) {
+            double multiplier = (compNo == 0 || compNo == noOfFrequencies)?1d : 2d;
+            double real = 0d;
+            double imag = 0d;
+
+            for(int age = 1; age <= windowSize; age++) {
+                double sample = samples[samples.length - age];
+                double angle = Math.PI * compNo * age / noOfFrequencies;
+                real += sample * Math.cos(angle);
+                imag += sample * Math.sin(angle);
+            }
+
+            Complex complex = slider.getComplex(compNo);
+            Assert.assertEquals("Component no: " + compNo, real * multiplier / windowSize, complex.getReal(), 1e-9);
+            Assert.assertEquals("Component no: " + compNo, imag * multiplier / windowSize, complex.getImaginary(), 1e-9);
+        }
+
+        Assert.assertEquals(samples[samples.length - windowSize], slider.getRealSum(false), 1e-9);
+    }
+}
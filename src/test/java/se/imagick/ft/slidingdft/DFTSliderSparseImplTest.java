@@ -0,0 +1,113 @@
+package se.imagick.ft.slidingdft;
+
+import org.junit.Assert;
+import org.junit.Test;
+import se.imagick.ft.common.Complex;
+
+import java.util.Random;
+
+/**
+ * Test of the DFTSliderSparseImpl, tracking all bins for the common tests.
+ *
+ * ---------------------
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Olav Holten
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+public class DFTSliderSparseImplTest extends DFTSliderTestParent {
+
+    @Override
+    DFTSlider getSliderImpl(int noOfFrequencies) {
+        int[] bins = new int[noOfFrequencies + 1];
+
+        for(int i = 0; i < bins.length; i++) {
+            bins[i] = i;
+        }
+
+        return new DFTSliderSparseImpl(noOfFrequencies, bins);
+    }
+
+    @Test
+    public void sameAsFullSlider() {
+        int noOfFrequencies = 256;
+        int[] bins = {0, 3, 17, 100, 255, 256};
+        DFTSliderSparseImpl sparse = new DFTSliderSparseImpl(noOfFrequencies, bins);
+        DFTSlider full = new DFTSliderPhasorImpl(noOfFrequencies);
+        Random random = new Random(4711);
+
+        for(int i = 0; i < 100_000; i++) {
+            double sample = random.nextDouble() * 2d - 1d;
+            sparse.slide(sample);
+            full.slide(sample);
+        }
+
+        Assert.assertEquals(bins.length, sparse.getNoOfFrequencies());
+        Assert.assertEquals(noOfFrequencies * 2, sparse.getLatencyInSamples());
+
+        for(int compNo = 0; compNo < bins.length; compNo++) {
+            Complex expected = full.getComplex(bins[compNo]);
+            Complex complex = sparse.getComplex(compNo);
+            Assert.assertEquals(bins[compNo], sparse.getFrequency(compNo), 0d);
+            Assert.assertEquals("Bin: " + bins[compNo], expected.getReal(), complex.getReal(), 1e-12);
+            Assert.assertEquals("Bin: " + bins[compNo], expected.getImaginary(), complex.getImaginary(), 1e-12);
+        }
+    }
+
+    @Test
+    public void nonIntegerFrequencies() {
+        int noOfFrequencies = 32;
+        int windowSize = noOfFrequencies * 2;
+        double[] frequencies = {0.5d, 3.25d, 10d, 31.9d};
+        double[] samples = new double[100_003];
+        Random random = new Random(4711);
+
+        for(int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        DFTSlider slider = new DFTSliderSparseImpl(noOfFrequencies, frequencies);
+
+        for(double sample : samples) {
+            slider.slide(sample);
+        }
+
+        for(int compNo = 0; compNo < frequencies.length; compNo++) {
+            double real = 0d;
+            double imag = 0d;
+
+            for(int age = 1; age <= windowSize; age++) {
+                double sample = samples[samples.length - age];
+                double angle = Math.PI * frequencies[compNo] * age / noOfFrequencies;
+                real += sample * Math.cos(angle);
+                imag += sample * Math.sin(angle);
+            }
+
+            Complex complex = slider.getComplex(compNo);
+            Assert.assertEquals("Frequency: " + frequencies[compNo], real * 2d / windowSize, complex.getReal(), 1e-9);
+            Assert.assertEquals("Frequency: " + frequencies[compNo], imag * 2d / windowSize, complex.getImaginary(), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void frequencyAboveNyquist() {
+        new DFTSliderSparseImpl(8, new double[]{8.5d});
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import se.imagick.ft.common.Complex;
 import se.imagick.ft.common.Polar;
 
+import java.util.Random;
 
 /**
  * Parent of the DFTSlider implementation test classes, making sure all implementations are API-tested the same way.
@@ -160,6 +161,46 @@ public abstract class DFTSliderTestParent {
         Assert.assertNotEquals(complex, complexFromSlider);
     }
 
+    @Test
+    public void blockSlideSameAsSingleSlides() {
+        int noOfFrequencies = 64;
+        double[] samples = new double[600];
+        double[] expectedSums = new double[samples.length];
+        double[] actualSums = new double[samples.length];
+        double tolerance = getBlockSlideTolerance();
+        Random random = new Random(4711);
+
+        for(int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2d - 1d;
+        }
+
+        DFTSlider expected = getSliderImpl(noOfFrequencies);
+        DFTSlider actual = getSliderImpl(noOfFrequencies);
+
+        for(int i = 0; i < samples.length; i++) {
+            expectedSums[i] = expected.slide(samples[i]);
+        }
+
+        actual.slide(samples, 0, 1, actualSums);
+        actual.slide(samples, 1, 5, actualSums);
+        actual.slide(samples, 6, 0, actualSums);
+        actual.slide(samples, 6, 200, actualSums);
+        System.arraycopy(samples, 206, actualSums, 206, samples.length - 206);
+        actual.slide(actualSums, 206, samples.length - 206, actualSums); // In place.
+
+        for(int i = 0; i < samples.length; i++) {
+            Assert.assertEquals("Sample no: " + i, expectedSums[i], actualSums[i], tolerance);
+        }
+
+        Assert.assertEquals(expected.getRealSum(false), actual.getRealSum(false), tolerance);
+
+        for(int i = 0; i < expected.getNoOfFrequencies(); i++) {
+            Assert.assertEquals("Component no: " + i, expected.getComplex(i).getReal(), actual.getComplex(i).getReal(), tolerance);
+            Assert.assertEquals("Component no: " + i, expected.getComplex(i).getImaginary(), actual.getComplex(i).getImaginary(), tolerance);
+            Assert.assertEquals("Component no: " + i, expected.getPolar(i).getMagnitude(), actual.getPolar(i).getMagnitude(), tolerance);
+        }
+    }
+
     private DFTSlider getSliderWithComponents(double dc, double[]... samplesSeries) {
         DFTSlider slider = getSliderImpl(samplesSeries[0].length / 2);
         double[] tot = addRealComponents(samplesSeries);
@@ -228,5 +269,12 @@ public abstract class DFTSliderTestParent {
         System.out.println("---------");
     }
 
+    /**
+     * @return The largest difference allowed between a block slide and single slides.
+     */
+    double getBlockSlideTolerance() {
+        return 1e-10;
+    }
+
     abstract DFTSlider getSliderImpl(int noOfFrequencies);
 }